@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import utilities.DataHelper;
+
+/**
+ * DataHelper generators. getData() builds a new Faker on every call, measured separately from the generators themselves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataHelperBenchmark {
+    private DataHelper dataHelper;
+
+    @Setup
+    public void setUp() {
+        dataHelper = DataHelper.getData();
+    }
+
+    @Benchmark
+    public DataHelper getData() {
+        return DataHelper.getData();
+    }
+
+    @Benchmark
+    public String firstName() {
+        return dataHelper.getFirstName();
+    }
+
+    @Benchmark
+    public String emailAddress() {
+        return dataHelper.getEmailAddress();
+    }
+
+    @Benchmark
+    public String fakeEmail() {
+        return dataHelper.generateFakeEmail();
+    }
+
+    @Benchmark
+    public String fakeAlphaNumeric() {
+        return dataHelper.generateFakeAlphaNumeric(10);
+    }
+
+    @Benchmark
+    public String fakeDate() {
+        return dataHelper.generateFakeDate("dd/MM/yyyy");
+    }
+}
@@ -0,0 +1,75 @@
+package benchmarks;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import utilities.DatabaseHelper;
+
+/**
+ * DatabaseHelper.selectQuery row mapping against an in-memory H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatabaseBenchmark {
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws SQLException {
+        DatabaseHelper.conn = DriverManager.getConnection("jdbc:h2:mem:benchmark" + rows + ";DB_CLOSE_DELAY=-1");
+        try (Statement statement = DatabaseHelper.conn.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS EMPLOYEE (ID INT PRIMARY KEY, FIRST_NAME VARCHAR(50), LAST_NAME VARCHAR(50), EMAIL VARCHAR(100), "
+                    + "SALARY DECIMAL(10, 2), JOINED_DATE DATE)");
+            statement.execute("TRUNCATE TABLE EMPLOYEE");
+        }
+        try (PreparedStatement insert = DatabaseHelper.conn.prepareStatement("INSERT INTO EMPLOYEE VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                insert.setInt(1, i);
+                insert.setString(2, "First" + i);
+                insert.setString(3, "Last" + i);
+                insert.setString(4, "employee" + i + "@example.com");
+                insert.setBigDecimal(5, BigDecimal.valueOf(1000 + i, 2));
+                insert.setDate(6, Date.valueOf("2023-01-" + String.format("%02d", i % 28 + 1)));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDatabase() throws SQLException {
+        DatabaseHelper.conn.close();
+        DatabaseHelper.conn = null;
+    }
+
+    @Benchmark
+    public List<Map<String, ?>> selectQuery() {
+        return DatabaseHelper.selectQuery("SELECT * FROM EMPLOYEE", "ID", "1");
+    }
+}
@@ -0,0 +1,89 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import utilities.DownloadVerifier;
+import utilities.ExcelHelper;
+import utilities.RowValidationResult;
+
+/**
+ * ExcelHelper.getExcelDataAsMap on a small and a large generated workbook, with the streaming reader of DownloadVerifier as reference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExcelBenchmark {
+    private static final String SHEET_NAME = "Employees";
+    private static final String[] HEADERS = {"Employee Id", "First Name", "Last Name", "Email", "Department", "Job Title", "Salary", "Joined Date"};
+
+    @Param({"10", "5000"})
+    public int rows;
+
+    private File workbookFile;
+
+    @Setup(Level.Trial)
+    public void createWorkbook() throws IOException {
+        workbookFile = File.createTempFile("excel-benchmark", ".xlsx");
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        XSSFSheet sheet = workbook.createSheet(SHEET_NAME);
+        XSSFRow header = sheet.createRow(0);
+        for (int column = 0; column < HEADERS.length; column++) {
+            header.createCell(column).setCellValue(HEADERS[column]);
+        }
+        for (int i = 1; i <= rows; i++) {
+            XSSFRow row = sheet.createRow(i);
+            row.createCell(0).setCellValue(i);
+            row.createCell(1).setCellValue("First" + i);
+            row.createCell(2).setCellValue("Last" + i);
+            row.createCell(3).setCellValue("employee" + i + "@example.com");
+            row.createCell(4).setCellValue("Department " + i % 10);
+            row.createCell(5).setCellValue("Job " + i % 25);
+            row.createCell(6).setCellValue(1000 + i * 1.5);
+            row.createCell(7).setCellValue("2023-01-" + (i % 28 + 1));
+        }
+        try (OutputStream output = new FileOutputStream(workbookFile)) {
+            workbook.write(output);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteWorkbook() {
+        workbookFile.delete();
+    }
+
+    @Benchmark
+    public Map<String, List<String>> getExcelDataAsMap() {
+        return ExcelHelper.getData().getExcelDataAsMap(workbookFile.getPath(), SHEET_NAME);
+    }
+
+    @Benchmark
+    public RowValidationResult streamRows() {
+        return DownloadVerifier.getVerifier().validateXlsxRows(workbookFile, 0, (rowNumber, cells) -> cells.size() == HEADERS.length);
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+
+import commons.LocatorCache;
+
+/**
+ * Locator parsing behind BasePage getByLocator/getDynamicXpath, which both delegate to {@link LocatorCache}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocatorBenchmark {
+    private static final String DYNAMIC_XPATH = "xpath=//div[@id='%s']//input[@name='%s']";
+
+    @Param({"id=btnLogin", "css=#frmLogin input[name='txtPassword']", "xpath=//div[@id='divUsername']/input"})
+    public String locator;
+
+    private final LocatorCache locatorCache = LocatorCache.getLocatorCache();
+    private long sequence;
+
+    @Benchmark
+    public By cachedLocator() {
+        return locatorCache.getBy(locator);
+    }
+
+    @Benchmark
+    public By uncachedLocator() {
+        // A new string every call: parse cost once the cache is full
+        return locatorCache.getBy(locator + sequence++);
+    }
+
+    @Benchmark
+    public String dynamicXpath() {
+        return locatorCache.getDynamicXpath(DYNAMIC_XPATH, "divUsername", "txtUsername");
+    }
+
+    @Benchmark
+    public String dynamicXpathStringFormat() {
+        return String.format(DYNAMIC_XPATH, "divUsername", "txtUsername");
+    }
+}
@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * WebDriver without a browser: every element lookup returns the same visible, enabled element, so benchmarks measure the framework and not the browser.
+ */
+final class StubDriver {
+
+    private StubDriver() {
+    }
+
+    static WebDriver create() {
+        WebElement element = proxy(WebElement.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+            case "isDisplayed":
+            case "isEnabled":
+                return true;
+            case "isSelected":
+                return false;
+            case "getText":
+            case "getAttribute":
+                return "stub";
+            default:
+                return defaultValue(proxy, method.getName(), method.getReturnType(), args);
+            }
+        });
+        return proxy(WebDriver.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+            case "findElement":
+                return element;
+            case "findElements":
+                return Collections.singletonList(element);
+            default:
+                return defaultValue(proxy, method.getName(), method.getReturnType(), args);
+            }
+        });
+    }
+
+    private static Object defaultValue(Object proxy, String methodName, Class<?> returnType, Object[] args) {
+        switch (methodName) {
+        case "hashCode":
+            return System.identityHashCode(proxy);
+        case "equals":
+            return proxy == args[0];
+        case "toString":
+            return "StubDriver@" + Integer.toHexString(System.identityHashCode(proxy));
+        default:
+            return returnType == boolean.class ? Boolean.FALSE : null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(StubDriver.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+}
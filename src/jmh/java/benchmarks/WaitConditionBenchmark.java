@@ -0,0 +1,65 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import commons.WaitEngine;
+
+/**
+ * Overhead of evaluating a wait condition that is already satisfied, against a {@link StubDriver}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaitConditionBenchmark {
+    private final By by = By.id("txtUsername");
+    private WebDriver driver;
+    private WaitEngine waitEngine;
+    private Function<? super WebDriver, WebElement> visible;
+
+    @Setup
+    public void setUp() {
+        driver = StubDriver.create();
+        waitEngine = WaitEngine.getWaitEngine(driver);
+        visible = ExpectedConditions.visibilityOfElementLocated(by);
+    }
+
+    @Benchmark
+    public WebElement evaluateCondition() {
+        return visible.apply(driver);
+    }
+
+    @Benchmark
+    public Function<? super WebDriver, WebElement> cachedCondition() {
+        return WaitEngine.getCondition("visible|id=txtUsername", () -> ExpectedConditions.visibilityOfElementLocated(by));
+    }
+
+    @Benchmark
+    public WebElement waitEngineUntil() {
+        return waitEngine.until(visible, 30);
+    }
+
+    @Benchmark
+    public WebElement webDriverWaitUntil() {
+        return new WebDriverWait(driver, 30).until(visible::apply);
+    }
+}
@@ -0,0 +1,179 @@
+package commons;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.TestResult;
+
+/**
+ * Latency of BasePage actions, keyed by action and locator. Every thread records into its own {@link LatencyHistogram}s without locking; the histograms of all
+ * threads are merged when the report is written at suite end.
+ */
+public class ActionMetrics {
+    private static final int MAX_LOCATORS_PER_ACTION = 512;
+    private static final String OTHER_LOCATORS = "*";
+    private static final ConcurrentLinkedQueue<Recorder> recorders = new ConcurrentLinkedQueue<>();
+    private static final ThreadLocal<Recorder> recorder = ThreadLocal.withInitial(() -> {
+        Recorder threadRecorder = new Recorder();
+        recorders.add(threadRecorder);
+        return threadRecorder;
+    });
+
+    public static Recorder getRecorder() {
+        return recorder.get();
+    }
+
+    /**
+     * Merge the histograms of every thread. Only call it once the recording threads are done (e.g. at suite end), the histograms are not synchronized.
+     *
+     * @return Merged histograms by "action|locator", sorted by key
+     */
+    public static Map<String, LatencyHistogram> getMergedHistograms() {
+        Map<String, LatencyHistogram> merged = new TreeMap<>();
+        for (Recorder threadRecorder : recorders) {
+            for (Map.Entry<String, Map<String, LatencyHistogram>> action : threadRecorder.histograms.entrySet()) {
+                for (Map.Entry<String, LatencyHistogram> locator : action.getValue().entrySet()) {
+                    String key = locator.getKey().isEmpty() ? action.getKey() : action.getKey() + "|" + locator.getKey();
+                    merged.computeIfAbsent(key, k -> new LatencyHistogram()).merge(locator.getValue());
+                }
+            }
+        }
+        return merged;
+    }
+
+    public static void reset() {
+        for (Recorder threadRecorder : recorders) {
+            threadRecorder.histograms.clear();
+        }
+    }
+
+    /**
+     * Write the merged histograms to GlobalConstants actionMetrics folder as CSV and JSON and attach both to the Allure report as a test of their own
+     *
+     * @param suiteName name of the finished suite, used for the file names
+     */
+    public static void writeReport(String suiteName) {
+        Map<String, LatencyHistogram> histograms = getMergedHistograms();
+        if (histograms.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> rows = toRows(histograms);
+        String fileName = suiteName.replaceAll("[^A-Za-z0-9._-]", "_");
+        try {
+            File folder = new File(GlobalConstants.getGlobalConstants().getActionMetrics());
+            Files.createDirectories(folder.toPath());
+            byte[] csv = toCsv(rows);
+            byte[] json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsBytes(rows);
+            Files.write(new File(folder, fileName + ".csv").toPath(), csv);
+            Files.write(new File(folder, fileName + ".json").toPath(), json);
+            attachToAllure(suiteName, csv, json);
+        } catch (IOException e) {
+            throw new RuntimeException("Fail to write action metrics of " + suiteName, e);
+        }
+    }
+
+    private static List<Map<String, Object>> toRows(Map<String, LatencyHistogram> histograms) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            int separator = entry.getKey().indexOf('|');
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("action", separator < 0 ? entry.getKey() : entry.getKey().substring(0, separator));
+            row.put("locator", separator < 0 ? "" : entry.getKey().substring(separator + 1));
+            row.put("count", histogram.getCount());
+            row.put("meanMillis", toMillis(histogram.getMeanNanos()));
+            row.put("p50Millis", toMillis(histogram.getValueAtPercentile(50)));
+            row.put("p95Millis", toMillis(histogram.getValueAtPercentile(95)));
+            row.put("p99Millis", toMillis(histogram.getValueAtPercentile(99)));
+            row.put("maxMillis", toMillis(histogram.getMaxNanos()));
+            row.put("totalMillis", toMillis(histogram.getTotalNanos()));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static byte[] toCsv(List<Map<String, Object>> rows) {
+        StringBuilder csv = new StringBuilder();
+        csv.append(String.join(",", rows.get(0).keySet())).append('\n');
+        for (Map<String, Object> row : rows) {
+            List<String> cells = new ArrayList<>();
+            for (Object value : row.values()) {
+                String cell = String.valueOf(value);
+                cells.add(cell.contains(",") || cell.contains("\"") ? "\"" + cell.replace("\"", "\"\"") + "\"" : cell);
+            }
+            csv.append(String.join(",", cells)).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private static void attachToAllure(String suiteName, byte[] csv, byte[] json) {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        String uuid = UUID.randomUUID().toString();
+        lifecycle.scheduleTestCase(new TestResult().setUuid(uuid).setName("Action latency of " + suiteName).setFullName("actionMetrics." + suiteName)
+                .setStatus(Status.PASSED));
+        lifecycle.startTestCase(uuid);
+        lifecycle.addAttachment("Action latency (CSV)", "text/csv", ".csv", csv);
+        lifecycle.addAttachment("Action latency (JSON)", "application/json", ".json", json);
+        lifecycle.stopTestCase(uuid);
+        lifecycle.writeTestCase(uuid);
+    }
+
+    /**
+     * Histograms of one thread. Only the outermost BasePage action of a call chain is recorded, nested actions run inside it.
+     */
+    public static final class Recorder {
+        private final Map<String, Map<String, LatencyHistogram>> histograms = new HashMap<>();
+        private boolean recording;
+
+        private Recorder() {
+        }
+
+        public boolean isRecording() {
+            return recording;
+        }
+
+        public void setRecording(boolean recording) {
+            this.recording = recording;
+        }
+
+        public void record(String action, String locator, long nanos) {
+            Map<String, LatencyHistogram> locators = histograms.get(action);
+            if (locators == null) {
+                locators = new HashMap<>();
+                histograms.put(action, locators);
+            }
+            LatencyHistogram histogram = locators.get(locator);
+            if (histogram == null) {
+                // Keep memory bounded when locators are built from data
+                String key = locators.size() < MAX_LOCATORS_PER_ACTION ? locator : OTHER_LOCATORS;
+                histogram = locators.get(key);
+                if (histogram == null) {
+                    histogram = new LatencyHistogram();
+                    locators.put(key, histogram);
+                }
+            }
+            histogram.record(nanos);
+        }
+    }
+}
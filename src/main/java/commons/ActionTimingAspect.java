@@ -0,0 +1,46 @@
+package commons;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Time every public BasePage method (page objects included, as they inherit them) into {@link ActionMetrics}. Woven at load time by the aspectjweaver agent,
+ * registered in META-INF/aop.xml. Disabled with -DactionMetrics=false.
+ */
+@Aspect
+public class ActionTimingAspect {
+    private static final boolean enabled = GlobalConstants.getGlobalConstants().isActionMetricsEnabled();
+
+    @Around("execution(public * commons.BasePage.*(..))")
+    public Object timeAction(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!enabled) {
+            return joinPoint.proceed();
+        }
+        ActionMetrics.Recorder recorder = ActionMetrics.getRecorder();
+        if (recorder.isRecording()) {
+            return joinPoint.proceed();
+        }
+        recorder.setRecording(true);
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            recorder.setRecording(false);
+            recorder.record(joinPoint.getSignature().getName(), getLocator(joinPoint.getArgs()), elapsed);
+        }
+    }
+
+    /**
+     * @return The first String argument, which is the locator (not yet formatted with its dynamic values) for element actions
+     */
+    private static String getLocator(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof String) {
+                return (String) arg;
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,283 @@
+package commons;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Timeouts learned from earlier runs. Every BasePage wait records how long its condition took to be satisfied, keyed by "page|action|locator", in a history
+ * file that is loaded at startup and saved at suite end. Once a key has enough samples its timeout is a high percentile of the history times a safety
+ * multiplier, clamped to the configured floor and ceiling: a broken element fails after a few seconds instead of the full long timeout, and a slow report
+ * gets more than the long timeout when it has always needed it. Keys without enough history keep the default timeout.
+ * <p>
+ * Only satisfied waits are samples. A timeout is only counted: the time waited says nothing about how long the condition needs, and a broken locator would
+ * otherwise raise its own timeout to the ceiling. A key that has timed out is never given more than the default timeout.
+ * <p>
+ * A learned timeout shorter than the default is a first attempt: when it expires, WaitEngine waits on up to the default timeout, so a page that got slower
+ * only costs time and its slower sample widens the learned timeout. Only a key that recently timed out even with the default timeout fails at the learned
+ * timeout without a second attempt. A success clears the timeouts of the key, and timeouts older than the expiry are forgotten.
+ */
+public class AdaptiveTimeouts {
+    private static final Log log = LogFactory.getLog(AdaptiveTimeouts.class);
+    private static final int MAX_SAMPLES = 100;
+    private static final int MAX_KEYS = 10000;
+    private static AdaptiveTimeouts adaptiveTimeouts;
+
+    private final ConcurrentHashMap<String, History> histories = new ConcurrentHashMap<>();
+    private final File historyFile;
+    private final boolean enabled;
+    private final int minSamples;
+    private final double percentile;
+    private final double multiplier;
+    private final long floorInMillis;
+    private final long ceilingInMillis;
+    private final long timeoutExpiryInMillis;
+
+    public AdaptiveTimeouts(File historyFile, boolean enabled, int minSamples, double percentile, double multiplier, long floorInMillis, long ceilingInMillis,
+            long timeoutExpiryInMillis) {
+        this.historyFile = historyFile;
+        this.enabled = enabled;
+        this.minSamples = Math.max(1, minSamples);
+        this.percentile = percentile;
+        this.multiplier = multiplier;
+        this.floorInMillis = floorInMillis;
+        this.ceilingInMillis = Math.max(floorInMillis, ceilingInMillis);
+        this.timeoutExpiryInMillis = timeoutExpiryInMillis;
+        if (enabled) {
+            load();
+        }
+    }
+
+    public static synchronized AdaptiveTimeouts getAdaptiveTimeouts() {
+        if (adaptiveTimeouts == null) {
+            GlobalConstants constants = GlobalConstants.getGlobalConstants();
+            adaptiveTimeouts = new AdaptiveTimeouts(new File(constants.getWaitHistory()), constants.isAdaptiveTimeoutEnabled(), constants.getAdaptiveTimeoutMinSamples(),
+                    constants.getAdaptiveTimeoutPercentile(), constants.getAdaptiveTimeoutMultiplier(), constants.getAdaptiveTimeoutFloorInMillis(),
+                    constants.getAdaptiveTimeoutCeilingInMillis(), TimeUnit.HOURS.toMillis(constants.getAdaptiveTimeoutExpiryInHours()));
+            Runtime.getRuntime().addShutdownHook(new Thread(adaptiveTimeouts::save, "wait-history-save"));
+        }
+        return adaptiveTimeouts;
+    }
+
+    /**
+     * @param key                    "page|action|locator"
+     * @param defaultTimeoutInMillis timeout used while the key has too little history, and the upper bound once it has timed out
+     * @return The timeout learned for the key
+     */
+    public long getTimeoutInMillis(String key, long defaultTimeoutInMillis) {
+        History history = enabled ? histories.get(key) : null;
+        if (history == null) {
+            return defaultTimeoutInMillis;
+        }
+        long timeout = history.getTimeoutInMillis();
+        if (timeout < 0) {
+            return defaultTimeoutInMillis;
+        }
+        return history.hasTimedOut() ? Math.min(timeout, defaultTimeoutInMillis) : timeout;
+    }
+
+    /**
+     * @param key "page|action|locator"
+     * @return True if the key timed out with the default timeout since its last success and within the expiry: its wait gets no second attempt
+     */
+    public boolean hasRecentTimeout(String key) {
+        History history = enabled ? histories.get(key) : null;
+        return history != null && history.hasTimedOutSince(System.currentTimeMillis() - timeoutExpiryInMillis);
+    }
+
+    /**
+     * @param key                    "page|action|locator"
+     * @param defaultPollingInMillis first polling interval used while the key has too little history
+     * @return A first polling interval of a quarter of the median wait, so typical waits are satisfied on the first or second poll
+     */
+    public long getPollingInMillis(String key, long defaultPollingInMillis) {
+        History history = enabled ? histories.get(key) : null;
+        if (history == null) {
+            return defaultPollingInMillis;
+        }
+        long polling = history.getPollingInMillis();
+        return polling < 0 ? defaultPollingInMillis : Math.max(defaultPollingInMillis, polling);
+    }
+
+    /**
+     * @param key             "page|action|locator"
+     * @param elapsedInMillis time the wait took, ignored when it timed out
+     * @param timedOut        true if the condition was not satisfied within the default timeout
+     */
+    public void record(String key, long elapsedInMillis, boolean timedOut) {
+        if (!enabled || key.indexOf('\t') >= 0 || key.indexOf('\n') >= 0) {
+            return;
+        }
+        History history = histories.get(key);
+        if (history == null) {
+            if (histories.size() >= MAX_KEYS) {
+                return;
+            }
+            history = histories.computeIfAbsent(key, k -> new History());
+        }
+        history.record(elapsedInMillis, timedOut);
+    }
+
+    /**
+     * @return Learned timeout of every key with enough history, sorted by key
+     */
+    public Map<String, Long> getLearnedTimeouts() {
+        Map<String, Long> timeouts = new TreeMap<>();
+        for (Map.Entry<String, History> entry : histories.entrySet()) {
+            long timeout = entry.getValue().getTimeoutInMillis();
+            if (timeout >= 0) {
+                timeouts.put(entry.getKey(), timeout);
+            }
+        }
+        return timeouts;
+    }
+
+    /**
+     * Write the history file. Runs sharing the file overwrite each other's history, the last one to finish wins.
+     */
+    public synchronized void save() {
+        if (!enabled || histories.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(historyFile.getAbsoluteFile().getParentFile().toPath());
+            File temporaryFile = new File(historyFile.getAbsolutePath() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temporaryFile.toPath(), StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, History> entry : new TreeMap<>(histories).entrySet()) {
+                    writer.write(entry.getKey());
+                    writer.write('\t');
+                    writer.write(entry.getValue().toLine());
+                    writer.newLine();
+                }
+            }
+            Files.move(temporaryFile.toPath(), historyFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // Also runs from a shutdown hook: losing the history of one run must not fail it
+            log.error("Fail to write wait history " + historyFile, e);
+        }
+    }
+
+    private void load() {
+        if (!historyFile.isFile()) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(historyFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null && histories.size() < MAX_KEYS) {
+                String[] columns = line.split("\t");
+                if (columns.length != 3 && columns.length != 4) {
+                    continue;
+                }
+                History history = new History();
+                try {
+                    history.timeouts = Long.parseLong(columns[1]);
+                    // Files written before the last timeout was saved: their timeouts are treated as expired
+                    history.lastTimeoutAt = columns.length == 4 ? Long.parseLong(columns[3]) : 0;
+                    for (String sample : columns[2].split(",")) {
+                        if (!sample.isEmpty()) {
+                            history.add(Long.parseLong(sample));
+                        }
+                    }
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                histories.put(columns[0], history);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Last MAX_SAMPLES wait times of one key, oldest first in the ring
+     */
+    private final class History {
+        private final long[] samples = new long[MAX_SAMPLES];
+        private int size;
+        private int next;
+        private long timeouts;
+        private long lastTimeoutAt;
+        private long timeoutInMillis = -1;
+        private long pollingInMillis = -1;
+        private boolean dirty = true;
+
+        synchronized void record(long elapsedInMillis, boolean timedOut) {
+            if (timedOut) {
+                timeouts++;
+                lastTimeoutAt = System.currentTimeMillis();
+            } else {
+                add(elapsedInMillis);
+                timeouts = 0;
+                lastTimeoutAt = 0;
+            }
+        }
+
+        synchronized boolean hasTimedOut() {
+            return timeouts > 0;
+        }
+
+        synchronized boolean hasTimedOutSince(long sinceMillis) {
+            return timeouts > 0 && lastTimeoutAt > sinceMillis;
+        }
+
+        synchronized void add(long elapsedInMillis) {
+            samples[next] = Math.max(0, elapsedInMillis);
+            next = (next + 1) % MAX_SAMPLES;
+            size = Math.min(size + 1, MAX_SAMPLES);
+            dirty = true;
+        }
+
+        synchronized long getTimeoutInMillis() {
+            update();
+            return timeoutInMillis;
+        }
+
+        synchronized long getPollingInMillis() {
+            update();
+            return pollingInMillis;
+        }
+
+        private void update() {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            if (size < minSamples) {
+                timeoutInMillis = -1;
+                pollingInMillis = -1;
+                return;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            // Interpolated between the two closest ranks: the nearest rank is the largest sample whenever size < 100 / (100 - percentile)
+            double rank = Math.max(0, Math.min(100, percentile)) / 100 * (size - 1);
+            int lower = (int) Math.floor(rank);
+            double high = sorted[lower] + (rank - lower) * (sorted[Math.min(size - 1, lower + 1)] - sorted[lower]);
+            timeoutInMillis = Math.min(ceilingInMillis, Math.max(floorInMillis, (long) Math.ceil(high * multiplier)));
+            pollingInMillis = sorted[(size - 1) / 2] / 4;
+        }
+
+        synchronized String toLine() {
+            StringBuilder line = new StringBuilder().append(timeouts).append('\t');
+            for (int i = 0; i < size; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                line.append(samples[(next - size + i + MAX_SAMPLES) % MAX_SAMPLES]);
+            }
+            return line.append('\t').append(lastTimeoutAt).toString();
+        }
+    }
+}
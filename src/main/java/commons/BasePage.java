@@ -1,23 +1,36 @@
 package commons;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 
-import io.qameta.allure.Allure;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.Color;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
+import org.testng.ITestResult;
+import org.testng.Reporter;
 
 import io.qameta.allure.Step;
 import pageUIs.CommonUI;
+import reportConfig.ScreenshotPipeline;
+import utilities.BrowserLogCapture;
+import utilities.DownloadWatcher;
 
 public class BasePage {
 
@@ -29,8 +42,13 @@ public class BasePage {
      */
     @Step("Open url {1}")
     public void openPageUrl(WebDriver driver, String pageUrl) {
+        clearElementCache(driver);
+        FrameContext.getFrameContext(driver).reset();
         driver.get(pageUrl);
+        NetworkActivity.installInterceptor(driver);
         Assert.assertTrue(areJQueryAndJSLoadedSuccess(driver));
+        recordPageLoadTiming(driver, "open");
+        BrowserLogCapture.drain(driver);
     }
 
     /**
@@ -60,6 +78,11 @@ public class BasePage {
      */
     public void backToPage(WebDriver driver) {
         driver.navigate().back();
+        NetworkActivity.installInterceptor(driver);
+        clearElementCache(driver);
+        FrameContext.getFrameContext(driver).reset();
+        recordPageLoadTiming(driver, "back");
+        BrowserLogCapture.drain(driver);
     }
 
     /**
@@ -69,6 +92,11 @@ public class BasePage {
      */
     public void forwardToPage(WebDriver driver) {
         driver.navigate().forward();
+        NetworkActivity.installInterceptor(driver);
+        clearElementCache(driver);
+        FrameContext.getFrameContext(driver).reset();
+        recordPageLoadTiming(driver, "forward");
+        BrowserLogCapture.drain(driver);
     }
 
     /**
@@ -79,6 +107,50 @@ public class BasePage {
     @Step("Refresh screen")
     public void refreshCurrentPage(WebDriver driver) {
         driver.navigate().refresh();
+        NetworkActivity.installInterceptor(driver);
+        clearElementCache(driver);
+        FrameContext.getFrameContext(driver).reset();
+        recordPageLoadTiming(driver, "refresh");
+        BrowserLogCapture.drain(driver);
+    }
+
+    /**
+     * Read the Navigation, Paint and Long Task timing of the current page in one script call, after waiting for its load event
+     *
+     * @param driver driver of browser
+     * @param action navigation that loaded the page, e.g. "open" or "refresh"
+     * @return Load metrics of the page
+     */
+    @SuppressWarnings("unchecked")
+    public PageLoadTiming getPageLoadTiming(WebDriver driver, String action) {
+        JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+        Map<String, Object> timing = (Map<String, Object>) jsExecutor.executeAsyncScript(BrowserScripts.PAGE_LOAD_TIMING,
+                GlobalConstants.getGlobalConstants().getPageLoadTimingMaxWaitInMillis());
+        ITestResult result = Reporter.getCurrentTestResult();
+        return new PageLoadTiming(action, result == null ? null : result.getName(), timing);
+    }
+
+    /**
+     * Keep the load metrics of the page a navigation just loaded with the current test and check them against the performance budgets. Off unless
+     * -DpageLoadTiming=true, as it costs a script call of up to pageLoadTimingMaxWaitInMillis per navigation. A browser that cannot report them does not fail the
+     * navigation.
+     *
+     * @param driver driver of browser
+     * @param action navigation that loaded the page
+     */
+    private void recordPageLoadTiming(WebDriver driver, String action) {
+        if (!GlobalConstants.getGlobalConstants().isPageLoadTimingEnabled() || !(driver instanceof JavascriptExecutor)) {
+            return;
+        }
+        PageLoadTiming timing;
+        try {
+            timing = getPageLoadTiming(driver, action);
+        } catch (WebDriverException e) {
+            log.warn("Page load timing not available after " + action + ": " + e.getMessage());
+            return;
+        }
+        PageLoadTiming.record(Reporter.getCurrentTestResult(), timing);
+        PerformanceBudgets.getPerformanceBudgets().verify(timing);
     }
 
     /**
@@ -89,8 +161,7 @@ public class BasePage {
      * @return The function's return value if the function returned something different from null or false before the timeout expired.
      */
     public Alert waitForAlertPresence(WebDriver driver) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        return explicitWait.until(ExpectedConditions.alertIsPresent());
+        return WaitEngine.getWaitEngine(driver).until(getWaitHistoryKey("alert", ""), WaitEngine.getCondition("alertIsPresent", ExpectedConditions::alertIsPresent), longTimeout);
     }
 
     /**
@@ -100,6 +171,7 @@ public class BasePage {
      */
     public void acceptAlert(WebDriver driver) {
         waitForAlertPresence(driver).accept();
+        clearPageState(driver);
     }
 
     /**
@@ -109,6 +181,7 @@ public class BasePage {
      */
     public void cancelAlert(WebDriver driver) {
         waitForAlertPresence(driver).dismiss();
+        clearPageState(driver);
     }
 
     /**
@@ -138,30 +211,28 @@ public class BasePage {
      * @param parentID ID of window
      */
     public void switchToWindowByID(WebDriver driver, String parentID) {
-        Set<String> allWindows = driver.getWindowHandles();
-        for (String window : allWindows) {
-            if (!window.equals(parentID)) {
-                driver.switchTo().window(window);
-                break;
-            }
-        }
+        WindowRegistry.getRegistry(driver).switchToOtherThan(parentID);
     }
 
     /**
-     * Switch to window by title of window
+     * Switch to window by title of window. Windows whose cached title matches are tried first; if none matches the driver stays in the current window.
      *
      * @param driver driver of browser
      * @param title  title of window
      */
     public void switchToWindowByTitle(WebDriver driver, String title) {
-        Set<String> allWindows = driver.getWindowHandles();
-        for (String window : allWindows) {
-            driver.switchTo().window(window);
-            String currentWinTitle = driver.getTitle();
-            if (currentWinTitle.equals(title)) {
-                break;
-            }
-        }
+        WindowRegistry.getRegistry(driver).switchToTitle(title);
+    }
+
+    /**
+     * Switch to window whose URL contains the text. If none matches the driver stays in the current window.
+     *
+     * @param driver  driver of browser
+     * @param urlPart part of the URL of window
+     * @return True if a window matched
+     */
+    public boolean switchToWindowByUrl(WebDriver driver, String urlPart) {
+        return WindowRegistry.getRegistry(driver).switchToUrl(urlPart);
     }
 
     /**
@@ -171,52 +242,57 @@ public class BasePage {
      * @param parentID ID of window
      */
     public void closeAllWindowWithoutParent(WebDriver driver, String parentID) {
-        Set<String> allWindows = driver.getWindowHandles();
-        for (String id : allWindows) {
-            if (!id.equals(parentID)) {
-                driver.switchTo().window(id);
-                driver.close();
-            }
-        }
-        driver.switchTo().window(parentID);
+        WindowRegistry.getRegistry(driver).closeAllExcept(parentID);
     }
 
     /**
      * Get By locator
      *
      * @param locatorType used to find the element
-     * @return A By which locates elements by the value of the "id" or "class" or "name" or "css" or "xpath".
+     * @return A By which locates elements by the value of the "id" or "class" or "name" or "css" or "xpath", inside the frame the locator declares.
      */
     private By getByLocator(String locatorType) {
-        By by = null;
-        if (locatorType.startsWith("ID=") || locatorType.startsWith("Id=") || locatorType.startsWith("id=")) {
-            by = By.id(locatorType.substring(3));
-        } else if (locatorType.startsWith("CLASS=") || locatorType.startsWith("Class=") || locatorType.startsWith("class=")) {
-            by = By.className(locatorType.substring(6));
-        } else if (locatorType.startsWith("NAME=") || locatorType.startsWith("Name=") || locatorType.startsWith("name=")) {
-            by = By.name(locatorType.substring(5));
-        } else if (locatorType.startsWith("CSS=") || locatorType.startsWith("Css=") || locatorType.startsWith("css=")) {
-            by = By.cssSelector(locatorType.substring(4));
-        } else if (locatorType.startsWith("XPATH=") || locatorType.startsWith("Xpath=") || locatorType.startsWith("xpath=") || locatorType.startsWith("XPath=")) {
-            by = By.xpath(locatorType.substring(6));
-        } else {
-            throw new RuntimeException("Locator type is not supported!");
+        return LocatorCache.getLocatorCache().getBy(FrameContext.getElementLocator(locatorType));
+    }
+
+    /**
+     * Get the compiled locator of the element, inside the frame the locator declares
+     *
+     * @param locatorType used to find the element
+     * @return The compiled locator of "id" or "class" or "name" or "css" or "xpath".
+     */
+    private CompiledLocator getCompiledLocator(String locatorType) {
+        return LocatorCache.getLocatorCache().getLocator(FrameContext.getElementLocator(locatorType));
+    }
+
+    /**
+     * Switch to the frame a locator declares ("frame locator >>> element locator") unless the driver is already in it. Locators without frame are resolved in
+     * the current frame.
+     *
+     * @param driver      driver of browser
+     * @param locatorType used to find the element
+     */
+    private void enterFrame(WebDriver driver, String locatorType) {
+        if (FrameContext.isFrameLocator(locatorType)) {
+            FrameContext.getFrameContext(driver).enter(locatorType);
         }
-        return by;
     }
 
     /**
-     * Returns a formatted string using the specified format string and arguments. The locale always used is the one returned by Locale.getDefault().
+     * Returns a formatted string using the specified format string and arguments. Placeholders are filled from a template compiled once per locator.
      *
      * @param locatorType   used to find the element contains arguments.
      * @param dynamicValues arguments of @param locatorType
      * @return A formatted string locatorType
      */
     private String getDynamicXpath(String locatorType, String... dynamicValues) {
-        if (locatorType.startsWith("XPATH=") || locatorType.startsWith("Xpath=") || locatorType.startsWith("xpath=") || locatorType.startsWith("XPath=")) {
-            locatorType = String.format(locatorType, (Object[]) dynamicValues);
+        if (FrameContext.isFrameLocator(locatorType)) {
+            // Only the element locator has placeholders, the frame locators are kept as they are
+            String elementLocator = FrameContext.getElementLocator(locatorType);
+            String frameLocators = locatorType.substring(0, locatorType.length() - elementLocator.length());
+            return frameLocators + LocatorCache.getLocatorCache().getDynamicXpath(elementLocator, dynamicValues);
         }
-        return locatorType;
+        return LocatorCache.getLocatorCache().getDynamicXpath(locatorType, dynamicValues);
     }
 
     /**
@@ -227,7 +303,90 @@ public class BasePage {
      * @return The first matching element on the current page
      */
     public WebElement getWebElement(WebDriver driver, String locatorType) {
-        return driver.findElement(getByLocator(locatorType));
+        enterFrame(driver, locatorType);
+        ElementHandleCache handleCache = ElementHandleCache.getCache(driver);
+        WebElement element = handleCache.get(locatorType);
+        if (element == null) {
+            element = findElement(driver, locatorType);
+            handleCache.put(locatorType, element);
+        }
+        return element;
+    }
+
+    /**
+     * Find the first element. In explicit-wait-only mode the implicit timeout is 0, so the lookup waits for the element explicitly instead.
+     *
+     * @param driver      driver of browser
+     * @param locatorType used to find the element
+     * @return The first matching element on the current page
+     */
+    private WebElement findElement(WebDriver driver, String locatorType) {
+        By by = getByLocator(locatorType);
+        if (GlobalConstants.getGlobalConstants().isExplicitWaitOnly()) {
+            try {
+                return WaitEngine.getWaitEngine(driver).until(getWaitHistoryKey("present", locatorType), d -> d.findElement(by), longTimeout);
+            } catch (TimeoutException e) {
+                // Let the driver raise its usual NoSuchElementException
+            }
+        }
+        return driver.findElement(by);
+    }
+
+    /**
+     * Run an action on the element, re-resolving it once if the cached handle turns out to be stale. An action may change the DOM, so every cached handle is
+     * forgotten afterwards: a positional locator such as (//tr)[1] could otherwise return a row that is still attached but no longer the first one.
+     *
+     * @param driver      driver of browser
+     * @param locatorType used to find the element
+     * @param action      action to perform with the element
+     */
+    protected void actOnElement(WebDriver driver, String locatorType, Consumer<WebElement> action) {
+        try {
+            readElement(driver, locatorType, element -> {
+                action.accept(element);
+                return null;
+            });
+        } finally {
+            clearElementCache(driver);
+        }
+    }
+
+    /**
+     * Read a value from the element, re-resolving it once if the cached handle turns out to be stale
+     *
+     * @param driver      driver of browser
+     * @param locatorType used to find the element
+     * @param reader      function reading the value from the element
+     * @return The value returned by @param reader
+     */
+    protected <T> T readElement(WebDriver driver, String locatorType, Function<WebElement, T> reader) {
+        try {
+            return reader.apply(getWebElement(driver, locatorType));
+        } catch (StaleElementReferenceException e) {
+            ElementHandleCache.getCache(driver).remove(locatorType);
+            return reader.apply(getWebElement(driver, locatorType));
+        }
+    }
+
+    /**
+     * Forget all element handles resolved for this driver. Called automatically on navigation, frame and window switch and after every action on an element.
+     *
+     * @param driver driver of browser
+     */
+    public void clearElementCache(WebDriver driver) {
+        ElementHandleCache.getCache(driver).clear();
+    }
+
+    /**
+     * Forget what an action that may navigate (click, key press, alert) made stale: the element handles, and the frame path when the driver is in a frame.
+     * The browser logs are drained when due, as the action may have loaded a page.
+     *
+     * @param driver driver of browser
+     */
+    protected void clearPageState(WebDriver driver) {
+        clearElementCache(driver);
+        FrameContext.getFrameContext(driver).invalidate();
+        BrowserLogCapture.drainIfDue(driver);
     }
 
     /**
@@ -238,7 +397,19 @@ public class BasePage {
      * @return A list of all WebElements, or an empty list if nothing matches
      */
     public List<WebElement> getListWebElement(WebDriver driver, String locatorType) {
-        return driver.findElements(getByLocator(locatorType));
+        enterFrame(driver, locatorType);
+        By by = getByLocator(locatorType);
+        if (GlobalConstants.getGlobalConstants().isExplicitWaitOnly()) {
+            try {
+                return WaitEngine.getWaitEngine(driver).until(getWaitHistoryKey("allPresent", locatorType), d -> {
+                    List<WebElement> elements = d.findElements(by);
+                    return elements.isEmpty() ? null : elements;
+                }, longTimeout);
+            } catch (TimeoutException e) {
+                return new ArrayList<>();
+            }
+        }
+        return driver.findElements(by);
     }
 
     /**
@@ -248,8 +419,11 @@ public class BasePage {
      * @param locatorType used to find the element
      */
     public void clickToElement(WebDriver driver, String locatorType) {
-        highlightElement(driver, locatorType);
-        getWebElement(driver, locatorType).click();
+        actOnElement(driver, locatorType, element -> {
+            decorateInteraction(driver, element);
+            element.click();
+        });
+        clearPageState(driver);
     }
 
     /**
@@ -260,8 +434,11 @@ public class BasePage {
      * @param dynamicValues arguments of @param locatorType
      */
     public void clickToElement(WebDriver driver, String locatorType, String... dynamicValues) {
-        highlightElement(driver, locatorType, dynamicValues);
-        getWebElement(driver, getDynamicXpath(locatorType, dynamicValues)).click();
+        actOnElement(driver, getDynamicXpath(locatorType, dynamicValues), element -> {
+            decorateInteraction(driver, element);
+            element.click();
+        });
+        clearPageState(driver);
     }
 
     /**
@@ -271,10 +448,12 @@ public class BasePage {
      * @param locatorType used to find the element
      */
     public void doubleClickToElement(WebDriver driver, String locatorType) {
-        highlightElement(driver, locatorType);
-        Actions actions = new Actions(driver);
-        WebElement element = getWebElement(driver, locatorType);
-        actions.doubleClick(element).perform();
+        actOnElement(driver, locatorType, element -> {
+            decorateInteraction(driver, element);
+            Actions actions = new Actions(driver);
+            actions.doubleClick(element).perform();
+        });
+        clearPageState(driver);
     }
 
     /**
@@ -285,10 +464,12 @@ public class BasePage {
      * @param dynamicValues arguments of @param locatorType
      */
     public void doubleClickToElement(WebDriver driver, String locatorType, String... dynamicValues) {
-        highlightElement(driver, locatorType, dynamicValues);
-        Actions actions = new Actions(driver);
-        WebElement element = getWebElement(driver, getDynamicXpath(locatorType, dynamicValues));
-        actions.doubleClick(element).perform();
+        actOnElement(driver, getDynamicXpath(locatorType, dynamicValues), element -> {
+            decorateInteraction(driver, element);
+            Actions actions = new Actions(driver);
+            actions.doubleClick(element).perform();
+        });
+        clearPageState(driver);
     }
 
     /**
@@ -299,10 +480,11 @@ public class BasePage {
      * @param textValue   value to input
      */
     public void sendkeyToElement(WebDriver driver, String locatorType, String textValue) {
-        highlightElement(driver, locatorType);
-        WebElement element = getWebElement(driver, locatorType);
-        element.clear();
-        element.sendKeys(textValue);
+        actOnElement(driver, locatorType, element -> {
+            decorateInteraction(driver, element);
+            element.clear();
+            element.sendKeys(textValue);
+        });
     }
 
     /**
@@ -314,10 +496,76 @@ public class BasePage {
      * @param dynamicValues arguments of @param locatorType.
      */
     public void sendkeyToElement(WebDriver driver, String locatorType, String textValue, String... dynamicValues) {
-        highlightElement(driver, locatorType, dynamicValues);
-        WebElement element = getWebElement(driver, getDynamicXpath(locatorType, dynamicValues));
-        element.clear();
-        element.sendKeys(textValue);
+        actOnElement(driver, getDynamicXpath(locatorType, dynamicValues), element -> {
+            decorateInteraction(driver, element);
+            element.clear();
+            element.sendKeys(textValue);
+        });
+    }
+
+    /**
+     * Fill a form with one script call. Each value is set through the native value setter and followed by input/change events.
+     *
+     * @param driver      driver of browser
+     * @param fieldValues locator of each field to value to input, filled in iteration order
+     */
+    public void fillForm(WebDriver driver, Map<String, String> fieldValues) {
+        List<FormField> fields = new ArrayList<>(fieldValues.size());
+        for (Map.Entry<String, String> field : fieldValues.entrySet()) {
+            fields.add(new FormField(field.getKey(), field.getValue()));
+        }
+        fillForm(driver, fields);
+    }
+
+    /**
+     * Fill a form in as few driver calls as possible. Consecutive fields of the same frame are set together with one script call; fields flagged with nativeTyping are typed with
+     * sendKeys, in order. A field the script cannot find is typed natively too, so the usual element lookup (and its error) applies.
+     *
+     * @param driver driver of browser
+     * @param fields fields to fill, in order
+     */
+    public void fillForm(WebDriver driver, List<FormField> fields) {
+        List<FormField> batch = new ArrayList<>();
+        for (FormField field : fields) {
+            if (!batch.isEmpty() && !FrameContext.getFramePath(field.getLocatorType()).equals(FrameContext.getFramePath(batch.get(0).getLocatorType()))) {
+                // One script call can only set the fields of one frame
+                fillFieldsByScript(driver, batch);
+                batch.clear();
+            }
+            if (field.isNativeTyping()) {
+                fillFieldsByScript(driver, batch);
+                batch.clear();
+                sendkeyToElement(driver, field.getLocatorType(), field.getValue());
+            } else {
+                batch.add(field);
+            }
+        }
+        fillFieldsByScript(driver, batch);
+    }
+
+    /**
+     * Set all fields with one script call, then type the ones the script could not find
+     *
+     * @param driver driver of browser
+     * @param fields fields to fill
+     */
+    private void fillFieldsByScript(WebDriver driver, List<FormField> fields) {
+        if (fields.isEmpty()) {
+            return;
+        }
+        enterFrame(driver, fields.get(0).getLocatorType());
+        List<List<String>> arguments = new ArrayList<>(fields.size());
+        for (FormField field : fields) {
+            CompiledLocator locator = getCompiledLocator(field.getLocatorType());
+            arguments.add(Arrays.asList(locator.getType().name(), locator.getValue(), field.getValue()));
+        }
+        JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+        List<?> missing = (List<?>) jsExecutor.executeScript(BrowserScripts.FILL_FIELDS, arguments);
+        clearElementCache(driver);
+        for (Object index : missing) {
+            FormField field = fields.get(((Number) index).intValue());
+            sendkeyToElement(driver, field.getLocatorType(), field.getValue());
+        }
     }
 
     /**
@@ -328,8 +576,7 @@ public class BasePage {
      * @param textItem    The visible text to match against
      */
     public void selectItemInDefaultDropdown(WebDriver driver, String locatorType, String textItem) {
-        Select select = new Select(getWebElement(driver, locatorType));
-        select.selectByVisibleText(textItem);
+        actOnElement(driver, locatorType, element -> new Select(element).selectByVisibleText(textItem));
     }
 
     /**
@@ -341,8 +588,7 @@ public class BasePage {
      * @param dynamicValues arguments of @param locatorType.
      */
     public void selectItemInDefaultDropdown(WebDriver driver, String locatorType, String textItem, String... dynamicValues) {
-        Select select = new Select(getWebElement(driver, getDynamicXpath(locatorType, dynamicValues)));
-        select.selectByVisibleText(textItem);
+        actOnElement(driver, getDynamicXpath(locatorType, dynamicValues), element -> new Select(element).selectByVisibleText(textItem));
     }
 
     /**
@@ -354,8 +600,7 @@ public class BasePage {
      * @return Text of item
      */
     public String getSelectItemDefaultDropdown(WebDriver driver, String locatorType) {
-        Select select = new Select(getWebElement(driver, locatorType));
-        return select.getFirstSelectedOption().getText();
+        return readElement(driver, locatorType, element -> new Select(element).getFirstSelectedOption().getText());
     }
 
     /**
@@ -367,8 +612,7 @@ public class BasePage {
      * @return Text of item
      */
     public String getSelectItemDefaultDropdown(WebDriver driver, String locatorType, String... dynamicValues) {
-        Select select = new Select(getWebElement(driver, getDynamicXpath(locatorType, dynamicValues)));
-        return select.getFirstSelectedOption().getText();
+        return readElement(driver, getDynamicXpath(locatorType, dynamicValues), element -> new Select(element).getFirstSelectedOption().getText());
     }
 
     /**
@@ -377,8 +621,7 @@ public class BasePage {
      * @return Whether this select element support selecting multiple options at the same time? This is done by checking the value of the "multiple" attribute.
      */
     public boolean isDropdownMultiple(WebDriver driver, String locatorType) {
-        Select select = new Select(getWebElement(driver, locatorType));
-        return select.isMultiple();
+        return readElement(driver, locatorType, element -> new Select(element).isMultiple());
     }
 
     /**
@@ -390,23 +633,7 @@ public class BasePage {
      * @param expectedText item will be selected
      */
     public void selectItemInDropdown(WebDriver driver, String parentXpath, String childXpath, String expectedText) {
-        highlightElement(driver, parentXpath);
-        getWebElement(driver, parentXpath).click();
-        sleepInSecond(1);
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        List<WebElement> allItems = explicitWait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(getByLocator(childXpath)));
-        for (WebElement item : allItems) {
-            if (item.getText().trim().equals(expectedText)) {
-                if (item.isDisplayed()) {
-                    item.click();
-                } else {
-                    JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-                    jsExecutor.executeScript("arguments[0].scrollIntoView(true);", item);
-                    item.click();
-                }
-                break;
-            }
-        }
+        selectItemInCustomDropdown(driver, parentXpath, childXpath, expectedText);
     }
 
     /**
@@ -419,23 +646,7 @@ public class BasePage {
      * @param dynamicValues arguments of @param childXpath
      */
     public void selectItemInDropdown(WebDriver driver, String parentXpath, String childXpath, String expectedText, String... dynamicValues) {
-        highlightElement(driver, parentXpath);
-        getWebElement(driver, parentXpath).click();
-        sleepInSecond(2);
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        List<WebElement> allItems = explicitWait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(getByLocator(getDynamicXpath(childXpath, dynamicValues))));
-        for (WebElement item : allItems) {
-            if (item.getText().trim().equals(expectedText)) {
-                if (item.isDisplayed()) {
-                    item.click();
-                } else {
-                    JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-                    jsExecutor.executeScript("arguments[0].scrollIntoView(true);", item);
-                    item.click();
-                }
-                break;
-            }
-        }
+        selectItemInCustomDropdown(driver, parentXpath, getDynamicXpath(childXpath, dynamicValues), expectedText);
     }
 
     /**
@@ -448,11 +659,83 @@ public class BasePage {
      * @param dynamicValues arguments of @param parentXpath
      */
     public void selectItemInDropdownDynamic(WebDriver driver, String parentXpath, String childXpath, String expectedText, String... dynamicValues) {
-        highlightElement(driver, parentXpath, dynamicValues);
-        getWebElement(driver, getDynamicXpath(parentXpath, dynamicValues)).click();
-        sleepInSecond(1);
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        List<WebElement> allItems = explicitWait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(getByLocator(childXpath)));
+        selectItemInCustomDropdown(driver, getDynamicXpath(parentXpath, dynamicValues), childXpath, expectedText);
+    }
+
+    /**
+     * Open the dropdown, then wait until the expected item is rendered and pick it inside the browser with one script call per poll. Falls back to reading the
+     * items one by one when the script cannot be executed.
+     *
+     * @param driver        driver of browser
+     * @param parentLocator dropdown list
+     * @param childLocator  list item in dropdown
+     * @param expectedText  item will be selected
+     */
+    private void selectItemInCustomDropdown(WebDriver driver, String parentLocator, String childLocator, String expectedText) {
+        actOnElement(driver, parentLocator, parent -> {
+            decorateInteraction(driver, parent);
+            parent.click();
+        });
+        Optional<WebElement> item;
+        try {
+            item = waitForDropdownItem(driver, childLocator, expectedText);
+        } catch (TimeoutException e) {
+            throw e;
+        } catch (ClassCastException | WebDriverException e) {
+            selectItemInDropdownByScan(driver, childLocator, expectedText);
+            clearElementCache(driver);
+            return;
+        }
+        if (item.isPresent()) {
+            item.get().click();
+        }
+        clearElementCache(driver);
+    }
+
+    /**
+     * Wait until the dropdown item with the expected text is rendered. Once items are present, the expected one gets a short timeout to show up; after that the
+     * dropdown is considered not to contain it.
+     *
+     * @param driver       driver of browser
+     * @param childLocator list item in dropdown
+     * @param expectedText item will be selected
+     * @return The matching item, or empty if the rendered items don't contain it
+     */
+    private Optional<WebElement> waitForDropdownItem(WebDriver driver, String childLocator, String expectedText) {
+        enterFrame(driver, childLocator);
+        CompiledLocator locator = getCompiledLocator(childLocator);
+        JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+        return WaitEngine.getWaitEngine(driver).until(new ExpectedCondition<Optional<WebElement>>() {
+            private long itemsPresentSince;
+
+            @Override
+            public Optional<WebElement> apply(WebDriver driver) {
+                List<?> result = (List<?>) jsExecutor.executeScript(BrowserScripts.FIND_DROPDOWN_ITEM, locator.getType().name(), locator.getValue(), expectedText);
+                if (result.get(1) != null) {
+                    return Optional.of((WebElement) result.get(1));
+                }
+                if (((Number) result.get(0)).intValue() == 0) {
+                    return null;
+                }
+                long now = System.currentTimeMillis();
+                if (itemsPresentSince == 0) {
+                    itemsPresentSince = now;
+                }
+                return now - itemsPresentSince >= TimeUnit.SECONDS.toMillis(shortTimeout) ? Optional.<WebElement>empty() : null;
+            }
+        }, longTimeout);
+    }
+
+    /**
+     * Select the dropdown item by reading the text of every item, one remote call per item
+     *
+     * @param driver       driver of browser
+     * @param childLocator list item in dropdown
+     * @param expectedText item will be selected
+     */
+    private void selectItemInDropdownByScan(WebDriver driver, String childLocator, String expectedText) {
+        List<WebElement> allItems = WaitEngine.getWaitEngine(driver).until(getWaitHistoryKey("allPresent", childLocator),
+                getLocatorCondition(driver, "presenceOfAll", childLocator, ExpectedConditions::presenceOfAllElementsLocatedBy), longTimeout);
         for (WebElement item : allItems) {
             if (item.getText().trim().equals(expectedText)) {
                 if (item.isDisplayed()) {
@@ -474,7 +757,7 @@ public class BasePage {
      * @return The attribute/property's current value or null if the value is not set.
      */
     public String getElementAttribute(WebDriver driver, String locatorType, String attributeName) {
-        return getWebElement(driver, locatorType).getAttribute(attributeName);
+        return readElement(driver, locatorType, element -> element.getAttribute(attributeName));
     }
 
     /**
@@ -485,7 +768,7 @@ public class BasePage {
      * @return The attribute/property's current value or null if the value is not set.
      */
     public String getElementAttribute(WebDriver driver, String locatorType, String attributeName, String... dynamicValues) {
-        return getWebElement(driver, getDynamicXpath(locatorType, dynamicValues)).getAttribute(attributeName);
+        return readElement(driver, getDynamicXpath(locatorType, dynamicValues), element -> element.getAttribute(attributeName));
     }
 
     /**
@@ -494,7 +777,7 @@ public class BasePage {
      * @return The visible text of this element.
      */
     public String getElementText(WebDriver driver, String locatorType) {
-        return getWebElement(driver, locatorType).getText();
+        return readElement(driver, locatorType, WebElement::getText);
     }
 
     /**
@@ -504,7 +787,7 @@ public class BasePage {
      * @return The visible text of this element.
      */
     public String getElementText(WebDriver driver, String locatorType, String... dynamicValues) {
-        return getWebElement(driver, getDynamicXpath(locatorType, dynamicValues)).getText();
+        return readElement(driver, getDynamicXpath(locatorType, dynamicValues), WebElement::getText);
     }
 
     /**
@@ -514,7 +797,7 @@ public class BasePage {
      * @return The current, computed value of the property.
      */
     public String getElementCssValue(WebDriver driver, String locatorType, String propertyName) {
-        return getWebElement(driver, locatorType).getCssValue(propertyName);
+        return readElement(driver, locatorType, element -> element.getCssValue(propertyName));
     }
 
     /**
@@ -525,7 +808,134 @@ public class BasePage {
      * @return The current, computed value of the property.
      */
     public String getElementCssValue(WebDriver driver, String locatorType, String propertyName, String... dynamicValues) {
-        return getWebElement(driver, getDynamicXpath(locatorType, dynamicValues)).getCssValue(propertyName);
+        return readElement(driver, getDynamicXpath(locatorType, dynamicValues), element -> element.getCssValue(propertyName));
+    }
+
+    /**
+     * Read the visible text of every element matching the locator with one script call
+     *
+     * @param driver      driver of browser
+     * @param locatorType used to find the elements
+     * @return The visible text of each element, in document order.
+     */
+    public List<String> getElementTexts(WebDriver driver, String locatorType) {
+        return readAllElements(driver, Collections.singletonList(locatorType), "text", null).get(0);
+    }
+
+    /**
+     * Read the visible text of every element matching the dynamic locator with one script call
+     *
+     * @param driver        driver of browser
+     * @param locatorType   used to find the elements
+     * @param dynamicValues arguments of @param locatorType
+     * @return The visible text of each element, in document order.
+     */
+    public List<String> getElementTexts(WebDriver driver, String locatorType, String... dynamicValues) {
+        return getElementTexts(driver, getDynamicXpath(locatorType, dynamicValues));
+    }
+
+    /**
+     * Read the visible text of every element of several named locators with one script call, e.g. all the columns of a grid
+     *
+     * @param driver        driver of browser
+     * @param namedLocators name of the value to locator used to find the elements
+     * @return For each name, the visible text of each element in document order.
+     */
+    public Map<String, List<String>> getElementTexts(WebDriver driver, Map<String, String> namedLocators) {
+        List<List<String>> values = readAllElements(driver, new ArrayList<>(namedLocators.values()), "text", null);
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        int i = 0;
+        for (String name : namedLocators.keySet()) {
+            result.put(name, values.get(i++));
+        }
+        return result;
+    }
+
+    /**
+     * Read an attribute of every element matching the locator with one script call
+     *
+     * @param driver        driver of browser
+     * @param locatorType   used to find the elements
+     * @param attributeName The name of the attribute.
+     * @return The attribute/property's current value of each element, null if the value is not set.
+     */
+    public List<String> getElementAttributes(WebDriver driver, String locatorType, String attributeName) {
+        return readAllElements(driver, Collections.singletonList(locatorType), "attribute", attributeName).get(0);
+    }
+
+    /**
+     * Read an attribute of every element matching the dynamic locator with one script call
+     *
+     * @param driver        driver of browser
+     * @param locatorType   used to find the elements
+     * @param attributeName The name of the attribute.
+     * @param dynamicValues arguments of @param locatorType
+     * @return The attribute/property's current value of each element, null if the value is not set.
+     */
+    public List<String> getElementAttributes(WebDriver driver, String locatorType, String attributeName, String... dynamicValues) {
+        return getElementAttributes(driver, getDynamicXpath(locatorType, dynamicValues), attributeName);
+    }
+
+    /**
+     * Read a computed css property of every element matching the locator with one script call. Colors are returned as computed by the browser (e.g. rgb(...)).
+     *
+     * @param driver       driver of browser
+     * @param locatorType  used to find the elements
+     * @param propertyName the css property name of the elements
+     * @return The current, computed value of the property of each element.
+     */
+    public List<String> getElementCssValues(WebDriver driver, String locatorType, String propertyName) {
+        return readAllElements(driver, Collections.singletonList(locatorType), "css", propertyName).get(0);
+    }
+
+    /**
+     * Read a computed css property of every element matching the dynamic locator with one script call
+     *
+     * @param driver        driver of browser
+     * @param locatorType   used to find the elements
+     * @param propertyName  the css property name of the elements
+     * @param dynamicValues arguments of @param locatorType
+     * @return The current, computed value of the property of each element.
+     */
+    public List<String> getElementCssValues(WebDriver driver, String locatorType, String propertyName, String... dynamicValues) {
+        return getElementCssValues(driver, getDynamicXpath(locatorType, dynamicValues), propertyName);
+    }
+
+    /**
+     * Resolve every locator in the browser and read one value per element. Locators are read with one script call per frame, those of the current frame
+     * first.
+     *
+     * @param driver       driver of browser
+     * @param locatorTypes used to find the elements
+     * @param mode         "text", "attribute" or "css"
+     * @param name         attribute or css property name
+     * @return One list of values per locator
+     */
+    @SuppressWarnings("unchecked")
+    private List<List<String>> readAllElements(WebDriver driver, List<String> locatorTypes, String mode, String name) {
+        Map<List<String>, List<Integer>> indexesByFrame = new LinkedHashMap<>();
+        indexesByFrame.put(Collections.<String>emptyList(), new ArrayList<>());
+        for (int i = 0; i < locatorTypes.size(); i++) {
+            indexesByFrame.computeIfAbsent(FrameContext.getFramePath(locatorTypes.get(i)), path -> new ArrayList<>()).add(i);
+        }
+        List<List<String>> values = new ArrayList<>(Collections.nCopies(locatorTypes.size(), (List<String>) null));
+        JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+        for (List<Integer> indexes : indexesByFrame.values()) {
+            if (indexes.isEmpty()) {
+                continue;
+            }
+            enterFrame(driver, locatorTypes.get(indexes.get(0)));
+            List<List<String>> locators = new ArrayList<>(indexes.size());
+            for (int index : indexes) {
+                CompiledLocator locator = getCompiledLocator(locatorTypes.get(index));
+                locators.add(Arrays.asList(locator.getType().name(), locator.getValue()));
+            }
+            List<List<String>> frameValues = (List<List<String>>) jsExecutor.executeScript(BrowserScripts.READ_ELEMENTS, locators, mode, name);
+            for (int i = 0; i < indexes.size(); i++) {
+                values.set(indexes.get(i), frameValues.get(i));
+            }
+        }
+        return values;
     }
 
     /**
@@ -562,11 +972,12 @@ public class BasePage {
      * @param locatorType used to find the element
      */
     public void checkToDefaultCheckboxOrRadio(WebDriver driver, String locatorType) {
-        highlightElement(driver, locatorType);
-        WebElement element = getWebElement(driver, locatorType);
-        if (!element.isSelected()) {
-            element.click();
-        }
+        actOnElement(driver, locatorType, element -> {
+            decorateInteraction(driver, element);
+            if (!element.isSelected()) {
+                element.click();
+            }
+        });
     }
 
     /**
@@ -575,11 +986,12 @@ public class BasePage {
      * @param dynamicValues arguments of @param locatorType
      */
     public void checkToDefaultCheckboxOrRadio(WebDriver driver, String locatorType, String... dynamicValues) {
-        highlightElement(driver, locatorType, dynamicValues);
-        WebElement element = getWebElement(driver, getDynamicXpath(locatorType, dynamicValues));
-        if (!element.isSelected()) {
-            element.click();
-        }
+        actOnElement(driver, getDynamicXpath(locatorType, dynamicValues), element -> {
+            decorateInteraction(driver, element);
+            if (!element.isSelected()) {
+                element.click();
+            }
+        });
     }
 
     /**
@@ -589,11 +1001,12 @@ public class BasePage {
      * @param locatorType used to find the element
      */
     public void uncheckToDefaultCheckbox(WebDriver driver, String locatorType) {
-        highlightElement(driver, locatorType);
-        WebElement element = getWebElement(driver, locatorType);
-        if (element.isSelected()) {
-            element.click();
-        }
+        actOnElement(driver, locatorType, element -> {
+            decorateInteraction(driver, element);
+            if (element.isSelected()) {
+                element.click();
+            }
+        });
     }
 
     /**
@@ -604,11 +1017,12 @@ public class BasePage {
      * @param dynamicValues arguments of @param locatorType
      */
     public void uncheckToDefaultCheckbox(WebDriver driver, String locatorType, String... dynamicValues) {
-        highlightElement(driver, locatorType, dynamicValues);
-        WebElement element = getWebElement(driver, getDynamicXpath(locatorType, dynamicValues));
-        if (element.isSelected()) {
-            element.click();
-        }
+        actOnElement(driver, getDynamicXpath(locatorType, dynamicValues), element -> {
+            decorateInteraction(driver, element);
+            if (element.isSelected()) {
+                element.click();
+            }
+        });
     }
 
     /**
@@ -619,7 +1033,7 @@ public class BasePage {
      * @return Whether or not the element is displayed
      */
     public boolean isElementDisplayed(WebDriver driver, String locatorType) {
-        return getWebElement(driver, locatorType).isDisplayed();
+        return readElement(driver, locatorType, WebElement::isDisplayed);
     }
 
     /**
@@ -631,7 +1045,7 @@ public class BasePage {
      * @return Whether or not the element is displayed
      */
     public boolean isElementDisplayed(WebDriver driver, String locatorType, String... dynamicValues) {
-        return getWebElement(driver, getDynamicXpath(locatorType, dynamicValues)).isDisplayed();
+        return readElement(driver, getDynamicXpath(locatorType, dynamicValues), WebElement::isDisplayed);
     }
 
     /**
@@ -642,9 +1056,9 @@ public class BasePage {
      * @return Whether or not the element is Undisplayed
      */
     public boolean isElementUndisplayed(WebDriver driver, String locatorType) {
-        overrideImplicitTimeout(driver, shortTimeout);
-        List<WebElement> elements = getListWebElement(driver, locatorType);
-        overrideImplicitTimeout(driver, longTimeout);
+        enterFrame(driver, locatorType);
+        By by = getByLocator(locatorType);
+        List<WebElement> elements = ImplicitTimeoutTracker.withImplicitTimeout(driver, 0, () -> driver.findElements(by));
         if (elements.size() == 0) {
             return true;
         } else if (elements.size() > 0 && !elements.get(0).isDisplayed()) {
@@ -661,9 +1075,10 @@ public class BasePage {
      * @return Whether or not the element is Undisplayed
      */
     public boolean isElementUndisplayed(WebDriver driver, String locatorType, String... dynamicValues) {
-        overrideImplicitTimeout(driver, shortTimeout);
-        List<WebElement> elements = getListWebElement(driver, getDynamicXpath(locatorType, dynamicValues));
-        overrideImplicitTimeout(driver, longTimeout);
+        String dynamicLocator = getDynamicXpath(locatorType, dynamicValues);
+        enterFrame(driver, dynamicLocator);
+        By by = getByLocator(dynamicLocator);
+        List<WebElement> elements = ImplicitTimeoutTracker.withImplicitTimeout(driver, 0, () -> driver.findElements(by));
         if (elements.size() == 0) {
             return true;
         } else if (elements.size() > 0 && !elements.get(0).isDisplayed()) {
@@ -674,13 +1089,15 @@ public class BasePage {
     }
 
     /**
-     * Override timeout
+     * Override timeout. The command is skipped when the driver already uses this timeout, and ignored in explicit-wait-only mode.
      *
      * @param driver  driver of browser
      * @param timeOut time wait element do something
      */
     public void overrideImplicitTimeout(WebDriver driver, long timeOut) {
-        driver.manage().timeouts().implicitlyWait(timeOut, TimeUnit.SECONDS);
+        if (!GlobalConstants.getGlobalConstants().isExplicitWaitOnly()) {
+            ImplicitTimeoutTracker.setImplicitTimeout(driver, TimeUnit.SECONDS.toMillis(timeOut));
+        }
     }
 
     /**
@@ -691,8 +1108,10 @@ public class BasePage {
      * @return True if the element is enabled, false otherwise.
      */
     public boolean isElementEnabled(WebDriver driver, String locatorType) {
-        highlightElement(driver, locatorType);
-        return getWebElement(driver, locatorType).isEnabled();
+        return readElement(driver, locatorType, element -> {
+            decorateInteraction(driver, element);
+            return element.isEnabled();
+        });
     }
 
     /**
@@ -704,8 +1123,10 @@ public class BasePage {
      * @return True if the element is enabled, false otherwise.
      */
     public boolean isElementEnabled(WebDriver driver, String locatorType, String... dynamicValues) {
-        highlightElement(driver, locatorType, dynamicValues);
-        return getWebElement(driver, getDynamicXpath(locatorType, dynamicValues)).isEnabled();
+        return readElement(driver, getDynamicXpath(locatorType, dynamicValues), element -> {
+            decorateInteraction(driver, element);
+            return element.isEnabled();
+        });
     }
 
     /**
@@ -716,7 +1137,7 @@ public class BasePage {
      * @return True if the element is currently selected or checked, false otherwise.
      */
     public boolean isElementSelected(WebDriver driver, String locatorType) {
-        return getWebElement(driver, locatorType).isSelected();
+        return readElement(driver, locatorType, WebElement::isSelected);
     }
 
     /**
@@ -728,18 +1149,17 @@ public class BasePage {
      * @return True if the element is currently selected or checked, false otherwise.
      */
     public boolean isElementSelected(WebDriver driver, String locatorType, String... dynamicValues) {
-        return getWebElement(driver, getDynamicXpath(locatorType, dynamicValues)).isSelected();
+        return readElement(driver, getDynamicXpath(locatorType, dynamicValues), WebElement::isSelected);
     }
 
     /**
-     * Select a frame using its previously located WebElement.
+     * Select a frame using its previously located WebElement. The frame is located inside the frames the locator declares, or inside the current frame.
      *
      * @param driver      driver of browser
      * @param locatorType used to find the element to switch to.
      */
     public void switchToFrameIframe(WebDriver driver, String locatorType) {
-        waitForElementVisible(driver, locatorType);
-        driver.switchTo().frame(getWebElement(driver, locatorType));
+        FrameContext.getFrameContext(driver).switchToFrameOf(locatorType);
     }
 
     /**
@@ -749,8 +1169,7 @@ public class BasePage {
      * @param locatorType used to find the element to switch to.
      */
     public void switchToFrameIframe(WebDriver driver, String locatorType, String... dynamicValues) {
-        waitForElementVisible(driver, getDynamicXpath(locatorType, dynamicValues));
-        driver.switchTo().frame(getWebElement(driver, getDynamicXpath(locatorType, dynamicValues)));
+        FrameContext.getFrameContext(driver).switchToFrameOf(getDynamicXpath(locatorType, dynamicValues));
     }
 
     /**
@@ -759,7 +1178,7 @@ public class BasePage {
      * @param driver driver of browser
      */
     public void switchToDefaultContent(WebDriver driver) {
-        driver.switchTo().defaultContent();
+        FrameContext.getFrameContext(driver).switchToDefaultContent();
     }
 
     /**
@@ -769,9 +1188,11 @@ public class BasePage {
      * @param locatorType used to find the element
      */
     public void hoverMouseToElement(WebDriver driver, String locatorType) {
-        highlightElement(driver, locatorType);
-        Actions action = new Actions(driver);
-        action.moveToElement(getWebElement(driver, locatorType)).perform();
+        actOnElement(driver, locatorType, element -> {
+            decorateInteraction(driver, element);
+            Actions action = new Actions(driver);
+            action.moveToElement(element).perform();
+        });
     }
 
     /**
@@ -782,9 +1203,11 @@ public class BasePage {
      * @param dynamicValues arguments of @param locatorType
      */
     public void hoverMouseToElement(WebDriver driver, String locatorType, String... dynamicValues) {
-        highlightElement(driver, locatorType, dynamicValues);
-        Actions action = new Actions(driver);
-        action.moveToElement(getWebElement(driver, getDynamicXpath(locatorType, dynamicValues))).perform();
+        actOnElement(driver, getDynamicXpath(locatorType, dynamicValues), element -> {
+            decorateInteraction(driver, element);
+            Actions action = new Actions(driver);
+            action.moveToElement(element).perform();
+        });
     }
 
     /**
@@ -796,7 +1219,8 @@ public class BasePage {
      */
     public void pressKeyToElement(WebDriver driver, String locatorType, Keys key) {
         Actions action = new Actions(driver);
-        action.sendKeys(getWebElement(driver, locatorType), key).perform();
+        actOnElement(driver, locatorType, element -> action.sendKeys(element, key).perform());
+        clearPageState(driver);
     }
 
     /**
@@ -809,7 +1233,8 @@ public class BasePage {
      */
     public void pressKeyToElement(WebDriver driver, String locatorType, Keys key, String... dynamicValues) {
         Actions action = new Actions(driver);
-        action.sendKeys(getWebElement(driver, getDynamicXpath(locatorType, dynamicValues)), key).perform();
+        actOnElement(driver, getDynamicXpath(locatorType, dynamicValues), element -> action.sendKeys(element, key).perform());
+        clearPageState(driver);
     }
 
     /**
@@ -829,12 +1254,9 @@ public class BasePage {
      * @param locatorType used to find the element
      */
     public void highlightElement(WebDriver driver, String locatorType) {
-        JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-        WebElement element = getWebElement(driver, locatorType);
-        String originalStyle = element.getAttribute("style");
-        jsExecutor.executeScript("arguments[0].setAttribute(arguments[1], arguments[2])", element, "style", "border: 2px solid red; border-style: dashed;");
-        sleepInSecond(1);
-        jsExecutor.executeScript("arguments[0].setAttribute(arguments[1], arguments[2])", element, "style", originalStyle);
+        if (!interactionDecorators.isEmpty()) {
+            decorateInteraction(driver, getWebElement(driver, locatorType));
+        }
     }
 
     /**
@@ -845,12 +1267,46 @@ public class BasePage {
      * @param dynamicValues arguments of @param locatorType
      */
     public void highlightElement(WebDriver driver, String locatorType, String... dynamicValues) {
-        JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-        WebElement element = getWebElement(driver, getDynamicXpath(locatorType, dynamicValues));
-        String originalStyle = element.getAttribute("style");
-        jsExecutor.executeScript("arguments[0].setAttribute(arguments[1], arguments[2])", element, "style", "border: 2px solid red; border-style: dashed;");
-        sleepInSecond(1);
-        jsExecutor.executeScript("arguments[0].setAttribute(arguments[1], arguments[2])", element, "style", originalStyle);
+        if (!interactionDecorators.isEmpty()) {
+            decorateInteraction(driver, getWebElement(driver, getDynamicXpath(locatorType, dynamicValues)));
+        }
+    }
+
+    /**
+     * Run all registered interaction decorators on an element that was already resolved for the action
+     *
+     * @param driver  driver of browser
+     * @param element element that is about to be interacted with
+     */
+    protected void decorateInteraction(WebDriver driver, WebElement element) {
+        for (InteractionDecorator decorator : interactionDecorators) {
+            decorator.beforeInteraction(driver, element);
+        }
+    }
+
+    /**
+     * Register a decorator that runs before every element interaction
+     *
+     * @param decorator decorator to add
+     */
+    public static void addInteractionDecorator(InteractionDecorator decorator) {
+        interactionDecorators.addIfAbsent(decorator);
+    }
+
+    /**
+     * Remove a decorator registered before, e.g. the default highlight decorator on headless/CI runs
+     *
+     * @param decorator decorator to remove
+     */
+    public static void removeInteractionDecorator(InteractionDecorator decorator) {
+        interactionDecorators.remove(decorator);
+    }
+
+    /**
+     * Remove all interaction decorators
+     */
+    public static void clearInteractionDecorators() {
+        interactionDecorators.clear();
     }
 
     /**
@@ -860,9 +1316,12 @@ public class BasePage {
      * @param locatorType used to find the element
      */
     public void clickToElementByJS(WebDriver driver, String locatorType) {
-        highlightElement(driver, locatorType);
-        JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-        jsExecutor.executeScript("arguments[0].click();", getWebElement(driver, locatorType));
+        actOnElement(driver, locatorType, element -> {
+            decorateInteraction(driver, element);
+            JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+            jsExecutor.executeScript("arguments[0].click();", element);
+        });
+        clearPageState(driver);
     }
 
     /**
@@ -873,9 +1332,12 @@ public class BasePage {
      * @param dynamicValues arguments of @param locatorType
      */
     public void clickToElementByJS(WebDriver driver, String locatorType, String... dynamicValues) {
-        highlightElement(driver, locatorType, dynamicValues);
-        JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-        jsExecutor.executeScript("arguments[0].click();", getWebElement(driver, getDynamicXpath(locatorType, dynamicValues)));
+        actOnElement(driver, getDynamicXpath(locatorType, dynamicValues), element -> {
+            decorateInteraction(driver, element);
+            JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+            jsExecutor.executeScript("arguments[0].click();", element);
+        });
+        clearPageState(driver);
     }
 
     /**
@@ -886,7 +1348,7 @@ public class BasePage {
      */
     public void scrollToElement(WebDriver driver, String locatorType) {
         JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-        jsExecutor.executeScript("arguments[0].scrollIntoView(true);", getWebElement(driver, locatorType));
+        actOnElement(driver, locatorType, element -> jsExecutor.executeScript("arguments[0].scrollIntoView(true);", element));
     }
 
     /**
@@ -898,7 +1360,7 @@ public class BasePage {
      */
     public void scrollToElement(WebDriver driver, String locatorType, String... dynamicValues) {
         JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-        jsExecutor.executeScript("arguments[0].scrollIntoView(true);", getWebElement(driver, getDynamicXpath(locatorType, dynamicValues)));
+        actOnElement(driver, getDynamicXpath(locatorType, dynamicValues), element -> jsExecutor.executeScript("arguments[0].scrollIntoView(true);", element));
     }
 
     /**
@@ -910,7 +1372,7 @@ public class BasePage {
      */
     public void removeAttributeInDOM(WebDriver driver, String locatorType, String attributeRemove) {
         JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-        jsExecutor.executeScript("arguments[0].removeAttribute('" + attributeRemove + "');", getWebElement(driver, locatorType));
+        actOnElement(driver, locatorType, element -> jsExecutor.executeScript("arguments[0].removeAttribute('" + attributeRemove + "');", element));
     }
 
     /**
@@ -920,25 +1382,83 @@ public class BasePage {
      * @return True if the page loaded, false otherwise.
      */
     public boolean areJQueryAndJSLoadedSuccess(WebDriver driver) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-        ExpectedCondition<Boolean> jQueryLoad = new ExpectedCondition<Boolean>() {
+        WaitEngine waitEngine = WaitEngine.getWaitEngine(driver);
+        return waitEngine.until(JQUERY_LOADED, longTimeout) && waitEngine.until(DOCUMENT_LOADED, longTimeout);
+    }
+
+    /**
+     * Wait until the DOM has not changed for the default quiet window, e.g. after a single-page-app re-render
+     *
+     * @param driver driver of browser
+     */
+    public void waitForDomSettled(WebDriver driver) {
+        waitForDomSettled(driver, GlobalConstants.getGlobalConstants().getDomQuietInMillis());
+    }
+
+    /**
+     * Wait until the DOM has not changed for the quiet window. A MutationObserver is injected once per document, then each poll is one cheap script call.
+     *
+     * @param driver      driver of browser
+     * @param quietMillis time without any DOM mutation
+     */
+    public void waitForDomSettled(WebDriver driver, long quietMillis) {
+        WaitEngine.getWaitEngine(driver).until(new ExpectedCondition<Boolean>() {
             @Override
             public Boolean apply(WebDriver driver) {
-                try {
-                    return ((Long) jsExecutor.executeScript("return jQuery.active") == 0);
-                } catch (Exception e) {
-                    return true;
-                }
+                return getDomQuietTime(driver) >= quietMillis;
             }
-        };
-        ExpectedCondition<Boolean> jsLoad = new ExpectedCondition<Boolean>() {
+
             @Override
-            public Boolean apply(WebDriver driver) {
-                return jsExecutor.executeScript("return document.readyState").toString().equals("complete");
+            public String toString() {
+                return "DOM to be quiet for " + quietMillis + " ms";
             }
-        };
-        return explicitWait.until(jQueryLoad) && explicitWait.until(jsLoad);
+        }, TimeUnit.SECONDS.toMillis(longTimeout), Math.min(quietMillis, GlobalConstants.getGlobalConstants().getWaitMaxPollingInMillis()));
+    }
+
+    /**
+     * @param driver driver of browser
+     * @return Milliseconds since the last DOM mutation of the current document, 0 if the observer was just installed.
+     */
+    public long getDomQuietTime(WebDriver driver) {
+        JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+        return ((Number) jsExecutor.executeScript(BrowserScripts.DOM_QUIET_TIME)).longValue();
+    }
+
+    /**
+     * Wait until no XHR/fetch request has been in flight for the quiet window. The interceptor is installed after every navigation and window switch of the
+     * page objects, or on the first call for a document loaded another way (e.g. by a click), so only requests started after that are counted.
+     *
+     * @param driver      driver of browser
+     * @param quietMillis time without any request in flight
+     */
+    public void waitForNetworkIdle(WebDriver driver, long quietMillis) {
+        try {
+            WaitEngine.getWaitEngine(driver).until(new ExpectedCondition<Boolean>() {
+                @Override
+                public Boolean apply(WebDriver driver) {
+                    return getNetworkActivity(driver).getIdleMillis() >= quietMillis;
+                }
+
+                @Override
+                public String toString() {
+                    return "network to be idle for " + quietMillis + " ms";
+                }
+            }, TimeUnit.SECONDS.toMillis(longTimeout), Math.min(quietMillis, GlobalConstants.getGlobalConstants().getWaitMaxPollingInMillis()));
+        } catch (TimeoutException e) {
+            throw new TimeoutException(e.getMessage() + ", " + getNetworkActivity(driver), e);
+        }
+    }
+
+    /**
+     * Install the XHR/fetch interceptor if needed and read its state with one script call
+     *
+     * @param driver driver of browser
+     * @return In-flight request count, idle time and the slowest pending requests
+     */
+    @SuppressWarnings("unchecked")
+    public NetworkActivity getNetworkActivity(WebDriver driver) {
+        JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+        return new NetworkActivity((Map<String, Object>) jsExecutor.executeScript(BrowserScripts.NETWORK_STATE, 5));
     }
 
     /**
@@ -950,7 +1470,7 @@ public class BasePage {
      */
     public String getElementValidationMessage(WebDriver driver, String locatorType) {
         JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-        return (String) jsExecutor.executeScript("return arguments[0].validationMessage;", getWebElement(driver, locatorType));
+        return readElement(driver, locatorType, element -> (String) jsExecutor.executeScript("return arguments[0].validationMessage;", element));
     }
 
     /**
@@ -962,7 +1482,7 @@ public class BasePage {
      */
     public boolean isImageLoaded(WebDriver driver, String locatorType) {
         JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-        boolean status = (boolean) jsExecutor.executeScript("return arguments[0].complete && typeof arguments[0].naturalWidth != \"undefined\" && arguments[0].naturalWidth > 0", getWebElement(driver, locatorType));
+        boolean status = readElement(driver, locatorType, element -> (boolean) jsExecutor.executeScript("return arguments[0].complete && typeof arguments[0].naturalWidth != \"undefined\" && arguments[0].naturalWidth > 0", element));
         if (status) {
             return true;
         } else {
@@ -980,10 +1500,53 @@ public class BasePage {
      */
     public boolean isImageLoaded(WebDriver driver, String locatorType, String... dynamicValues) {
         JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-        boolean status = (boolean) jsExecutor.executeScript("return arguments[0].complete && typeof arguments[0].naturalWidth != \"undefined\" && arguments[0].naturalWidth > 0", getWebElement(driver, getDynamicXpath(locatorType, dynamicValues)));
+        boolean status = readElement(driver, getDynamicXpath(locatorType, dynamicValues), element -> (boolean) jsExecutor.executeScript("return arguments[0].complete && typeof arguments[0].naturalWidth != \"undefined\" && arguments[0].naturalWidth > 0", element));
         return status;
     }
 
+    /**
+     * Read every image, background image, script and stylesheet of the current frame with its load status and transfer timing in one script call. Use it
+     * instead of isImageLoaded per element to check a whole page.
+     *
+     * @param driver driver of browser
+     * @return Resources of the page, filtered and asserted on without further browser calls
+     */
+    @SuppressWarnings("unchecked")
+    public PageResourceAudit auditPageResources(WebDriver driver) {
+        JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+        Map<String, Object> page = (Map<String, Object>) jsExecutor.executeScript(BrowserScripts.PAGE_RESOURCES);
+        List<PageResource> resources = new ArrayList<>();
+        for (Map<String, Object> resource : (List<Map<String, Object>>) page.get("resources")) {
+            resources.add(new PageResource(resource));
+        }
+        return new PageResourceAudit((String) page.get("url"), resources);
+    }
+
+    /**
+     * Get a cached condition built from the By of a locator, after switching to the frame the locator declares
+     *
+     * @param driver      driver of browser
+     * @param name        name of the condition, part of the cache key
+     * @param locatorType used to find the element
+     * @param factory     builds the condition from a By
+     * @return The condition shared by every wait on this locator
+     */
+    private <T> Function<? super WebDriver, T> getLocatorCondition(WebDriver driver, String name, String locatorType, Function<By, ExpectedCondition<T>> factory) {
+        enterFrame(driver, locatorType);
+        return WaitEngine.getCondition(name + "|" + locatorType, () -> factory.apply(getByLocator(locatorType)));
+    }
+
+    /**
+     * Key of a wait in the wait history. Dynamic locators are keyed by their template, so all values share one history.
+     *
+     * @param action      kind of wait, e.g. "visible"
+     * @param locatorType locator (or locator template) waited for
+     * @return "page|action|locator"
+     */
+    private String getWaitHistoryKey(String action, String locatorType) {
+        return getClass().getSimpleName() + "|" + action + "|" + locatorType;
+    }
+
     /**
      * Wait for element is present on the DOM of a page and visible.
      *
@@ -991,8 +1554,7 @@ public class BasePage {
      * @param locatorType used to find the element
      */
     public void waitForElementVisible(WebDriver driver, String locatorType) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        explicitWait.until(ExpectedConditions.visibilityOfElementLocated(getByLocator(locatorType)));
+        WaitEngine.getWaitEngine(driver).until(getWaitHistoryKey("visible", locatorType), getLocatorCondition(driver, "visible", locatorType, ExpectedConditions::visibilityOfElementLocated), longTimeout);
     }
 
     /**
@@ -1003,8 +1565,7 @@ public class BasePage {
      * @param dynamicValues arguments of @param locatorType
      */
     public void waitForElementVisible(WebDriver driver, String locatorType, String... dynamicValues) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        explicitWait.until(ExpectedConditions.visibilityOfElementLocated(getByLocator(getDynamicXpath(locatorType, dynamicValues))));
+        WaitEngine.getWaitEngine(driver).until(getWaitHistoryKey("visible", locatorType), getLocatorCondition(driver, "visible", getDynamicXpath(locatorType, dynamicValues), ExpectedConditions::visibilityOfElementLocated), longTimeout);
     }
 
     /**
@@ -1014,8 +1575,7 @@ public class BasePage {
      * @param locatorType used to find the element
      */
     public void waitForAllElementVisible(WebDriver driver, String locatorType) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        explicitWait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(getByLocator(locatorType)));
+        WaitEngine.getWaitEngine(driver).until(getWaitHistoryKey("allVisible", locatorType), getLocatorCondition(driver, "allVisible", locatorType, ExpectedConditions::visibilityOfAllElementsLocatedBy), longTimeout);
     }
 
     /**
@@ -1026,8 +1586,7 @@ public class BasePage {
      * @param dynamicValues arguments of @param locatorType
      */
     public void waitForAllElementVisible(WebDriver driver, String locatorType, String... dynamicValues) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        explicitWait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(getByLocator(getDynamicXpath(locatorType, dynamicValues))));
+        WaitEngine.getWaitEngine(driver).until(getWaitHistoryKey("allVisible", locatorType), getLocatorCondition(driver, "allVisible", getDynamicXpath(locatorType, dynamicValues), ExpectedConditions::visibilityOfAllElementsLocatedBy), longTimeout);
     }
 
     /**
@@ -1037,8 +1596,7 @@ public class BasePage {
      * @param locatorType used to find the element
      */
     public void waitForElementInvisible(WebDriver driver, String locatorType) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        explicitWait.until(ExpectedConditions.invisibilityOfElementLocated(getByLocator(locatorType)));
+        WaitEngine.getWaitEngine(driver).until(getWaitHistoryKey("invisible", locatorType), getLocatorCondition(driver, "invisible", locatorType, ExpectedConditions::invisibilityOfElementLocated), longTimeout);
     }
 
     /**
@@ -1049,8 +1607,7 @@ public class BasePage {
      * @param dynamicValues arguments of @param locatorType
      */
     public void waitForElementInvisible(WebDriver driver, String locatorType, String... dynamicValues) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        explicitWait.until(ExpectedConditions.invisibilityOfElementLocated(getByLocator(getDynamicXpath(locatorType, dynamicValues))));
+        WaitEngine.getWaitEngine(driver).until(getWaitHistoryKey("invisible", locatorType), getLocatorCondition(driver, "invisible", getDynamicXpath(locatorType, dynamicValues), ExpectedConditions::invisibilityOfElementLocated), longTimeout);
     }
 
     /**
@@ -1060,10 +1617,8 @@ public class BasePage {
      * @param locatorType used to find the element
      */
     public void waitForElementUndisplayed(WebDriver driver, String locatorType) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, shortTimeout);
-        overrideImplicitTimeout(driver, shortTimeout);
-        explicitWait.until(ExpectedConditions.invisibilityOfElementLocated(getByLocator(locatorType)));
-        overrideImplicitTimeout(driver, longTimeout);
+        Function<? super WebDriver, Boolean> invisible = getLocatorCondition(driver, "invisible", locatorType, ExpectedConditions::invisibilityOfElementLocated);
+        ImplicitTimeoutTracker.withImplicitTimeout(driver, 0, () -> WaitEngine.getWaitEngine(driver).until(getWaitHistoryKey("undisplayed", locatorType), invisible, shortTimeout));
     }
 
     /**
@@ -1074,10 +1629,8 @@ public class BasePage {
      * @param dynamicValues arguments of @param locatorType
      */
     public void waitForElementUndisplayed(WebDriver driver, String locatorType, String... dynamicValues) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, shortTimeout);
-        overrideImplicitTimeout(driver, shortTimeout);
-        explicitWait.until(ExpectedConditions.invisibilityOfElementLocated(getByLocator(getDynamicXpath(locatorType, dynamicValues))));
-        overrideImplicitTimeout(driver, longTimeout);
+        Function<? super WebDriver, Boolean> invisible = getLocatorCondition(driver, "invisible", getDynamicXpath(locatorType, dynamicValues), ExpectedConditions::invisibilityOfElementLocated);
+        ImplicitTimeoutTracker.withImplicitTimeout(driver, 0, () -> WaitEngine.getWaitEngine(driver).until(getWaitHistoryKey("undisplayed", locatorType), invisible, shortTimeout));
     }
 
     /**
@@ -1087,8 +1640,7 @@ public class BasePage {
      * @param locatorType used to find the element
      */
     public void waitForAllElementInvisible(WebDriver driver, String locatorType) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        explicitWait.until(ExpectedConditions.invisibilityOfAllElements(getListWebElement(driver, locatorType)));
+        WaitEngine.getWaitEngine(driver).until(ExpectedConditions.invisibilityOfAllElements(getListWebElement(driver, locatorType)), longTimeout);
     }
 
     /**
@@ -1099,8 +1651,7 @@ public class BasePage {
      * @param dynamicValues arguments of @param locatorType
      */
     public void waitForAllElementInvisible(WebDriver driver, String locatorType, String... dynamicValues) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        explicitWait.until(ExpectedConditions.invisibilityOfAllElements(getListWebElement(driver, getDynamicXpath(locatorType, dynamicValues))));
+        WaitEngine.getWaitEngine(driver).until(ExpectedConditions.invisibilityOfAllElements(getListWebElement(driver, getDynamicXpath(locatorType, dynamicValues))), longTimeout);
     }
 
     /**
@@ -1110,8 +1661,7 @@ public class BasePage {
      * @param locatorType used to find the element
      */
     public void waitForElementClickable(WebDriver driver, String locatorType) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        explicitWait.until(ExpectedConditions.elementToBeClickable(getByLocator(locatorType)));
+        WaitEngine.getWaitEngine(driver).until(getWaitHistoryKey("clickable", locatorType), getLocatorCondition(driver, "clickable", locatorType, ExpectedConditions::elementToBeClickable), longTimeout);
     }
 
     /**
@@ -1122,18 +1672,29 @@ public class BasePage {
      * @param dynamicValues arguments of @param locatorType
      */
     public void waitForElementClickable(WebDriver driver, String locatorType, String... dynamicValues) {
-        WebDriverWait explicitWait = new WebDriverWait(driver, longTimeout);
-        explicitWait.until(ExpectedConditions.elementToBeClickable(getByLocator(getDynamicXpath(locatorType, dynamicValues))));
+        WaitEngine.getWaitEngine(driver).until(getWaitHistoryKey("clickable", locatorType), getLocatorCondition(driver, "clickable", getDynamicXpath(locatorType, dynamicValues), ExpectedConditions::elementToBeClickable), longTimeout);
     }
 
     /**
-     * Screenshot attachments for Allure
+     * Screenshot attachments for Allure. Only the capture runs on the calling thread, see {@link ScreenshotPipeline}
      *
      * @param driver driver of browser
      * @param name   name of picture
      */
     public static void takeScreenshot(WebDriver driver, String name) {
-        Allure.addAttachment(name, new ByteArrayInputStream(((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES)));
+        ScreenshotPipeline.getScreenshotPipeline().attach(driver, name);
+    }
+
+    /**
+     * Screenshot attachments of a single element for Allure
+     *
+     * @param driver        driver of browser
+     * @param name          name of picture
+     * @param locatorType   used to find the element contains arguments.
+     * @param dynamicValues arguments of @param locatorType
+     */
+    public void takeElementScreenshot(WebDriver driver, String name, String locatorType, String... dynamicValues) {
+        ScreenshotPipeline.getScreenshotPipeline().attachElement(getWebElement(driver, getDynamicXpath(locatorType, dynamicValues)), name);
     }
 
     /**
@@ -1151,27 +1712,25 @@ public class BasePage {
             fullFileName = fullFileName + filePath + file + "\n";
         }
         fullFileName = fullFileName.trim();
-        getWebElement(driver, CommonUI.UPLOAD_FILE).sendKeys(fullFileName);
+        String files = fullFileName;
+        actOnElement(driver, CommonUI.UPLOAD_FILE, element -> element.sendKeys(files));
     }
 
     /**
-     * Is the file downloaded or not?
+     * Is the file downloaded or not? Looks the file up in the index of the download watcher instead of listing the folder.
      *
      * @param downloadPath
      * @param fileName
      * @return True if file downloaded, false otherwise.
      */
     public boolean isFileDownloaded(String downloadPath, String fileName) {
-        boolean flag = false;
-        File dir = new File(downloadPath);
-        File[] dir_contents = dir.listFiles();
-        for (int i = 0; i < dir_contents.length; i++) {
-            if (dir_contents[i].getName().contains(fileName)) {
-                dir_contents[i].delete();
-                return flag = true;
-            }
+        DownloadWatcher watcher = DownloadWatcher.getWatcher(downloadPath);
+        File file = watcher.findDownloadedFile(fileName);
+        if (file != null) {
+            watcher.delete(file);
+            return true;
         }
-        return flag;
+        return false;
     }
 
     /**
@@ -1182,34 +1741,21 @@ public class BasePage {
      * @return True if file name downloaded, false otherwise.
      */
     public boolean isExpectedFileName(String downloadPath, String fileName) {
-        boolean flag = false;
-        File getLatestFile = getLatestFilefromDir(downloadPath);
-        if (getLatestFile.getName().contains(fileName)) {
-            return flag = true;
-        }
-        return flag;
+        File getLatestFile = DownloadWatcher.getWatcher(downloadPath).getLatestFile();
+        return getLatestFile != null && getLatestFile.getName().contains(fileName);
     }
 
     /**
-     * Get the latest file from a specific directory
+     * Wait for a download of this driver session to complete: no partial (.crdownload/.part) suffix and a stable size. The file is claimed by the session, a
+     * parallel session waiting for the same name gets its own download.
      *
-     * @param dirPath File save path
-     * @return True if latest file, false otherwise.
+     * @param driver          driver of browser
+     * @param fileNameRegex   regular expression the whole file name must match
+     * @param timeoutInSecond maximum time to wait
+     * @return The downloaded file in GlobalConstants downloadFile folder, or null if none completed in time
      */
-    private File getLatestFilefromDir(String dirPath) {
-        File dir = new File(dirPath);
-        File[] files = dir.listFiles();
-        if (files == null || files.length == 0) {
-            return null;
-        }
-
-        File lastModifiedFile = files[0];
-        for (int i = 1; i < files.length; i++) {
-            if (lastModifiedFile.lastModified() < files[i].lastModified()) {
-                lastModifiedFile = files[i];
-            }
-        }
-        return lastModifiedFile;
+    public File waitForFileDownloaded(WebDriver driver, String fileNameRegex, long timeoutInSecond) {
+        return DownloadWatcher.getWatcher().awaitDownload(driver, Pattern.compile(fileNameRegex), TimeUnit.SECONDS.toMillis(timeoutInSecond));
     }
 
     /**
@@ -1223,6 +1769,43 @@ public class BasePage {
         }
     }
 
+    private static final ExpectedCondition<Boolean> JQUERY_LOADED = new ExpectedCondition<Boolean>() {
+        @Override
+        public Boolean apply(WebDriver driver) {
+            try {
+                return ((Long) ((JavascriptExecutor) driver).executeScript("return jQuery.active") == 0);
+            } catch (Exception e) {
+                return true;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "jQuery.active to be 0";
+        }
+    };
+
+    private static final ExpectedCondition<Boolean> DOCUMENT_LOADED = new ExpectedCondition<Boolean>() {
+        @Override
+        public Boolean apply(WebDriver driver) {
+            return ((JavascriptExecutor) driver).executeScript("return document.readyState").toString().equals("complete");
+        }
+
+        @Override
+        public String toString() {
+            return "document.readyState to be complete";
+        }
+    };
+
+    private static final Log log = LogFactory.getLog(BasePage.class);
+    private static final CopyOnWriteArrayList<InteractionDecorator> interactionDecorators = new CopyOnWriteArrayList<>();
+
+    static {
+        if (GlobalConstants.getGlobalConstants().isHighlightEnabled()) {
+            interactionDecorators.add(new HighlightDecorator());
+        }
+    }
+
     private long longTimeout = GlobalConstants.getGlobalConstants().getLongTimeout();
     private long shortTimeout = GlobalConstants.getGlobalConstants().getShortTimeout();
 }
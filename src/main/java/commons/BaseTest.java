@@ -1,7 +1,6 @@
 package commons;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 
 import enums.EnvironmentList;
@@ -9,13 +8,13 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.openqa.selenium.WebDriver;
 import org.testng.Assert;
+import org.testng.ITestContext;
 import org.testng.Reporter;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeSuite;
 
-import factoryEnvironment.BrowserstackFactory;
-import factoryEnvironment.GridFactory;
-import factoryEnvironment.LocalFactory;
-import factoryEnvironment.SaucelabFactory;
+import utilities.BrowserLogCapture;
+import utilities.DownloadWatcher;
 import utilities.PropertiesConfig;
 
 public class BaseTest {
@@ -23,9 +22,16 @@ public class BaseTest {
     protected final Log log;
 
     @BeforeSuite
-    public void initBeforeSuite() {
+    public void initBeforeSuite(ITestContext context) {
         deleteFileFromDir();
         deleteAllureReport();
+        SessionPool.getSessionPool().prewarm(context.getSuite().getXmlSuite());
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void cleanAfterSuite() {
+        SessionPool.getSessionPool().shutdown();
+        SessionProcesses.reapOrphans();
     }
 
     protected BaseTest() {
@@ -33,27 +39,17 @@ public class BaseTest {
     }
 
     protected WebDriver getBrowserDriver(String serverName, String envName, String browserName, String ipAddress, String portNumber, String osName, String osVersion) {
-        switch (envName) {
-            case "local":
-                driver.set(new LocalFactory(browserName).createDriver());
-                break;
-            case "grid":
-                driver.set(new GridFactory(browserName, ipAddress, portNumber).createDriver());
-                break;
-            case "browserStack":
-                driver.set(new BrowserstackFactory(browserName, osName, osVersion).createDriver());
-                break;
-            case "sourceLab":
-                driver.set(new SaucelabFactory(browserName, osName).createDriver());
-                break;
-            default:
-                driver.set(new LocalFactory(browserName).createDriver());
-                break;
-        }
+        driver.set(SessionPool.getSessionPool().lease(new SessionPool.SessionKey(envName, browserName, ipAddress, portNumber, osName, osVersion)));
+        DownloadWatcher.startSession(driver.get());
         driver.get().manage().window().maximize();
 //		driver.get().manage().timeouts().implicitlyWait(GlobalConstants.getGlobalConstants().getLongTimeout(), TimeUnit.SECONDS);
-        driver.get().manage().timeouts().implicitlyWait(PropertiesConfig.getFileConfigReader().getLongTimeout(), TimeUnit.SECONDS);
+        if (GlobalConstants.getGlobalConstants().isExplicitWaitOnly()) {
+            ImplicitTimeoutTracker.setImplicitTimeout(driver.get(), 0);
+        } else {
+            ImplicitTimeoutTracker.setImplicitTimeout(driver.get(), TimeUnit.SECONDS.toMillis(PropertiesConfig.getFileConfigReader().getLongTimeout()));
+        }
         driver.get().get(getEnvironmentUrl(serverName));
+        NetworkActivity.installInterceptor(driver.get());
         return driver.get();
     }
 
@@ -145,51 +141,31 @@ public class BaseTest {
         }
     }
 
+    /**
+     * Give a pooled session back to the pool, or quit the session and stop its own driver service and browser processes on a background thread. Other
+     * sessions, of this or parallel tests, are never touched.
+     */
     protected void closeBrowserDriver() {
-        String cmd = null;
+        WebDriver currentDriver = driver.get();
+        if (currentDriver == null) {
+            return;
+        }
         try {
-            String osName = System.getProperty("os.name").toLowerCase();
-            log.info("OS name = " + osName);
-
-            String driverInstanceName = driver.toString().toLowerCase();
-            log.info("Driver instance name = " + driverInstanceName);
-
-            String browserDriverName = null;
-
-            if (driverInstanceName.contains("chrome")) {
-                browserDriverName = "chromedriver";
-            } else if (driverInstanceName.contains("internetexplorer")) {
-                browserDriverName = "IEDriverServer";
-            } else if (driverInstanceName.contains("firefox")) {
-                browserDriverName = "geckodriver";
-            } else if (driverInstanceName.contains("edge")) {
-                browserDriverName = "msedgedriver";
-            } else if (driverInstanceName.contains("opera")) {
-                browserDriverName = "operadriver";
-            } else {
-                browserDriverName = "safaridriver";
-            }
-
-            if (osName.contains("window")) {
-                cmd = "taskkill /F /FI \"IMAGENAME eq " + browserDriverName + "*\"";
-            } else {
-                cmd = "pkill " + browserDriverName;
-            }
-
-            if (driver != null) {
-                driver.get().manage().deleteAllCookies();
-                driver.get().quit();
-                driver.remove();
-            }
+            log.info("Close driver " + currentDriver.getClass().getSimpleName() + " " + SessionProcesses.getProcessIds(currentDriver));
+            ElementHandleCache.removeCache(currentDriver);
+            WaitEngine.removeWaitEngine(currentDriver);
+            WindowRegistry.removeRegistry(currentDriver);
+            FrameContext.removeFrameContext(currentDriver);
+            ImplicitTimeoutTracker.removeDriver(currentDriver);
+            DownloadWatcher.endSession(currentDriver);
+            BrowserLogCapture.endSession(currentDriver);
         } catch (Exception e) {
             log.info(e.getMessage());
         } finally {
-            try {
-                Process process = Runtime.getRuntime().exec(cmd);
-                process.waitFor();
-            } catch (IOException | InterruptedException e) {
-                e.printStackTrace();
+            if (!SessionPool.getSessionPool().release(currentDriver)) {
+                SessionProcesses.quitAsync(currentDriver);
             }
+            driver.remove();
         }
     }
 
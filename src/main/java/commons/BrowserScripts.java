@@ -0,0 +1,241 @@
+package commons;
+
+/**
+ * Javascript executed by BasePage inside the browser. Scripts that receive a locator take its type and value (see {@link CompiledLocator}) as arguments and
+ * resolve it in the page with the same semantics as the matching By.
+ */
+public final class BrowserScripts {
+
+    /**
+     * Defines findElements(type, value): all elements matching an "ID/CLASS/NAME/CSS/XPATH" locator in document order.
+     */
+    public static final String FIND_ELEMENTS = "var findElements = function (type, value) {"
+            + "  switch (type) {"
+            + "    case 'ID': return Array.prototype.slice.call(document.querySelectorAll('#' + CSS.escape(value)));"
+            + "    case 'CLASS': return Array.prototype.slice.call(document.getElementsByClassName(value));"
+            + "    case 'NAME': return Array.prototype.slice.call(document.getElementsByName(value));"
+            + "    case 'CSS': return Array.prototype.slice.call(document.querySelectorAll(value));"
+            + "    default:"
+            + "      var snapshot = document.evaluate(value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null), elements = [];"
+            + "      for (var i = 0; i < snapshot.snapshotLength; i++) { elements.push(snapshot.snapshotItem(i)); }"
+            + "      return elements;"
+            + "  }"
+            + "};";
+
+    /**
+     * Find the dropdown item whose trimmed visible text equals arguments[2] among the items located by arguments[0]/arguments[1] and scroll it into view.
+     * Returns [number of items, matching item or null].
+     */
+    public static final String FIND_DROPDOWN_ITEM = FIND_ELEMENTS
+            + "var items = findElements(arguments[0], arguments[1]);"
+            + "for (var i = 0; i < items.length; i++) {"
+            + "  var text = (items[i].innerText || items[i].textContent || '').trim();"
+            + "  if (text === arguments[2]) {"
+            + "    items[i].scrollIntoView({block: 'nearest'});"
+            + "    return [items.length, items[i]];"
+            + "  }"
+            + "}"
+            + "return [items.length, null];";
+
+    /**
+     * Read one value from every element of several locators in a single call. arguments[0] is a list of [type, value] locators, arguments[1] is "text",
+     * "attribute" or "css" and arguments[2] the attribute/css property name. Returns one list of values per locator.
+     */
+    public static final String READ_ELEMENTS = FIND_ELEMENTS
+            + "var readValue = function (element, mode, name) {"
+            + "  if (mode === 'text') {"
+            + "    return element.getClientRects().length === 0 ? '' : (element.innerText || '').trim();"
+            + "  }"
+            + "  if (mode === 'css') {"
+            + "    return window.getComputedStyle(element).getPropertyValue(name);"
+            + "  }"
+            + "  var value = element[name];"
+            + "  if (typeof value === 'boolean') { return value ? 'true' : null; }"
+            + "  if (value === undefined || value === null || typeof value === 'object' || typeof value === 'function') { value = element.getAttribute(name); }"
+            + "  return value === null ? null : String(value);"
+            + "};"
+            + "var mode = arguments[1], name = arguments[2];"
+            + "return arguments[0].map(function (locator) {"
+            + "  return findElements(locator[0], locator[1]).map(function (element) { return readValue(element, mode, name); });"
+            + "});";
+
+    /**
+     * Set the value of the first element of each locator the way a user edit would: through the native value setter (so frameworks tracking the property see
+     * it), followed by bubbling input and change events. arguments[0] is a list of [type, value, text]. Returns the indexes of the locators that matched nothing.
+     */
+    public static final String FILL_FIELDS = FIND_ELEMENTS
+            + "var missing = [];"
+            + "arguments[0].forEach(function (field, index) {"
+            + "  var element = findElements(field[0], field[1])[0];"
+            + "  if (!element) { missing.push(index); return; }"
+            + "  var prototype = Object.getPrototypeOf(element), descriptor = null;"
+            + "  while (prototype && !descriptor) { descriptor = Object.getOwnPropertyDescriptor(prototype, 'value'); prototype = Object.getPrototypeOf(prototype); }"
+            + "  if (element.focus) { element.focus(); }"
+            + "  if (descriptor && descriptor.set) { descriptor.set.call(element, field[2]); } else { element.value = field[2]; }"
+            + "  element.dispatchEvent(new Event('input', {bubbles: true}));"
+            + "  element.dispatchEvent(new Event('change', {bubbles: true}));"
+            + "});"
+            + "return missing;";
+
+    /**
+     * Install a MutationObserver once per document and return the milliseconds since the last DOM mutation (0 right after installing).
+     */
+    public static final String DOM_QUIET_TIME = "var state = window.__domSettleState;"
+            + "if (!state) {"
+            + "  state = window.__domSettleState = {lastMutation: Date.now()};"
+            + "  new MutationObserver(function () { state.lastMutation = Date.now(); })"
+            + "    .observe(document.documentElement || document, {childList: true, subtree: true, attributes: true, characterData: true});"
+            + "  return 0;"
+            + "}"
+            + "return Date.now() - state.lastMutation;";
+
+    /**
+     * Install an XMLHttpRequest/fetch interceptor once per document that counts in-flight requests. Sent right after every navigation and window switch, so
+     * the requests of the page and of the next action are seen; requests started before it was installed are not.
+     */
+    public static final String NETWORK_INTERCEPTOR = "if (!window.__networkState) {"
+            + "  var state = window.__networkState = {nextId: 0, pending: {}, inFlight: 0, lastActivity: Date.now()};"
+            + "  var start = function (method, url) {"
+            + "    var id = ++state.nextId;"
+            + "    state.pending[id] = {method: String(method || 'GET').toUpperCase(), url: String(url), start: Date.now()};"
+            + "    state.inFlight++;"
+            + "    state.lastActivity = Date.now();"
+            + "    return id;"
+            + "  };"
+            + "  var end = function (id) {"
+            + "    if (state.pending[id]) { delete state.pending[id]; state.inFlight--; state.lastActivity = Date.now(); }"
+            + "  };"
+            + "  var open = XMLHttpRequest.prototype.open, send = XMLHttpRequest.prototype.send;"
+            + "  XMLHttpRequest.prototype.open = function (method, url) { this.__networkRequest = [method, url]; return open.apply(this, arguments); };"
+            + "  XMLHttpRequest.prototype.send = function () {"
+            + "    var request = this.__networkRequest || [], id = start(request[0], request[1]);"
+            + "    this.addEventListener('loadend', function () { end(id); });"
+            + "    try { return send.apply(this, arguments); } catch (e) { end(id); throw e; }"
+            + "  };"
+            + "  if (window.fetch) {"
+            + "    var originalFetch = window.fetch;"
+            + "    window.fetch = function (input, init) {"
+            + "      var id = start((init && init.method) || (input && input.method), (input && input.url) || input);"
+            + "      try {"
+            + "        return originalFetch.apply(this, arguments).then(function (response) { end(id); return response; }, function (error) { end(id); throw error; });"
+            + "      } catch (e) { end(id); throw e; }"
+            + "    };"
+            + "  }"
+            + "}";
+
+    /**
+     * Install the {@link #NETWORK_INTERCEPTOR} if the document has none yet and return {inFlight, idleMillis, pending} where pending holds the arguments[0]
+     * oldest requests still running as {method, url, ageMillis}.
+     */
+    public static final String NETWORK_STATE = NETWORK_INTERCEPTOR
+            + "var state = window.__networkState;"
+            + "var now = Date.now(), pending = [];"
+            + "for (var id in state.pending) {"
+            + "  var request = state.pending[id];"
+            + "  pending.push({method: request.method, url: request.url, ageMillis: now - request.start});"
+            + "}"
+            + "pending.sort(function (a, b) { return b.ageMillis - a.ageMillis; });"
+            + "return {inFlight: state.inFlight, idleMillis: state.inFlight > 0 ? 0 : now - state.lastActivity, pending: pending.slice(0, arguments[0])};";
+
+    /**
+     * Returns [scrollX, scrollY, innerWidth, innerHeight, devicePixelRatio] of the current window.
+     */
+    public static final String VIEWPORT_RECT = "return [window.pageXOffset, window.pageYOffset, window.innerWidth, window.innerHeight, window.devicePixelRatio || 1];";
+
+    /**
+     * List every img, css background image, external script and stylesheet of the current document with its load status and the Resource Timing entry of its
+     * URL. Returns {url: document URL, resources: list of {type, url, element, loaded, naturalWidth, naturalHeight, durationMillis, transferSize, encodedBodySize,
+     * responseStatus}}; loaded
+     * is null when the DOM cannot tell (background images and scripts without a timing entry) and timing values are -1 when the browser has no entry for the
+     * URL (e.g. cross-origin without Timing-Allow-Origin, data: URLs).
+     */
+    public static final String PAGE_RESOURCES = "var timings = {};"
+            + "(performance.getEntriesByType ? performance.getEntriesByType('resource') : []).forEach(function (entry) { timings[entry.name] = entry; });"
+            + "var describe = function (element) {"
+            + "  var description = element.tagName.toLowerCase();"
+            + "  if (element.id) { description += '#' + element.id; }"
+            + "  if (typeof element.className === 'string' && element.className.trim()) { description += '.' + element.className.trim().split(/\\s+/).join('.'); }"
+            + "  return description;"
+            + "};"
+            + "var resources = [];"
+            + "var add = function (type, url, element, loaded, width, height) {"
+            + "  if (!url) { return; }"
+            + "  var timing = timings[url];"
+            + "  var status = timing && typeof timing.responseStatus === 'number' ? timing.responseStatus : -1;"
+            + "  if (loaded === null && timing) { loaded = status < 0 || (status >= 200 && status < 400); }"
+            + "  resources.push({type: type, url: url, element: describe(element), loaded: loaded, naturalWidth: width, naturalHeight: height,"
+            + "    durationMillis: timing ? timing.duration : -1, transferSize: timing && typeof timing.transferSize === 'number' ? timing.transferSize : -1,"
+            + "    encodedBodySize: timing && typeof timing.encodedBodySize === 'number' ? timing.encodedBodySize : -1, responseStatus: status});"
+            + "};"
+            + "Array.prototype.forEach.call(document.images, function (image) {"
+            + "  add('IMAGE', image.currentSrc || image.src, image, image.complete && image.naturalWidth > 0, image.naturalWidth, image.naturalHeight);"
+            + "});"
+            + "Array.prototype.forEach.call(document.querySelectorAll('script[src]'), function (script) { add('SCRIPT', script.src, script, null, 0, 0); });"
+            + "Array.prototype.forEach.call(document.querySelectorAll('link[rel~=\"stylesheet\"][href]'), function (link) {"
+            + "  add('STYLESHEET', link.href, link, !!link.sheet, 0, 0);"
+            + "});"
+            + "Array.prototype.forEach.call(document.querySelectorAll('*'), function (element) {"
+            + "  var background = window.getComputedStyle(element).backgroundImage, pattern = /url\\([\"']?(.*?)[\"']?\\)/g, match;"
+            + "  if (!background || background === 'none') { return; }"
+            + "  while ((match = pattern.exec(background)) !== null) { add('BACKGROUND_IMAGE', new URL(match[1], document.baseURI).href, element, null, 0, 0); }"
+            + "});"
+            + "return {url: location.href, resources: resources};";
+
+    /**
+     * Asynchronous: wait until the load event has finished (at most arguments[0] milliseconds), then read the Navigation, Paint, Largest Contentful Paint and
+     * Long Task entries of the current document. Returns {url, navigationType, metrics} where metrics maps PageLoadMetric names to milliseconds from navigation
+     * start (LONG_TASK_COUNT is a count); a metric the browser does not report is left out. Browsers that only record long tasks for existing observers report
+     * none for the initial load.
+     */
+    public static final String PAGE_LOAD_TIMING = "var callback = arguments[arguments.length - 1], maxWaitMillis = arguments[0], started = Date.now();"
+            + "var getEntries = function (type) { return performance.getEntriesByType ? performance.getEntriesByType(type) : []; };"
+            + "var supportedTypes = (window.PerformanceObserver && PerformanceObserver.supportedEntryTypes) || [];"
+            + "var observe = function (type) {"
+            + "  var observed = {entries: []};"
+            + "  if (supportedTypes.indexOf(type) < 0) { return null; }"
+            + "  observed.observer = new PerformanceObserver(function (list) { observed.entries = observed.entries.concat(list.getEntries()); });"
+            + "  observed.observer.observe({type: type, buffered: true});"
+            + "  return observed;"
+            + "};"
+            + "var collect = function (largestPaints, longTasks) {"
+            + "  var result = {url: location.href, navigationType: null, metrics: {}};"
+            + "  var put = function (name, value) { if (typeof value === 'number' && value > 0) { result.metrics[name] = value; } };"
+            + "  var navigation = getEntries('navigation')[0];"
+            + "  if (navigation) {"
+            + "    result.navigationType = navigation.type;"
+            + "    put('TTFB', navigation.responseStart);"
+            + "    put('DOM_CONTENT_LOADED', navigation.domContentLoadedEventEnd);"
+            + "    put('LOAD', navigation.loadEventEnd);"
+            + "  } else if (performance.timing) {"
+            + "    var timing = performance.timing;"
+            + "    put('TTFB', timing.responseStart - timing.navigationStart);"
+            + "    put('DOM_CONTENT_LOADED', timing.domContentLoadedEventEnd - timing.navigationStart);"
+            + "    put('LOAD', timing.loadEventEnd - timing.navigationStart);"
+            + "  }"
+            + "  getEntries('paint').forEach(function (entry) {"
+            + "    put(entry.name === 'first-paint' ? 'FIRST_PAINT' : 'FIRST_CONTENTFUL_PAINT', entry.startTime);"
+            + "  });"
+            + "  [largestPaints, longTasks].forEach(function (observed) {"
+            + "    if (observed) { observed.entries = observed.entries.concat(observed.observer.takeRecords()); observed.observer.disconnect(); }"
+            + "  });"
+            + "  if (largestPaints && largestPaints.entries.length) { put('LARGEST_CONTENTFUL_PAINT', largestPaints.entries[largestPaints.entries.length - 1].startTime); }"
+            + "  if (longTasks) {"
+            + "    var blocking = 0;"
+            + "    longTasks.entries.forEach(function (task) { blocking += Math.max(0, task.duration - 50); });"
+            + "    result.metrics.LONG_TASK_COUNT = longTasks.entries.length;"
+            + "    result.metrics.TOTAL_BLOCKING_TIME = blocking;"
+            + "  }"
+            + "  callback(result);"
+            + "};"
+            + "var waitForLoad = function () {"
+            + "  var navigation = getEntries('navigation')[0];"
+            + "  var loaded = document.readyState === 'complete' && (navigation ? navigation.loadEventEnd > 0 : !performance.timing || performance.timing.loadEventEnd > 0);"
+            + "  if (!loaded && Date.now() - started < maxWaitMillis) { setTimeout(waitForLoad, 50); return; }"
+            + "  var largestPaints = observe('largest-contentful-paint'), longTasks = observe('longtask');"
+            + "  setTimeout(function () { collect(largestPaints, longTasks); }, 0);"
+            + "};"
+            + "waitForLoad();";
+
+    private BrowserScripts() {
+    }
+}
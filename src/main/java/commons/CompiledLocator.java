@@ -0,0 +1,43 @@
+package commons;
+
+import org.openqa.selenium.By;
+
+import enums.LocatorType;
+import lombok.Getter;
+
+/**
+ * Immutable result of parsing a "ID=/CLASS=/NAME=/CSS=/XPATH=" locator string once.
+ */
+@Getter
+public final class CompiledLocator {
+    private final LocatorType type;
+    private final String value;
+    private final By by;
+
+    CompiledLocator(LocatorType type, String value) {
+        this.type = type;
+        this.value = value;
+        switch (type) {
+            case ID:
+                by = By.id(value);
+                break;
+            case CLASS:
+                by = By.className(value);
+                break;
+            case NAME:
+                by = By.name(value);
+                break;
+            case CSS:
+                by = By.cssSelector(value);
+                break;
+            default:
+                by = By.xpath(value);
+                break;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return type + "=" + value;
+    }
+}
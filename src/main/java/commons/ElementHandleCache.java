@@ -0,0 +1,61 @@
+package commons;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Element handles resolved for one driver in its current page/frame, keyed by locator. BasePage clears it on navigation, frame switch, window switch and after
+ * every action that may change the DOM (click, typing, select, scripts), so only consecutive reads share a handle. A stale handle is re-resolved.
+ */
+public class ElementHandleCache {
+    private static final int MAX_HANDLES = 64;
+    private static final Map<WebDriver, ElementHandleCache> caches = Collections.synchronizedMap(new WeakHashMap<WebDriver, ElementHandleCache>());
+
+    private final Map<String, WebElement> handles = new LinkedHashMap<String, WebElement>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, WebElement> eldest) {
+            return size() > MAX_HANDLES;
+        }
+    };
+
+    private ElementHandleCache() {
+    }
+
+    public static ElementHandleCache getCache(WebDriver driver) {
+        synchronized (caches) {
+            ElementHandleCache cache = caches.get(driver);
+            if (cache == null) {
+                cache = new ElementHandleCache();
+                caches.put(driver, cache);
+            }
+            return cache;
+        }
+    }
+
+    public static void removeCache(WebDriver driver) {
+        caches.remove(driver);
+    }
+
+    public synchronized WebElement get(String locatorType) {
+        return handles.get(locatorType);
+    }
+
+    public synchronized void put(String locatorType, WebElement element) {
+        handles.put(locatorType, element);
+    }
+
+    public synchronized void remove(String locatorType) {
+        handles.remove(locatorType);
+    }
+
+    public synchronized void clear() {
+        handles.clear();
+    }
+}
@@ -0,0 +1,24 @@
+package commons;
+
+import lombok.Getter;
+
+/**
+ * One field of a form filled by {@link BasePage#fillForm(org.openqa.selenium.WebDriver, java.util.List)}. Fields that need real keystrokes (autocomplete,
+ * masked inputs, key listeners) are flagged with nativeTyping and are typed with sendKeys instead of being set by script.
+ */
+@Getter
+public class FormField {
+    private final String locatorType;
+    private final String value;
+    private final boolean nativeTyping;
+
+    public FormField(String locatorType, String value) {
+        this(locatorType, value, false);
+    }
+
+    public FormField(String locatorType, String value, boolean nativeTyping) {
+        this.locatorType = locatorType;
+        this.value = value;
+        this.nativeTyping = nativeTyping;
+    }
+}
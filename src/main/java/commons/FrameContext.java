@@ -0,0 +1,215 @@
+package commons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchFrameException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Frame the driver is in, as the path of frame locators from the top document, and the frame elements found on the way. A locator declares its frame by
+ * prefixing the frame locators with " >>> ", e.g. "CSS=iframe#leave-widget >>> ID=employeeName"; unprefixed locators are resolved in the current frame.
+ * <p>
+ * Switching for a framed locator only happens when the target path differs from the current one: going down from the current frame, up with parentFrame or
+ * from the top document, whichever takes fewer commands. Frame elements are reused until the page navigates or the window changes, which resets the context.
+ * A click may navigate the top document or the frame the driver is in, so after it the path is no longer trusted and the next switch starts from the top
+ * document. Explicit switches (BasePage switchToFrameIframe and switchToDefaultContent) always send their command. Switching frames with the driver directly
+ * bypasses the tracking; use the BasePage methods instead.
+ */
+public class FrameContext {
+    public static final String FRAME_SEPARATOR = " >>> ";
+    private static final Map<WebDriver, FrameContext> contexts = Collections.synchronizedMap(new WeakHashMap<WebDriver, FrameContext>());
+
+    private final WebDriver driver;
+    private final List<String> currentPath = new ArrayList<>();
+    private final Map<List<String>, WebElement> frameElements = new HashMap<>();
+    private boolean pathUnknown;
+    private long switchCount;
+
+    private FrameContext(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    public static FrameContext getFrameContext(WebDriver driver) {
+        synchronized (contexts) {
+            FrameContext context = contexts.get(driver);
+            if (context == null) {
+                context = new FrameContext(driver);
+                contexts.put(driver, context);
+            }
+            return context;
+        }
+    }
+
+    public static void removeFrameContext(WebDriver driver) {
+        contexts.remove(driver);
+    }
+
+    /**
+     * @param locatorType locator, optionally prefixed with its frame locators
+     * @return True if the locator declares its frame
+     */
+    public static boolean isFrameLocator(String locatorType) {
+        return locatorType.contains(FRAME_SEPARATOR);
+    }
+
+    /**
+     * @param locatorType locator, optionally prefixed with its frame locators
+     * @return The locator of the element inside its frame
+     */
+    public static String getElementLocator(String locatorType) {
+        int separator = locatorType.lastIndexOf(FRAME_SEPARATOR);
+        return separator < 0 ? locatorType : locatorType.substring(separator + FRAME_SEPARATOR.length());
+    }
+
+    /**
+     * @param locatorType locator, optionally prefixed with its frame locators
+     * @return The frame locators from the top document, empty for an unprefixed locator
+     */
+    public static List<String> getFramePath(String locatorType) {
+        int separator = locatorType.lastIndexOf(FRAME_SEPARATOR);
+        if (separator < 0) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(locatorType.substring(0, separator).split(FRAME_SEPARATOR));
+    }
+
+    /**
+     * Switch to the frame declared by the locator if the driver is not in it yet
+     *
+     * @param locatorType locator, optionally prefixed with its frame locators
+     * @return The locator of the element inside its frame
+     */
+    public synchronized String enter(String locatorType) {
+        if (isFrameLocator(locatorType)) {
+            enterFrame(getFramePath(locatorType));
+        }
+        return getElementLocator(locatorType);
+    }
+
+    /**
+     * Switch to the frame at @param path, a list of frame locators from the top document
+     */
+    public synchronized void enterFrame(List<String> path) {
+        if (pathUnknown) {
+            switchToDefaultContent();
+        }
+        if (currentPath.equals(path)) {
+            return;
+        }
+        int common = 0;
+        while (common < currentPath.size() && common < path.size() && currentPath.get(common).equals(path.get(common))) {
+            common++;
+        }
+        int upCommands = currentPath.size() - common;
+        if (upCommands > 0 && (common == 0 || upCommands >= 1 + common)) {
+            driver.switchTo().defaultContent();
+            switchCount++;
+            currentPath.clear();
+            common = 0;
+        } else {
+            for (int i = 0; i < upCommands; i++) {
+                driver.switchTo().parentFrame();
+                switchCount++;
+                currentPath.remove(currentPath.size() - 1);
+            }
+        }
+        for (int i = common; i < path.size(); i++) {
+            switchToChild(path.subList(0, i + 1));
+        }
+        ElementHandleCache.getCache(driver).clear();
+    }
+
+    /**
+     * Switch into the frame element located by @param frameLocatorType: inside the frames it declares, or inside the current frame if it declares none. The
+     * switch into the frame itself is always sent, even when the driver seems to be in it already.
+     */
+    public synchronized void switchToFrameOf(String frameLocatorType) {
+        if (isFrameLocator(frameLocatorType)) {
+            enterFrame(getFramePath(frameLocatorType));
+        }
+        List<String> path = new ArrayList<>(currentPath);
+        path.add(getElementLocator(frameLocatorType));
+        switchToChild(path);
+        ElementHandleCache.getCache(driver).clear();
+    }
+
+    /**
+     * Switch to the top document. The command is always sent.
+     */
+    public synchronized void switchToDefaultContent() {
+        driver.switchTo().defaultContent();
+        switchCount++;
+        currentPath.clear();
+        pathUnknown = false;
+        ElementHandleCache.getCache(driver).clear();
+    }
+
+    /**
+     * The driver went back to the top document by itself (navigation, window switch): forget the path and the frame elements without any command
+     */
+    public synchronized void reset() {
+        currentPath.clear();
+        frameElements.clear();
+        pathUnknown = false;
+    }
+
+    /**
+     * An action may have navigated the document of the current frame or the top document: when the driver is in a frame, the next switch starts from the top
+     * document instead of trusting the path. Nothing changes in the top document, where a navigation keeps the driver.
+     */
+    public synchronized void invalidate() {
+        if (!currentPath.isEmpty()) {
+            pathUnknown = true;
+        }
+    }
+
+    public synchronized List<String> getCurrentPath() {
+        return new ArrayList<>(currentPath);
+    }
+
+    public synchronized long getSwitchCount() {
+        return switchCount;
+    }
+
+    /**
+     * Switch from the parent of @param path (the current frame) to its last frame, reusing the frame element found last time
+     */
+    private void switchToChild(List<String> path) {
+        List<String> key = new ArrayList<>(path);
+        WebElement frame = frameElements.get(key);
+        if (frame != null) {
+            try {
+                driver.switchTo().frame(frame);
+                switchCount++;
+                currentPath.add(path.get(path.size() - 1));
+                return;
+            } catch (StaleElementReferenceException | NoSuchFrameException e) {
+                frameElements.remove(key);
+            }
+        }
+        frame = findFrame(path.get(path.size() - 1));
+        driver.switchTo().frame(frame);
+        switchCount++;
+        frameElements.put(key, frame);
+        currentPath.add(path.get(path.size() - 1));
+    }
+
+    private WebElement findFrame(String frameLocator) {
+        By by = LocatorCache.getLocatorCache().getBy(frameLocator);
+        return WaitEngine.getWaitEngine(driver).until(d -> d.findElement(by), GlobalConstants.getGlobalConstants().getLongTimeout());
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("FrameContext[path=%s%s switches=%d]", currentPath, pathUnknown ? " (unknown)" : "", switchCount);
+    }
+}
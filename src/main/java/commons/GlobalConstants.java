@@ -2,6 +2,7 @@ package commons;
 
 import java.io.File;
 
+import enums.ScreenshotMode;
 import lombok.Getter;
 
 @Getter
@@ -13,7 +14,14 @@ public class GlobalConstants {
     private final String javaVersion = System.getProperty("java.version");
     private final String uploadFile = projectPath + File.separator + "uploadFiles" + File.separator;
     private final String downloadFile = projectPath + File.separator + "downloadFiles";
+    private final String goldenFile = projectPath + File.separator + "goldenFiles" + File.separator;
     private final String browserLog = projectPath + File.separator + "browserLogs";
+    private final String actionMetrics = projectPath + File.separator + "actionMetrics";
+    private final String pageLoadTimings = projectPath + File.separator + "pageLoadTimings";
+    private final String performanceBudgets = System.getProperty("performanceBudgets", "performanceBudgets.properties");
+    private final String driverBinaryFolder = projectPath + File.separator + "driverBinaries";
+    private final String driverBinaryCache = driverBinaryFolder + File.separator + "resolution.properties";
+    private final String waitHistory = projectPath + File.separator + "waitHistory" + File.separator + "waitHistory.tsv";
     private final String reportingScreenshot = projectPath + File.separator + "reportNGImages" + File.separator;
     private final String dbDevUrl = "192.168.100.168:8080";
     private final String dbDevUser = "sa";
@@ -34,6 +42,38 @@ public class GlobalConstants {
 
     private final long longTimeout = 30;
     private final long retryTestFail = 3;
+    private final boolean explicitWaitOnly = Boolean.parseBoolean(System.getProperty("explicitWaitOnly", "false"));
+    private final long waitInitialPollingInMillis = 50;
+    private final long waitMaxPollingInMillis = 500;
+    private final double waitBackoffMultiplier = 2;
+    private final long domQuietInMillis = 300;
+    private final boolean adaptiveTimeoutEnabled = Boolean.parseBoolean(System.getProperty("adaptiveTimeouts", "true"));
+    private final int adaptiveTimeoutMinSamples = 5;
+    private final double adaptiveTimeoutPercentile = 99;
+    private final double adaptiveTimeoutMultiplier = 3;
+    private final long adaptiveTimeoutFloorInMillis = 3000;
+    private final long adaptiveTimeoutCeilingInMillis = 90000;
+    private final long adaptiveTimeoutExpiryInHours = 24;
+    private final boolean highlightEnabled = Boolean.parseBoolean(System.getProperty("highlight", "true"));
+    private final long highlightDurationInMillis = 1000;
+    private final ScreenshotMode screenshotMode = ScreenshotMode.valueOf(System.getProperty("screenshotMode", "PAGE").toUpperCase());
+    private final String screenshotFormat = System.getProperty("screenshotFormat", "jpg").toLowerCase();
+    private final int screenshotMaxWidth = 1280;
+    private final float screenshotJpegQuality = 0.8f;
+    private final int screenshotThreads = 2;
+    private final int screenshotQueueSize = 64;
+    private final boolean actionMetricsEnabled = Boolean.parseBoolean(System.getProperty("actionMetrics", "true"));
+    private final boolean pageLoadTimingEnabled = Boolean.parseBoolean(System.getProperty("pageLoadTiming", "false"));
+    private final long pageLoadTimingMaxWaitInMillis = 10000;
+    private final int sessionPoolSize = Integer.parseInt(System.getProperty("sessionPoolSize", "0"));
+    private final int sessionPoolMaxLeases = Integer.parseInt(System.getProperty("sessionPoolMaxLeases", "10"));
+    private final boolean driverOffline = Boolean.parseBoolean(System.getProperty("driverOffline", "false"));
+    private final long driverBinaryCacheTtlInHours = 24;
+    private final long driverQuitTimeoutInSeconds = 15;
+    private final boolean browserLogCaptureEnabled = Boolean.parseBoolean(System.getProperty("browserLogCapture", "false"));
+    private final long browserLogMaxEntriesPerTest = 200000;
+    private final long browserLogDrainIntervalInMillis = 5000;
+    private final long fakeBrowserLatencyInMillis = Long.parseLong(System.getProperty("fakeBrowserLatency", "0"));
 
     private static GlobalConstants globalInstance;
 
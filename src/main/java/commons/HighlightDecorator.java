@@ -0,0 +1,45 @@
+package commons;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Draw a dashed border around the element. The original style is restored by the browser itself after the highlight duration, so the test thread never sleeps and
+ * only one script call is made per interaction. The original style is kept in a data- attribute by the first highlight only: highlighting the element again
+ * before the restore restarts the timer instead of taking the highlighted style for the original one.
+ */
+public class HighlightDecorator implements InteractionDecorator {
+    private static final String HIGHLIGHT_SCRIPT = "var element = arguments[0];"
+            + "if (!element.hasAttribute('data-highlight-original-style')) {"
+            + "  element.setAttribute('data-highlight-original-style', JSON.stringify(element.getAttribute('style')));"
+            + "}"
+            + "clearTimeout(element.highlightTimer);"
+            + "element.setAttribute('style', arguments[1]);"
+            + "element.highlightTimer = setTimeout(function () {"
+            + "  var originalStyle = JSON.parse(element.getAttribute('data-highlight-original-style'));"
+            + "  element.removeAttribute('data-highlight-original-style');"
+            + "  delete element.highlightTimer;"
+            + "  if (originalStyle === null) { element.removeAttribute('style'); } else { element.setAttribute('style', originalStyle); }"
+            + "}, arguments[2]);";
+    private static final String HIGHLIGHT_STYLE = "border: 2px solid red; border-style: dashed;";
+
+    private final long durationInMillis;
+
+    public HighlightDecorator() {
+        this(GlobalConstants.getGlobalConstants().getHighlightDurationInMillis());
+    }
+
+    public HighlightDecorator(long durationInMillis) {
+        this.durationInMillis = durationInMillis;
+    }
+
+    @Override
+    public void beforeInteraction(WebDriver driver, WebElement element) {
+        try {
+            ((JavascriptExecutor) driver).executeScript(HIGHLIGHT_SCRIPT, element, HIGHLIGHT_STYLE, durationInMillis);
+        } catch (RuntimeException e) {
+            // Highlight is cosmetic, never fail the action because of it
+        }
+    }
+}
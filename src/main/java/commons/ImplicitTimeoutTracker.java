@@ -0,0 +1,70 @@
+package commons;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Remember the implicit timeout currently set on each driver session, so a "set timeouts" command is only sent when the value really changes.
+ */
+public class ImplicitTimeoutTracker {
+    private static final Map<WebDriver, Long> implicitTimeouts = Collections.synchronizedMap(new WeakHashMap<WebDriver, Long>());
+
+    private ImplicitTimeoutTracker() {
+    }
+
+    /**
+     * Set the implicit timeout, skipping the command when the driver already uses this value
+     *
+     * @param driver          driver of browser
+     * @param timeoutInMillis implicit timeout in milliseconds
+     */
+    public static void setImplicitTimeout(WebDriver driver, long timeoutInMillis) {
+        Long current = implicitTimeouts.get(driver);
+        if (current != null && current == timeoutInMillis) {
+            return;
+        }
+        // Forget the value first: if the command fails the real state is unknown
+        implicitTimeouts.remove(driver);
+        driver.manage().timeouts().implicitlyWait(timeoutInMillis, TimeUnit.MILLISECONDS);
+        implicitTimeouts.put(driver, timeoutInMillis);
+    }
+
+    /**
+     * @param driver driver of browser
+     * @return The implicit timeout in milliseconds set through this tracker, or -1 if unknown
+     */
+    public static long getImplicitTimeout(WebDriver driver) {
+        Long current = implicitTimeouts.get(driver);
+        return current == null ? -1 : current;
+    }
+
+    /**
+     * Run an action with another implicit timeout and always restore the previous one, even if the action throws
+     *
+     * @param driver          driver of browser
+     * @param timeoutInMillis implicit timeout used during the action
+     * @param action          action to run
+     * @return The value returned by @param action
+     */
+    public static <T> T withImplicitTimeout(WebDriver driver, long timeoutInMillis, Supplier<T> action) {
+        long previous = getImplicitTimeout(driver);
+        if (previous == timeoutInMillis) {
+            return action.get();
+        }
+        setImplicitTimeout(driver, timeoutInMillis);
+        try {
+            return action.get();
+        } finally {
+            setImplicitTimeout(driver, previous >= 0 ? previous : TimeUnit.SECONDS.toMillis(GlobalConstants.getGlobalConstants().getLongTimeout()));
+        }
+    }
+
+    public static void removeDriver(WebDriver driver) {
+        implicitTimeouts.remove(driver);
+    }
+}
@@ -0,0 +1,12 @@
+package commons;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Hook executed by BasePage right before it interacts with an element. The element is the one already resolved for the action, so decorators must not look it up again.
+ */
+public interface InteractionDecorator {
+    public abstract void beforeInteraction(WebDriver driver, WebElement element);
+
+}
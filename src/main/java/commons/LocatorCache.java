@@ -0,0 +1,237 @@
+package commons;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openqa.selenium.By;
+
+import enums.LocatorType;
+
+/**
+ * Thread-safe cache that parses every locator string into an immutable {@link CompiledLocator} only once and keeps pre-compiled templates for dynamic xpath, so
+ * placeholders are filled without going through String.format on every call.
+ */
+public class LocatorCache {
+    private static final int MAX_ENTRIES = 10000;
+    private static final LocatorCache locatorCache = new LocatorCache();
+
+    private final ConcurrentHashMap<String, CompiledLocator> locators = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, XpathTemplate> templates = new ConcurrentHashMap<>();
+    private final LongAdder locatorHits = new LongAdder();
+    private final LongAdder locatorMisses = new LongAdder();
+    private final LongAdder templateHits = new LongAdder();
+    private final LongAdder templateMisses = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+
+    public static LocatorCache getLocatorCache() {
+        return locatorCache;
+    }
+
+    /**
+     * @param locatorType used to find the element
+     * @return The compiled locator of "id" or "class" or "name" or "css" or "xpath".
+     */
+    public CompiledLocator getLocator(String locatorType) {
+        CompiledLocator locator = locators.get(locatorType);
+        if (locator != null) {
+            locatorHits.increment();
+            return locator;
+        }
+        locatorMisses.increment();
+        long start = System.nanoTime();
+        locator = parse(locatorType);
+        parseNanos.add(System.nanoTime() - start);
+        // Dynamic locators are resolved per value, so stop caching once the map is full instead of growing forever
+        if (locators.size() < MAX_ENTRIES) {
+            locators.putIfAbsent(locatorType, locator);
+        }
+        return locator;
+    }
+
+    /**
+     * @param locatorType used to find the element
+     * @return A By which locates elements by the value of the "id" or "class" or "name" or "css" or "xpath".
+     */
+    public By getBy(String locatorType) {
+        return getLocator(locatorType).getBy();
+    }
+
+    /**
+     * Fill the placeholders of a dynamic xpath. Locators of other types are returned unchanged.
+     *
+     * @param locatorType   used to find the element contains arguments.
+     * @param dynamicValues arguments of @param locatorType
+     * @return A formatted string locatorType
+     */
+    public String getDynamicXpath(String locatorType, String... dynamicValues) {
+        if (!isXpath(locatorType)) {
+            return locatorType;
+        }
+        XpathTemplate template = templates.get(locatorType);
+        if (template != null) {
+            templateHits.increment();
+        } else {
+            templateMisses.increment();
+            long start = System.nanoTime();
+            template = XpathTemplate.compile(locatorType);
+            parseNanos.add(System.nanoTime() - start);
+            if (templates.size() < MAX_ENTRIES) {
+                templates.putIfAbsent(locatorType, template);
+            }
+        }
+        return template.fill(locatorType, dynamicValues);
+    }
+
+    public long getLocatorHits() {
+        return locatorHits.sum();
+    }
+
+    public long getLocatorMisses() {
+        return locatorMisses.sum();
+    }
+
+    public long getTemplateHits() {
+        return templateHits.sum();
+    }
+
+    public long getTemplateMisses() {
+        return templateMisses.sum();
+    }
+
+    public long getParseNanos() {
+        return parseNanos.sum();
+    }
+
+    public void clear() {
+        locators.clear();
+        templates.clear();
+        locatorHits.reset();
+        locatorMisses.reset();
+        templateHits.reset();
+        templateMisses.reset();
+        parseNanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LocatorCache[locator hit=%d miss=%d, template hit=%d miss=%d, parse=%.3f ms]", getLocatorHits(), getLocatorMisses(), getTemplateHits(),
+                getTemplateMisses(), getParseNanos() / 1_000_000.0);
+    }
+
+    private static boolean isXpath(String locatorType) {
+        return locatorType.regionMatches(true, 0, "XPATH=", 0, 6);
+    }
+
+    private static CompiledLocator parse(String locatorType) {
+        int separator = locatorType.indexOf('=');
+        if (separator > 0) {
+            String prefix = locatorType.substring(0, separator);
+            String value = locatorType.substring(separator + 1);
+            for (LocatorType type : LocatorType.values()) {
+                if (type.name().equalsIgnoreCase(prefix)) {
+                    return new CompiledLocator(type, value);
+                }
+            }
+        }
+        throw new RuntimeException("Locator type is not supported!");
+    }
+
+    /**
+     * Dynamic xpath split into literal segments and argument indexes. Only "%s", "%n$s" and "%%" are compiled, any other conversion falls back to String.format.
+     */
+    private static final class XpathTemplate {
+        private static final XpathTemplate UNSUPPORTED = new XpathTemplate(null, null, 0);
+
+        private final String[] literals;
+        private final int[] argumentIndexes;
+        private final int requiredArguments;
+
+        private XpathTemplate(String[] literals, int[] argumentIndexes, int requiredArguments) {
+            this.literals = literals;
+            this.argumentIndexes = argumentIndexes;
+            this.requiredArguments = requiredArguments;
+        }
+
+        static XpathTemplate compile(String format) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> indexes = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int nextOrdinary = 0;
+            int required = 0;
+            int i = 0;
+            while (i < format.length()) {
+                char c = format.charAt(i);
+                if (c != '%') {
+                    literal.append(c);
+                    i++;
+                    continue;
+                }
+                if (i + 1 >= format.length()) {
+                    return UNSUPPORTED;
+                }
+                char next = format.charAt(i + 1);
+                if (next == '%') {
+                    literal.append('%');
+                    i += 2;
+                    continue;
+                }
+                int index;
+                int end;
+                if (next == 's') {
+                    index = nextOrdinary++;
+                    end = i + 2;
+                } else {
+                    int dollar = format.indexOf("$s", i + 1);
+                    if (dollar < 0 || !isDigits(format, i + 1, dollar)) {
+                        return UNSUPPORTED;
+                    }
+                    index = Integer.parseInt(format.substring(i + 1, dollar)) - 1;
+                    if (index < 0) {
+                        return UNSUPPORTED;
+                    }
+                    end = dollar + 2;
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                indexes.add(index);
+                required = Math.max(required, index + 1);
+                i = end;
+            }
+            literals.add(literal.toString());
+            int[] argumentIndexes = new int[indexes.size()];
+            for (int j = 0; j < argumentIndexes.length; j++) {
+                argumentIndexes[j] = indexes.get(j);
+            }
+            return new XpathTemplate(literals.toArray(new String[0]), argumentIndexes, required);
+        }
+
+        private static boolean isDigits(String value, int from, int to) {
+            if (from >= to) {
+                return false;
+            }
+            for (int i = from; i < to; i++) {
+                if (!Character.isDigit(value.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        String fill(String format, String... dynamicValues) {
+            // Keep the exact String.format behaviour (and exceptions) for anything the template does not cover
+            if (literals == null || dynamicValues == null || dynamicValues.length < requiredArguments) {
+                return String.format(format, (Object[]) dynamicValues);
+            }
+            if (argumentIndexes.length == 0) {
+                return literals[0];
+            }
+            StringBuilder builder = new StringBuilder(format.length() + 16 * argumentIndexes.length);
+            for (int i = 0; i < argumentIndexes.length; i++) {
+                builder.append(literals[i]).append(dynamicValues[argumentIndexes[i]]);
+            }
+            return builder.append(literals[argumentIndexes.length]).toString();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package commons;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import lombok.Getter;
+
+/**
+ * Snapshot of the XHR/fetch requests seen by the in-page interceptor of {@link BasePage#getNetworkActivity(org.openqa.selenium.WebDriver)}.
+ */
+@Getter
+public class NetworkActivity {
+    private final long inFlight;
+    private final long idleMillis;
+    private final List<String> slowestPendingRequests;
+
+    @SuppressWarnings("unchecked")
+    NetworkActivity(Map<String, Object> state) {
+        inFlight = ((Number) state.get("inFlight")).longValue();
+        idleMillis = ((Number) state.get("idleMillis")).longValue();
+        List<String> pending = new ArrayList<>();
+        for (Map<String, Object> request : (List<Map<String, Object>>) state.get("pending")) {
+            pending.add(request.get("method") + " " + request.get("url") + " (" + request.get("ageMillis") + " ms)");
+        }
+        slowestPendingRequests = Collections.unmodifiableList(pending);
+    }
+
+    /**
+     * Install the XHR/fetch interceptor in the document just loaded or switched to, before the test acts on it. A driver that cannot run scripts, or a page
+     * that rejects them, is left to the lazy install of the first network-idle wait.
+     *
+     * @param driver driver of browser
+     */
+    static void installInterceptor(WebDriver driver) {
+        if (!(driver instanceof JavascriptExecutor)) {
+            return;
+        }
+        try {
+            ((JavascriptExecutor) driver).executeScript(BrowserScripts.NETWORK_INTERCEPTOR);
+        } catch (WebDriverException e) {
+            // Installed on the first getNetworkActivity call instead
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkActivity[inFlight=" + inFlight + ", idle=" + idleMillis + " ms, slowest pending=" + slowestPendingRequests + "]";
+    }
+}
@@ -0,0 +1,147 @@
+package commons;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.testng.ITestResult;
+
+import enums.PageLoadMetric;
+import lombok.Getter;
+
+/**
+ * Load metrics of one navigation, read by BasePage after openPageUrl, refreshCurrentPage, backToPage and forwardToPage. Every timing is kept on the TestNG
+ * result of the test that navigated and in a suite-wide list written as CSV at suite end.
+ */
+@Getter
+public class PageLoadTiming {
+    private static final String TEST_ATTRIBUTE = "pageLoadTimings";
+    private static final ConcurrentLinkedQueue<PageLoadTiming> suiteTimings = new ConcurrentLinkedQueue<>();
+
+    private final String action;
+    private final String url;
+    private final String navigationType;
+    private final String testName;
+    private final Map<PageLoadMetric, Double> metrics;
+
+    @SuppressWarnings("unchecked")
+    PageLoadTiming(String action, String testName, Map<String, Object> timing) {
+        this.action = action;
+        this.testName = testName;
+        url = (String) timing.get("url");
+        navigationType = (String) timing.get("navigationType");
+        Map<PageLoadMetric, Double> values = new EnumMap<>(PageLoadMetric.class);
+        for (Map.Entry<String, Object> metric : ((Map<String, Object>) timing.get("metrics")).entrySet()) {
+            values.put(PageLoadMetric.valueOf(metric.getKey()), ((Number) metric.getValue()).doubleValue());
+        }
+        metrics = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * @param metric metric to read
+     * @return Value of the metric, or -1 if the browser did not report it
+     */
+    public double getMetric(PageLoadMetric metric) {
+        Double value = metrics.get(metric);
+        return value == null ? -1 : value;
+    }
+
+    /**
+     * Keep the timing on @param result, the test that navigated (may be null outside a test), and in the suite report
+     */
+    static void record(ITestResult result, PageLoadTiming timing) {
+        suiteTimings.add(timing);
+        if (result != null) {
+            synchronized (result) {
+                getTimings(result).add(timing);
+            }
+        }
+    }
+
+    /**
+     * @param result TestNG result of a test
+     * @return Timings of every navigation of the test, in order
+     */
+    @SuppressWarnings("unchecked")
+    public static List<PageLoadTiming> getTimings(ITestResult result) {
+        List<PageLoadTiming> timings = (List<PageLoadTiming>) result.getAttribute(TEST_ATTRIBUTE);
+        if (timings == null) {
+            timings = Collections.synchronizedList(new ArrayList<PageLoadTiming>());
+            result.setAttribute(TEST_ATTRIBUTE, timings);
+        }
+        return timings;
+    }
+
+    /**
+     * @param result TestNG result of a test
+     * @return One line per navigation of the test, empty if it did not navigate
+     */
+    public static String describeTimings(ITestResult result) {
+        StringBuilder description = new StringBuilder();
+        for (PageLoadTiming timing : getTimings(result)) {
+            description.append(timing).append('\n');
+        }
+        return description.toString();
+    }
+
+    /**
+     * Write every timing of the suite to GlobalConstants pageLoadTimings folder as CSV, one row per navigation and one column per metric
+     *
+     * @param suiteName name of the finished suite, used for the file name
+     */
+    public static void writeReport(String suiteName) {
+        if (suiteTimings.isEmpty()) {
+            return;
+        }
+        StringBuilder csv = new StringBuilder("test,action,navigationType,url");
+        for (PageLoadMetric metric : PageLoadMetric.values()) {
+            csv.append(',').append(metric);
+        }
+        csv.append('\n');
+        for (PageLoadTiming timing : suiteTimings) {
+            csv.append(toCsvCell(timing.testName)).append(',').append(timing.action).append(',').append(toCsvCell(timing.navigationType)).append(',')
+                    .append(toCsvCell(timing.url));
+            for (PageLoadMetric metric : PageLoadMetric.values()) {
+                Double value = timing.metrics.get(metric);
+                csv.append(',').append(value == null ? "" : String.format("%.1f", value));
+            }
+            csv.append('\n');
+        }
+        File folder = new File(GlobalConstants.getGlobalConstants().getPageLoadTimings());
+        try {
+            Files.createDirectories(folder.toPath());
+            Files.write(new File(folder, suiteName.replaceAll("[^A-Za-z0-9._-]", "_") + ".csv").toPath(), csv.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException("Fail to write page load timings of " + suiteName, e);
+        }
+        suiteTimings.clear();
+    }
+
+    private static String toCsvCell(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.contains(",") || value.contains("\"") ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder().append(action).append(' ').append(url);
+        if (navigationType != null) {
+            description.append(" (").append(navigationType).append(')');
+        }
+        for (Map.Entry<PageLoadMetric, Double> metric : metrics.entrySet()) {
+            description.append(' ').append(metric.getKey()).append('=');
+            description.append(metric.getKey() == PageLoadMetric.LONG_TASK_COUNT ? String.valueOf(metric.getValue().longValue())
+                    : String.format("%.0f ms", metric.getValue()));
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package commons;
+
+import java.util.Map;
+
+import enums.ResourceType;
+import lombok.Getter;
+
+/**
+ * One image, background image, script or stylesheet of a page, as read by {@link BasePage#auditPageResources(org.openqa.selenium.WebDriver)}. Timing values
+ * are -1 when the browser exposes no Resource Timing entry for the URL.
+ */
+@Getter
+public class PageResource {
+    private final ResourceType type;
+    private final String url;
+    private final String element;
+    private final Boolean loaded;
+    private final long naturalWidth;
+    private final long naturalHeight;
+    private final double durationMillis;
+    private final long transferSize;
+    private final long encodedBodySize;
+    private final int responseStatus;
+
+    PageResource(Map<String, Object> resource) {
+        type = ResourceType.valueOf((String) resource.get("type"));
+        url = (String) resource.get("url");
+        element = (String) resource.get("element");
+        loaded = (Boolean) resource.get("loaded");
+        naturalWidth = toLong(resource.get("naturalWidth"));
+        naturalHeight = toLong(resource.get("naturalHeight"));
+        durationMillis = resource.get("durationMillis") == null ? -1 : ((Number) resource.get("durationMillis")).doubleValue();
+        transferSize = toLong(resource.get("transferSize"));
+        encodedBodySize = toLong(resource.get("encodedBodySize"));
+        responseStatus = (int) toLong(resource.get("responseStatus"));
+    }
+
+    private static long toLong(Object value) {
+        return value == null ? -1 : ((Number) value).longValue();
+    }
+
+    /**
+     * @return True if the resource is known to have failed: an image without pixels, a stylesheet without sheet or an error response status
+     */
+    public boolean isBroken() {
+        return Boolean.FALSE.equals(loaded) || responseStatus >= 400;
+    }
+
+    /**
+     * @return True if the browser has a Resource Timing entry for the URL
+     */
+    public boolean hasTiming() {
+        return durationMillis >= 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder().append(type).append(' ').append(url).append(" (").append(element);
+        if (loaded != null) {
+            description.append(loaded ? ", loaded" : ", not loaded");
+        }
+        if (type == ResourceType.IMAGE) {
+            description.append(", ").append(naturalWidth).append('x').append(naturalHeight);
+        }
+        if (responseStatus > 0) {
+            description.append(", status ").append(responseStatus);
+        }
+        if (hasTiming()) {
+            description.append(String.format(", %.0f ms, %d bytes", durationMillis, transferSize));
+        }
+        return description.append(')').toString();
+    }
+}
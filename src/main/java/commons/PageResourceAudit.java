@@ -0,0 +1,114 @@
+package commons;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.testng.Assert;
+
+import enums.ResourceType;
+
+/**
+ * Every resource of a page read with one script call by {@link BasePage#auditPageResources(org.openqa.selenium.WebDriver)}. Filters and assertions run on this
+ * snapshot without any further call to the browser.
+ */
+public class PageResourceAudit {
+    private final String pageUrl;
+    private final List<PageResource> resources;
+
+    PageResourceAudit(String pageUrl, List<PageResource> resources) {
+        this.pageUrl = pageUrl;
+        this.resources = Collections.unmodifiableList(resources);
+    }
+
+    public String getPageUrl() {
+        return pageUrl;
+    }
+
+    public List<PageResource> getResources() {
+        return resources;
+    }
+
+    public List<PageResource> getResources(ResourceType type) {
+        return filter(resource -> resource.getType() == type);
+    }
+
+    public List<PageResource> filter(Predicate<PageResource> predicate) {
+        List<PageResource> matching = new ArrayList<>();
+        for (PageResource resource : resources) {
+            if (predicate.test(resource)) {
+                matching.add(resource);
+            }
+        }
+        return matching;
+    }
+
+    public List<PageResource> getBrokenResources() {
+        return filter(PageResource::isBroken);
+    }
+
+    public List<PageResource> getBrokenImages() {
+        return filter(resource -> resource.getType() == ResourceType.IMAGE && resource.isBroken());
+    }
+
+    /**
+     * @param thresholdInMillis minimum load duration
+     * @return Resources that took at least the threshold to load, slowest first
+     */
+    public List<PageResource> getSlowResources(double thresholdInMillis) {
+        List<PageResource> slow = filter(resource -> resource.getDurationMillis() >= thresholdInMillis);
+        slow.sort(Comparator.comparingDouble(PageResource::getDurationMillis).reversed());
+        return slow;
+    }
+
+    /**
+     * @param thresholdInBytes minimum transfer size
+     * @return Resources whose transfer size is at least the threshold, largest first
+     */
+    public List<PageResource> getLargeResources(long thresholdInBytes) {
+        List<PageResource> large = filter(resource -> resource.getTransferSize() >= thresholdInBytes);
+        large.sort(Comparator.comparingLong(PageResource::getTransferSize).reversed());
+        return large;
+    }
+
+    /**
+     * @return Bytes transferred for the resources with a timing entry (cache hits count 0)
+     */
+    public long getTotalTransferSize() {
+        long total = 0;
+        for (PageResource resource : resources) {
+            total += Math.max(0, resource.getTransferSize());
+        }
+        return total;
+    }
+
+    public void assertNoBrokenResources() {
+        assertNone(getBrokenResources(), "broken resource(s)");
+    }
+
+    public void assertNoBrokenImages() {
+        assertNone(getBrokenImages(), "broken image(s)");
+    }
+
+    public void assertNoSlowResources(double thresholdInMillis) {
+        assertNone(getSlowResources(thresholdInMillis), "resource(s) slower than " + thresholdInMillis + " ms");
+    }
+
+    private void assertNone(List<PageResource> found, String description) {
+        if (!found.isEmpty()) {
+            StringBuilder message = new StringBuilder().append(found.size()).append(' ').append(description).append(" on ").append(pageUrl).append(':');
+            for (PageResource resource : found) {
+                message.append("\n  ").append(resource);
+            }
+            Assert.fail(message.toString());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PageResourceAudit[%s resources=%d broken=%d transferred=%d bytes]", pageUrl, resources.size(), getBrokenResources().size(),
+                getTotalTransferSize());
+    }
+}
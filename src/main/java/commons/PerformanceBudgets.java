@@ -0,0 +1,179 @@
+package commons;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import enums.PageLoadMetric;
+
+/**
+ * Maximum page load metrics, for every page or for the pages whose URL matches a regex. The budgets file holds one budget per line as
+ * "METRIC=max" for every page or "METRIC@urlRegex=max" for matching pages, e.g. "LARGEST_CONTENTFUL_PAINT@/auth/login=2500". A page budget replaces the
+ * default budget of its metric; when several page budgets match the strictest applies.
+ * <p>
+ * A breach is a soft failure: it is added to {@link VerificationFailures} of the current test like a failed verifyTrue, and the test goes on.
+ */
+public class PerformanceBudgets {
+    private static final Log log = LogFactory.getLog(PerformanceBudgets.class);
+    private static PerformanceBudgets performanceBudgets;
+
+    private final List<Budget> budgets = new CopyOnWriteArrayList<>();
+
+    public PerformanceBudgets() {
+    }
+
+    public static synchronized PerformanceBudgets getPerformanceBudgets() {
+        if (performanceBudgets == null) {
+            performanceBudgets = new PerformanceBudgets();
+            performanceBudgets.loadResource(GlobalConstants.getGlobalConstants().getPerformanceBudgets());
+            if (performanceBudgets.budgets.isEmpty()) {
+                log.warn("No performance budgets loaded from classpath resource " + GlobalConstants.getGlobalConstants().getPerformanceBudgets()
+                        + ", page load timings are recorded but never checked");
+            }
+        }
+        return performanceBudgets;
+    }
+
+    /**
+     * Add the budgets of a file, see the class comment for its format. A missing file adds nothing.
+     *
+     * @param budgetFile properties file of budgets
+     */
+    public void load(File budgetFile) {
+        if (!budgetFile.isFile()) {
+            return;
+        }
+        try (Reader reader = Files.newBufferedReader(budgetFile.toPath(), StandardCharsets.UTF_8)) {
+            load(reader);
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Fail to load performance budgets " + budgetFile);
+        }
+    }
+
+    /**
+     * Add the budgets of a classpath resource, so they are found from a packaged jar and whatever the working directory. A missing resource adds nothing.
+     *
+     * @param resourceName name of the properties resource, e.g. "performanceBudgets.properties"
+     */
+    public void loadResource(String resourceName) {
+        try (InputStream input = PerformanceBudgets.class.getClassLoader().getResourceAsStream(resourceName)) {
+            if (input == null) {
+                return;
+            }
+            load(new InputStreamReader(input, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Fail to load performance budgets " + resourceName);
+        }
+    }
+
+    private void load(Reader reader) throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+        for (String key : properties.stringPropertyNames()) {
+            int separator = key.indexOf('@');
+            PageLoadMetric metric = PageLoadMetric.valueOf(separator < 0 ? key.trim() : key.substring(0, separator).trim());
+            String urlRegex = separator < 0 ? null : key.substring(separator + 1);
+            addBudget(metric, urlRegex, Double.parseDouble(properties.getProperty(key).trim()));
+        }
+    }
+
+    /**
+     * @param metric   metric to limit
+     * @param urlRegex regex found in the URL of the pages the budget applies to, null for every page
+     * @param maximum  highest accepted value, milliseconds for times
+     */
+    public void addBudget(PageLoadMetric metric, String urlRegex, double maximum) {
+        budgets.add(new Budget(metric, urlRegex == null ? null : Pattern.compile(urlRegex), maximum));
+    }
+
+    public void clear() {
+        budgets.clear();
+    }
+
+    /**
+     * @param metric metric to read the budget of
+     * @param url    URL of the page
+     * @return Budget of the metric for the page, or -1 if it has none
+     */
+    public double getBudget(PageLoadMetric metric, String url) {
+        double pageBudget = -1;
+        double defaultBudget = -1;
+        for (Budget budget : budgets) {
+            if (budget.metric != metric) {
+                continue;
+            }
+            if (budget.urlPattern == null) {
+                defaultBudget = budget.maximum;
+            } else if (url != null && budget.urlPattern.matcher(url).find() && (pageBudget < 0 || budget.maximum < pageBudget)) {
+                pageBudget = budget.maximum;
+            }
+        }
+        return pageBudget >= 0 ? pageBudget : defaultBudget;
+    }
+
+    /**
+     * @param timing metrics of one navigation
+     * @return One message per metric over its budget, empty if the page is within budget
+     */
+    public List<String> getBreaches(PageLoadTiming timing) {
+        List<String> breaches = new ArrayList<>();
+        for (PageLoadMetric metric : PageLoadMetric.values()) {
+            double value = timing.getMetric(metric);
+            double budget = getBudget(metric, timing.getUrl());
+            if (value >= 0 && budget >= 0 && value > budget) {
+                breaches.add(String.format("%s %.0f > budget %.0f", metric, value, budget));
+            }
+        }
+        return breaches;
+    }
+
+    /**
+     * Report the breaches of @param timing as a soft failure of the current test
+     *
+     * @return True if the page is within budget
+     */
+    public boolean verify(PageLoadTiming timing) {
+        List<String> breaches = getBreaches(timing);
+        if (breaches.isEmpty()) {
+            return true;
+        }
+        AssertionError error = new AssertionError("Performance budget exceeded on " + timing.getUrl() + " after " + timing.getAction() + ": "
+                + String.join(", ", breaches));
+        ITestResult result = Reporter.getCurrentTestResult();
+        if (result == null) {
+            log.warn(error.getMessage());
+        } else {
+            VerificationFailures.getFailures().addFailureForTest(result, error);
+            result.setThrowable(error);
+        }
+        return false;
+    }
+
+    private static final class Budget {
+        private final PageLoadMetric metric;
+        private final Pattern urlPattern;
+        private final double maximum;
+
+        private Budget(PageLoadMetric metric, Pattern urlPattern, double maximum) {
+            this.metric = metric;
+            this.urlPattern = urlPattern;
+            this.maximum = maximum;
+        }
+    }
+}
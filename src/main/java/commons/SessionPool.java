@@ -0,0 +1,316 @@
+package commons;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import factoryEnvironment.BrowserstackFactory;
+import factoryEnvironment.GridFactory;
+import factoryEnvironment.LocalFactory;
+import factoryEnvironment.SaucelabFactory;
+import utilities.BrowserLogCapture;
+import utilities.DownloadWatcher;
+
+/**
+ * Browser sessions kept open across test classes, keyed by environment, browser and the capabilities the factories derive from the remaining parameters.
+ * Enabled with -DsessionPoolSize=N (N idle sessions kept per key, 0 disables the pool). Sessions are created in parallel in @BeforeSuite for every key of the
+ * suite, leased by BaseTest.getBrowserDriver and given back by closeBrowserDriver, which resets them instead of quitting.
+ * <p>
+ * A reset closes every window but one, clears the storage and cookies of the current page and loads about:blank. Cookies and storage of other origins
+ * visited during the lease survive it, WebDriver only reaches the current document. A session is quit instead of reused after sessionPoolMaxLeases leases or
+ * when its health check or reset fails.
+ */
+public class SessionPool {
+    private static SessionPool sessionPool;
+
+    private final int size;
+    private final int maxLeases;
+    private final Map<SessionKey, LinkedBlockingDeque<PooledSession>> idleSessions = new ConcurrentHashMap<>();
+    private final Map<WebDriver, PooledSession> leasedSessions = new ConcurrentHashMap<>();
+
+    public SessionPool(int size, int maxLeases) {
+        this.size = size;
+        this.maxLeases = Math.max(1, maxLeases);
+    }
+
+    public static synchronized SessionPool getSessionPool() {
+        if (sessionPool == null) {
+            GlobalConstants constants = GlobalConstants.getGlobalConstants();
+            sessionPool = new SessionPool(constants.getSessionPoolSize(), constants.getSessionPoolMaxLeases());
+            Runtime.getRuntime().addShutdownHook(new Thread(sessionPool::shutdown, "session-pool-shutdown"));
+        }
+        return sessionPool;
+    }
+
+    public boolean isEnabled() {
+        return size > 0;
+    }
+
+    /**
+     * Create the sessions the tests of a suite will lease, in parallel, and wait for them. Every key gets one session per test class using it, up to the pool
+     * size; parameters missing from the suite file take the defaults of the test classes (local, chrome, localhost, 4444, Windows, 10).
+     *
+     * @param suite suite about to run
+     */
+    public void prewarm(XmlSuite suite) {
+        if (!isEnabled()) {
+            return;
+        }
+        Map<SessionKey, Integer> classesByKey = new LinkedHashMap<>();
+        for (XmlTest test : suite.getTests()) {
+            Map<String, String> parameters = test.getAllParameters();
+            SessionKey key = new SessionKey(parameters.getOrDefault("envName", "local"), parameters.getOrDefault("browser", "chrome"),
+                    parameters.getOrDefault("ipAddress", "localhost"), parameters.getOrDefault("portNumber", "4444"), parameters.getOrDefault("osName", "Windows"),
+                    parameters.getOrDefault("osVersion", "10"));
+            classesByKey.merge(key, Math.max(1, test.getXmlClasses().size()), Integer::sum);
+        }
+        List<Callable<Void>> creations = new ArrayList<>();
+        for (Map.Entry<SessionKey, Integer> entry : classesByKey.entrySet()) {
+            int missing = Math.min(size, entry.getValue()) - getIdleSessions(entry.getKey()).size();
+            for (int i = 0; i < missing; i++) {
+                creations.add(() -> {
+                    getIdleSessions(entry.getKey()).offer(new PooledSession(entry.getKey(), entry.getKey().createDriver()));
+                    return null;
+                });
+            }
+        }
+        if (creations.isEmpty()) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(creations.size());
+        try {
+            for (Future<Void> creation : executor.invokeAll(creations)) {
+                try {
+                    creation.get();
+                } catch (ExecutionException e) {
+                    // The session is created on lease instead
+                    e.getCause().printStackTrace();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @param key environment, browser and capabilities of the session
+     * @return A healthy idle session of the key, or a new one if there is none. A new session every call when the pool is disabled.
+     */
+    public WebDriver lease(SessionKey key) {
+        if (!isEnabled()) {
+            return key.createDriver();
+        }
+        PooledSession session;
+        while ((session = getIdleSessions(key).poll()) != null) {
+            if (isHealthy(session.driver)) {
+                break;
+            }
+            quitQuietly(session.driver);
+        }
+        if (session == null) {
+            session = new PooledSession(key, key.createDriver());
+        }
+        session.leases++;
+        leasedSessions.put(session.driver, session);
+        return session.driver;
+    }
+
+    /**
+     * @param driver driver of browser
+     * @return True if the driver is leased from the pool and must be given back with release instead of quit
+     */
+    public boolean isLeased(WebDriver driver) {
+        return driver != null && leasedSessions.containsKey(driver);
+    }
+
+    /**
+     * Reset a leased session and keep it for the next lease, or quit it if it is worn out or cannot be reset
+     *
+     * @param driver driver of browser
+     * @return False if the driver was not leased from the pool, nothing was done
+     */
+    public boolean release(WebDriver driver) {
+        PooledSession session = driver == null ? null : leasedSessions.remove(driver);
+        if (session == null) {
+            return false;
+        }
+        if (session.leases >= maxLeases || !reset(driver)) {
+            quitQuietly(driver);
+            return true;
+        }
+        LinkedBlockingDeque<PooledSession> idle = getIdleSessions(session.key);
+        if (idle.size() >= size || !idle.offerFirst(session)) {
+            quitQuietly(driver);
+        }
+        return true;
+    }
+
+    /**
+     * Quit every session, idle or still leased, in parallel
+     */
+    public void shutdown() {
+        List<WebDriver> drivers = new ArrayList<>(leasedSessions.keySet());
+        leasedSessions.clear();
+        for (LinkedBlockingDeque<PooledSession> idle : idleSessions.values()) {
+            PooledSession session;
+            while ((session = idle.poll()) != null) {
+                drivers.add(session.driver);
+            }
+        }
+        List<CompletableFuture<Void>> quits = new ArrayList<>();
+        for (WebDriver driver : drivers) {
+            ImplicitTimeoutTracker.removeDriver(driver);
+            quits.add(SessionProcesses.quitAsync(driver));
+        }
+        try {
+            CompletableFuture.allOf(quits.toArray(new CompletableFuture<?>[0])).get(GlobalConstants.getGlobalConstants().getDriverQuitTimeoutInSeconds() * 2,
+                    TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Processes still running are killed by SessionProcesses.reapOrphans
+        }
+    }
+
+    /**
+     * @return Number of idle sessions of every key
+     */
+    public Map<SessionKey, Integer> getIdleCounts() {
+        Map<SessionKey, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<SessionKey, LinkedBlockingDeque<PooledSession>> entry : idleSessions.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().size());
+        }
+        return counts;
+    }
+
+    private LinkedBlockingDeque<PooledSession> getIdleSessions(SessionKey key) {
+        return idleSessions.computeIfAbsent(key, k -> new LinkedBlockingDeque<>());
+    }
+
+    private boolean isHealthy(WebDriver driver) {
+        try {
+            return !driver.getWindowHandles().isEmpty();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private boolean reset(WebDriver driver) {
+        try {
+            WindowRegistry registry = WindowRegistry.getRegistry(driver);
+            registry.closeAllExcept(registry.refresh().iterator().next());
+            driver.switchTo().defaultContent();
+            ((JavascriptExecutor) driver).executeScript("try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+            driver.manage().deleteAllCookies();
+            driver.get("about:blank");
+        } catch (Exception e) {
+            return false;
+        } finally {
+            ElementHandleCache.removeCache(driver);
+            WaitEngine.removeWaitEngine(driver);
+            FrameContext.removeFrameContext(driver);
+            WindowRegistry.removeRegistry(driver);
+            DownloadWatcher.endSession(driver);
+            BrowserLogCapture.discard(driver);
+        }
+        return true;
+    }
+
+    private void quitQuietly(WebDriver driver) {
+        ImplicitTimeoutTracker.removeDriver(driver);
+        SessionProcesses.quitAsync(driver);
+    }
+
+    /**
+     * Parameters of BaseTest.getBrowserDriver that decide which session is created. The server name is not part of it, the page is opened after leasing.
+     */
+    public static final class SessionKey {
+        private final String envName;
+        private final String browserName;
+        private final String ipAddress;
+        private final String portNumber;
+        private final String osName;
+        private final String osVersion;
+
+        public SessionKey(String envName, String browserName, String ipAddress, String portNumber, String osName, String osVersion) {
+            this.envName = envName;
+            this.browserName = browserName.toLowerCase();
+            // Local sessions ignore the remote parameters, they must not split the pool
+            boolean local = !"grid".equals(envName) && !"browserStack".equals(envName) && !"sourceLab".equals(envName);
+            this.ipAddress = local ? "" : ipAddress;
+            this.portNumber = local ? "" : portNumber;
+            this.osName = local ? "" : osName;
+            this.osVersion = local ? "" : osVersion;
+        }
+
+        public WebDriver createDriver() {
+            WebDriver driver;
+            switch (envName) {
+                case "grid":
+                    driver = new GridFactory(browserName, ipAddress, portNumber).createDriver();
+                    break;
+                case "browserStack":
+                    driver = new BrowserstackFactory(browserName, osName, osVersion).createDriver();
+                    break;
+                case "sourceLab":
+                    driver = new SaucelabFactory(browserName, osName).createDriver();
+                    break;
+                default:
+                    driver = new LocalFactory(browserName).createDriver();
+                    break;
+            }
+            SessionProcesses.register(driver);
+            return driver;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof SessionKey)) {
+                return false;
+            }
+            SessionKey key = (SessionKey) other;
+            return envName.equals(key.envName) && browserName.equals(key.browserName) && ipAddress.equals(key.ipAddress) && portNumber.equals(key.portNumber)
+                    && osName.equals(key.osName) && osVersion.equals(key.osVersion);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(envName, browserName, ipAddress, portNumber, osName, osVersion);
+        }
+
+        @Override
+        public String toString() {
+            return envName + "|" + browserName + (ipAddress.isEmpty() ? "" : "|" + ipAddress + ":" + portNumber) + (osName.isEmpty() ? "" : "|" + osName + " " + osVersion);
+        }
+    }
+
+    private static final class PooledSession {
+        private final SessionKey key;
+        private final WebDriver driver;
+        private int leases;
+
+        private PooledSession(SessionKey key, WebDriver driver) {
+            this.key = key;
+            this.driver = driver;
+        }
+    }
+}
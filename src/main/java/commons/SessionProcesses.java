@@ -0,0 +1,386 @@
+package commons;
+
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+/**
+ * Driver service and browser processes of each local session, so quitting a session only ever stops its own processes. The driver service is the child of
+ * this JVM started with the port of the session's command executor; the browser processes are its descendants, recorded when the session is registered and
+ * again before it quits, so browsers reparented after their driver died are still known.
+ * <p>
+ * Quitting runs on a background thread: WebDriver quit with a timeout, then the process tree is asked to exit and killed if it is still alive after the
+ * timeout. {@link #reapOrphans()} at suite end waits for the pending quits and kills whatever tracked process, or driver service child of this JVM, is
+ * left. Process handles need Java 9+ at runtime and are used by reflection to keep Java 8 compatibility; on Java 8 sessions are only quit and the reaper
+ * falls back to killing the driver services by name, as closeBrowserDriver used to after every class.
+ */
+public class SessionProcesses {
+    private static final Pattern DRIVER_SERVICE = Pattern.compile("(chromedriver|msedgedriver|geckodriver|operadriver|IEDriverServer)[^\\\\/]*$",
+            Pattern.CASE_INSENSITIVE);
+    private static final Map<WebDriver, ProcessTree> trees = new ConcurrentHashMap<>();
+    private static final Set<ProcessTree> unfinished = Collections.newSetFromMap(new ConcurrentHashMap<ProcessTree, Boolean>());
+    private static final ConcurrentLinkedQueue<CompletableFuture<Void>> pendingQuits = new ConcurrentLinkedQueue<>();
+    private static final Set<String> driverServiceNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private static final ExecutorService quitExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "driver-quit");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private SessionProcesses() {
+    }
+
+    /**
+     * Record the driver service and browser processes of a session just created. Remote sessions and drivers without a local service are not tracked.
+     *
+     * @param driver driver of browser
+     */
+    public static void register(WebDriver driver) {
+        String serviceName = getDriverServiceName(driver);
+        if (serviceName != null) {
+            driverServiceNames.add(serviceName);
+        }
+        int port = getLocalPort(driver);
+        if (port < 0 || !ProcessApi.isAvailable()) {
+            return;
+        }
+        for (Object child : ProcessApi.children(ProcessApi.current())) {
+            String commandLine = ProcessApi.commandLine(child);
+            if (commandLine.contains("--port=" + port) || commandLine.matches(".*--port\\s+" + port + "(\\s.*)?")) {
+                ProcessTree tree = new ProcessTree(child);
+                tree.refresh();
+                trees.put(driver, tree);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param driver driver of browser
+     * @return Process ids of the driver service and browser of the session, empty if it is not tracked
+     */
+    public static List<Long> getProcessIds(WebDriver driver) {
+        ProcessTree tree = trees.get(driver);
+        return tree == null ? Collections.<Long>emptyList() : tree.getProcessIds();
+    }
+
+    /**
+     * Quit the session on a background thread, then stop its processes. The test thread returns at once.
+     *
+     * @param driver driver of browser
+     * @return Completes when the session and its processes are gone, or were killed after the timeout
+     */
+    public static CompletableFuture<Void> quitAsync(WebDriver driver) {
+        ProcessTree tree = trees.remove(driver);
+        if (tree != null) {
+            unfinished.add(tree);
+        }
+        CompletableFuture<Void> quit = CompletableFuture.runAsync(() -> quit(driver, tree), quitExecutor);
+        pendingQuits.add(quit);
+        quit.whenComplete((result, error) -> pendingQuits.remove(quit));
+        return quit;
+    }
+
+    private static void quit(WebDriver driver, ProcessTree tree) {
+        long timeoutInSeconds = GlobalConstants.getGlobalConstants().getDriverQuitTimeoutInSeconds();
+        if (tree != null) {
+            tree.refresh();
+        }
+        CompletableFuture<Void> quit = CompletableFuture.runAsync(driver::quit, quitExecutor);
+        try {
+            quit.get(timeoutInSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            System.out.println("Driver quit took more than " + timeoutInSeconds + " s, killing its processes");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        if (tree != null) {
+            tree.terminate(timeoutInSeconds);
+            unfinished.remove(tree);
+        }
+    }
+
+    /**
+     * Wait for the pending quits, then kill every process still alive among the tracked sessions, quit or leaked, and the driver services started by this
+     * JVM. Run it at suite end, when no session is meant to be alive any more.
+     *
+     * @return Number of processes killed
+     */
+    public static int reapOrphans() {
+        long timeoutInSeconds = GlobalConstants.getGlobalConstants().getDriverQuitTimeoutInSeconds();
+        CompletableFuture<Void> pending = CompletableFuture.allOf(pendingQuits.toArray(new CompletableFuture<?>[0]));
+        try {
+            pending.get(timeoutInSeconds * 2, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.out.println("Driver quits still running at suite end, killing their processes");
+        }
+        if (!ProcessApi.isAvailable()) {
+            return killDriverServicesByName();
+        }
+        // Sessions never quit are leaked: their processes are orphans too
+        Set<Object> orphans = new LinkedHashSet<>();
+        List<ProcessTree> leftTrees = new ArrayList<>(unfinished);
+        leftTrees.addAll(trees.values());
+        for (ProcessTree tree : leftTrees) {
+            tree.refresh();
+            orphans.addAll(tree.processes);
+        }
+        for (Object descendant : ProcessApi.descendants(ProcessApi.current())) {
+            if (DRIVER_SERVICE.matcher(ProcessApi.command(descendant)).find()) {
+                orphans.add(descendant);
+                orphans.addAll(ProcessApi.descendants(descendant));
+            }
+        }
+        int killed = 0;
+        for (Object orphan : orphans) {
+            if (ProcessApi.isAlive(orphan)) {
+                ProcessApi.destroyForcibly(orphan);
+                killed++;
+            }
+        }
+        unfinished.clear();
+        trees.clear();
+        return killed;
+    }
+
+    /**
+     * Java 8 fallback of the reaper: the former pkill/taskkill by driver service name, only when no quit is still running
+     */
+    private static int killDriverServicesByName() {
+        if (!pendingQuits.isEmpty()) {
+            return 0;
+        }
+        boolean windows = System.getProperty("os.name").toLowerCase().contains("window");
+        for (String serviceName : driverServiceNames) {
+            String cmd = windows ? "taskkill /F /FI \"IMAGENAME eq " + serviceName + "*\"" : "pkill " + serviceName;
+            try {
+                Runtime.getRuntime().exec(cmd).waitFor();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        return driverServiceNames.size();
+    }
+
+    private static String getDriverServiceName(WebDriver driver) {
+        String driverName = driver.getClass().getSimpleName().toLowerCase();
+        if (!(driver instanceof RemoteWebDriver) || driver.getClass() == RemoteWebDriver.class) {
+            return null;
+        } else if (driverName.contains("chrome")) {
+            return "chromedriver";
+        } else if (driverName.contains("firefox")) {
+            return "geckodriver";
+        } else if (driverName.contains("edge")) {
+            return "msedgedriver";
+        } else if (driverName.contains("opera")) {
+            return "operadriver";
+        } else if (driverName.contains("internetexplorer")) {
+            return "IEDriverServer";
+        }
+        return null;
+    }
+
+    /**
+     * @return Port of the command executor of a session whose driver service runs on this machine, -1 otherwise
+     */
+    private static int getLocalPort(WebDriver driver) {
+        if (!(driver instanceof RemoteWebDriver)) {
+            return -1;
+        }
+        CommandExecutor executor = ((RemoteWebDriver) driver).getCommandExecutor();
+        if (!(executor instanceof HttpCommandExecutor)) {
+            return -1;
+        }
+        URL address = ((HttpCommandExecutor) executor).getAddressOfRemoteServer();
+        try {
+            if (address == null || !InetAddress.getByName(address.getHost()).isLoopbackAddress()) {
+                return -1;
+            }
+        } catch (UnknownHostException e) {
+            return -1;
+        }
+        return address.getPort() < 0 ? address.getDefaultPort() : address.getPort();
+    }
+
+    /**
+     * Driver service process of one session and every descendant seen so far
+     */
+    private static final class ProcessTree {
+        private final Object service;
+        private final Set<Object> processes = Collections.synchronizedSet(new LinkedHashSet<>());
+
+        private ProcessTree(Object service) {
+            this.service = service;
+            processes.add(service);
+        }
+
+        private void refresh() {
+            if (ProcessApi.isAlive(service)) {
+                processes.addAll(ProcessApi.descendants(service));
+            }
+        }
+
+        private List<Long> getProcessIds() {
+            synchronized (processes) {
+                return processes.stream().map(ProcessApi::pid).collect(Collectors.toList());
+            }
+        }
+
+        /**
+         * Ask every process to exit, wait up to @param timeoutInSeconds for all of them and kill the ones left
+         */
+        private void terminate(long timeoutInSeconds) {
+            List<Object> alive;
+            synchronized (processes) {
+                alive = processes.stream().filter(ProcessApi::isAlive).collect(Collectors.toList());
+            }
+            if (alive.isEmpty()) {
+                return;
+            }
+            alive.forEach(ProcessApi::destroy);
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeoutInSeconds);
+            for (Object process : alive) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || !ProcessApi.waitFor(process, remaining)) {
+                    ProcessApi.destroyForcibly(process);
+                }
+            }
+        }
+    }
+
+    /**
+     * java.lang.ProcessHandle by reflection. Every method is harmless on a runtime without it: isAvailable is false and nothing is ever tracked.
+     */
+    private static final class ProcessApi {
+        private static final Method CURRENT;
+        private static final Method CHILDREN;
+        private static final Method DESCENDANTS;
+        private static final Method PID;
+        private static final Method IS_ALIVE;
+        private static final Method DESTROY;
+        private static final Method DESTROY_FORCIBLY;
+        private static final Method ON_EXIT;
+        private static final Method INFO;
+        private static final Method INFO_COMMAND;
+        private static final Method INFO_COMMAND_LINE;
+
+        static {
+            Method[] methods = new Method[11];
+            try {
+                Class<?> handle = Class.forName("java.lang.ProcessHandle");
+                Class<?> info = Class.forName("java.lang.ProcessHandle$Info");
+                methods[0] = handle.getMethod("current");
+                methods[1] = handle.getMethod("children");
+                methods[2] = handle.getMethod("descendants");
+                methods[3] = handle.getMethod("pid");
+                methods[4] = handle.getMethod("isAlive");
+                methods[5] = handle.getMethod("destroy");
+                methods[6] = handle.getMethod("destroyForcibly");
+                methods[7] = handle.getMethod("onExit");
+                methods[8] = handle.getMethod("info");
+                methods[9] = info.getMethod("command");
+                methods[10] = info.getMethod("commandLine");
+            } catch (ReflectiveOperationException e) {
+                methods = new Method[11];
+            }
+            CURRENT = methods[0];
+            CHILDREN = methods[1];
+            DESCENDANTS = methods[2];
+            PID = methods[3];
+            IS_ALIVE = methods[4];
+            DESTROY = methods[5];
+            DESTROY_FORCIBLY = methods[6];
+            ON_EXIT = methods[7];
+            INFO = methods[8];
+            INFO_COMMAND = methods[9];
+            INFO_COMMAND_LINE = methods[10];
+        }
+
+        private static boolean isAvailable() {
+            return INFO_COMMAND_LINE != null;
+        }
+
+        private static Object invoke(Method method, Object target) {
+            try {
+                return method.invoke(target);
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException("Fail to call ProcessHandle." + method.getName(), e);
+            }
+        }
+
+        private static Object current() {
+            return invoke(CURRENT, null);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<Object> children(Object process) {
+            return ((Stream<Object>) invoke(CHILDREN, process)).collect(Collectors.toList());
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<Object> descendants(Object process) {
+            return ((Stream<Object>) invoke(DESCENDANTS, process)).collect(Collectors.toList());
+        }
+
+        private static long pid(Object process) {
+            return (Long) invoke(PID, process);
+        }
+
+        private static boolean isAlive(Object process) {
+            return (Boolean) invoke(IS_ALIVE, process);
+        }
+
+        private static void destroy(Object process) {
+            invoke(DESTROY, process);
+        }
+
+        private static void destroyForcibly(Object process) {
+            invoke(DESTROY_FORCIBLY, process);
+        }
+
+        /**
+         * @return True if the process exited within @param timeoutInMillis
+         */
+        private static boolean waitFor(Object process, long timeoutInMillis) {
+            try {
+                ((CompletableFuture<?>) invoke(ON_EXIT, process)).get(timeoutInMillis, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static String command(Object process) {
+            return ((Optional<String>) invoke(INFO_COMMAND, invoke(INFO, process))).orElse("");
+        }
+
+        @SuppressWarnings("unchecked")
+        private static String commandLine(Object process) {
+            return ((Optional<String>) invoke(INFO_COMMAND_LINE, invoke(INFO, process))).orElse("");
+        }
+    }
+}
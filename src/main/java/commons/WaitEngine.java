@@ -0,0 +1,217 @@
+package commons;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * Explicit wait shared by all waits of one driver. Polling starts fast and backs off exponentially up to a maximum interval, so a condition that is already
+ * (or almost) satisfied returns in a few milliseconds instead of a fixed 500 ms tick. Conditions can be cached by key and reused across calls.
+ */
+public class WaitEngine {
+    private static final int MAX_CONDITIONS = 10000;
+    private static final Map<WebDriver, WaitEngine> engines = Collections.synchronizedMap(new WeakHashMap<WebDriver, WaitEngine>());
+    private static final ConcurrentHashMap<String, Function<? super WebDriver, ?>> conditions = new ConcurrentHashMap<>();
+
+    private final WebDriver driver;
+    private final long initialPollingInMillis;
+    private final long maxPollingInMillis;
+    private final double backoffMultiplier;
+    private final Class<?>[] ignoredExceptions;
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private volatile long lastWaitNanos;
+    private volatile long maxWaitNanos;
+
+    public WaitEngine(WebDriver driver, long initialPollingInMillis, long maxPollingInMillis, double backoffMultiplier, Class<?>... ignoredExceptions) {
+        this.driver = driver;
+        this.initialPollingInMillis = Math.max(1, initialPollingInMillis);
+        this.maxPollingInMillis = Math.max(this.initialPollingInMillis, maxPollingInMillis);
+        this.backoffMultiplier = Math.max(1, backoffMultiplier);
+        this.ignoredExceptions = ignoredExceptions;
+    }
+
+    public static WaitEngine getWaitEngine(WebDriver driver) {
+        synchronized (engines) {
+            WaitEngine engine = engines.get(driver);
+            if (engine == null) {
+                GlobalConstants constants = GlobalConstants.getGlobalConstants();
+                engine = new WaitEngine(driver, constants.getWaitInitialPollingInMillis(), constants.getWaitMaxPollingInMillis(), constants.getWaitBackoffMultiplier(),
+                        NotFoundException.class, StaleElementReferenceException.class);
+                engines.put(driver, engine);
+            }
+            return engine;
+        }
+    }
+
+    public static void removeWaitEngine(WebDriver driver) {
+        engines.remove(driver);
+    }
+
+    /**
+     * Get a condition from the shared cache, creating it on first use. Only cache conditions that hold no state about a single call.
+     *
+     * @param key     unique key of the condition, e.g. "visible|ID=username"
+     * @param factory creates the condition when it is not cached yet
+     * @return The cached condition
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Function<? super WebDriver, T> getCondition(String key, Supplier<? extends Function<? super WebDriver, T>> factory) {
+        Function<? super WebDriver, ?> condition = conditions.get(key);
+        if (condition == null) {
+            condition = factory.get();
+            if (conditions.size() < MAX_CONDITIONS) {
+                conditions.putIfAbsent(key, condition);
+            }
+        }
+        return (Function<? super WebDriver, T>) condition;
+    }
+
+    /**
+     * Repeatedly applies the condition until it returns neither null nor false, it throws an exception that is not ignored or the timeout expires.
+     *
+     * @param condition        condition to evaluate against the driver
+     * @param timeoutInSeconds time to wait before throwing TimeoutException
+     * @return The condition's return value
+     */
+    public <T> T until(Function<? super WebDriver, T> condition, long timeoutInSeconds) {
+        return until(condition, TimeUnit.SECONDS.toMillis(timeoutInSeconds), initialPollingInMillis);
+    }
+
+    /**
+     * Wait with the timeout and first polling interval learned for @param historyKey (see {@link AdaptiveTimeouts}) and record how long it took. When a learned
+     * timeout shorter than the default expires, the wait goes on up to the default timeout, unless the key recently timed out even then.
+     *
+     * @param historyKey       "page|action|locator" of the wait
+     * @param condition        condition to evaluate against the driver
+     * @param timeoutInSeconds timeout used while the key has too little history
+     * @return The condition's return value
+     */
+    public <T> T until(String historyKey, Function<? super WebDriver, T> condition, long timeoutInSeconds) {
+        AdaptiveTimeouts adaptiveTimeouts = AdaptiveTimeouts.getAdaptiveTimeouts();
+        long defaultTimeoutInMillis = TimeUnit.SECONDS.toMillis(timeoutInSeconds);
+        long timeoutInMillis = adaptiveTimeouts.getTimeoutInMillis(historyKey, defaultTimeoutInMillis);
+        long pollingInMillis = adaptiveTimeouts.getPollingInMillis(historyKey, initialPollingInMillis);
+        long start = System.nanoTime();
+        try {
+            T value;
+            try {
+                value = until(condition, timeoutInMillis, pollingInMillis);
+            } catch (TimeoutException e) {
+                if (timeoutInMillis >= defaultTimeoutInMillis || adaptiveTimeouts.hasRecentTimeout(historyKey)) {
+                    throw e;
+                }
+                // Slower than ever before, not necessarily broken: the time this takes is recorded and widens the learned timeout
+                long elapsedInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                value = until(condition, defaultTimeoutInMillis - elapsedInMillis, maxPollingInMillis);
+            }
+            adaptiveTimeouts.record(historyKey, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), false);
+            return value;
+        } catch (TimeoutException e) {
+            adaptiveTimeouts.record(historyKey, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), true);
+            throw e;
+        }
+    }
+
+    /**
+     * Repeatedly applies the condition until it returns neither null nor false, it throws an exception that is not ignored or the timeout expires.
+     *
+     * @param condition             condition to evaluate against the driver
+     * @param timeoutInMillis       time to wait before throwing TimeoutException
+     * @param firstPollingInMillis  first polling interval, doubled (by the backoff multiplier) after each unsuccessful evaluation
+     * @return The condition's return value
+     */
+    public <T> T until(Function<? super WebDriver, T> condition, long timeoutInMillis, long firstPollingInMillis) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutInMillis);
+        long pollingInMillis = Math.max(1, Math.min(firstPollingInMillis, maxPollingInMillis));
+        RuntimeException lastException = null;
+        while (true) {
+            try {
+                T value = condition.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    record(System.nanoTime() - start, false);
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                if (!isIgnored(e)) {
+                    record(System.nanoTime() - start, false);
+                    throw e;
+                }
+                lastException = e;
+            }
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                record(System.nanoTime() - start, true);
+                throw new TimeoutException(String.format("Expected condition failed: waiting for %s (tried for %d millisecond(s) with up to %d milliseconds interval)",
+                        condition, timeoutInMillis, maxPollingInMillis), lastException);
+            }
+            try {
+                Thread.sleep(Math.min(pollingInMillis, TimeUnit.NANOSECONDS.toMillis(remainingNanos) + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WebDriverException(e);
+            }
+            pollingInMillis = Math.min(maxPollingInMillis, (long) Math.ceil(pollingInMillis * backoffMultiplier));
+        }
+    }
+
+    private boolean isIgnored(Throwable e) {
+        for (Class<?> ignored : ignoredExceptions) {
+            if (ignored.isInstance(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void record(long elapsedNanos, boolean timedOut) {
+        waitCount.increment();
+        totalWaitNanos.add(elapsedNanos);
+        if (timedOut) {
+            timeoutCount.increment();
+        }
+        lastWaitNanos = elapsedNanos;
+        if (elapsedNanos > maxWaitNanos) {
+            maxWaitNanos = elapsedNanos;
+        }
+    }
+
+    public long getWaitCount() {
+        return waitCount.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    public long getTotalWaitInMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum());
+    }
+
+    public long getLastWaitInMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastWaitNanos);
+    }
+
+    public long getMaxWaitInMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WaitEngine[waits=%d timeouts=%d total=%d ms max=%d ms last=%d ms]", getWaitCount(), getTimeoutCount(), getTotalWaitInMillis(),
+                getMaxWaitInMillis(), getLastWaitInMillis());
+    }
+}
@@ -0,0 +1,255 @@
+package commons;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Windows of one driver with the title and URL last read from each, and the window the driver is known to be in. Every lookup starts with one
+ * getWindowHandles call, which drops closed windows and adds new ones. Cached titles only decide which window to try first; a window is always verified after
+ * switching to it, so a stale title costs a switch but never gives a wrong answer. Switching to the window the driver is already in is skipped, and every
+ * lookup ends in a known window: the match, or the window it started from.
+ */
+public class WindowRegistry {
+    private static final Map<WebDriver, WindowRegistry> registries = Collections.synchronizedMap(new WeakHashMap<WebDriver, WindowRegistry>());
+
+    private final WebDriver driver;
+    private final Map<String, WindowInfo> windows = new LinkedHashMap<>();
+    private String currentHandle;
+    private long switchCount;
+
+    private WindowRegistry(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    public static WindowRegistry getRegistry(WebDriver driver) {
+        synchronized (registries) {
+            WindowRegistry registry = registries.get(driver);
+            if (registry == null) {
+                registry = new WindowRegistry(driver);
+                registries.put(driver, registry);
+            }
+            return registry;
+        }
+    }
+
+    public static void removeRegistry(WebDriver driver) {
+        registries.remove(driver);
+    }
+
+    /**
+     * Read the open windows once, forget the closed ones and register the new ones. The current window is read again on next use, in case a test switched
+     * with the driver directly.
+     *
+     * @return Handles of the open windows
+     */
+    public synchronized Set<String> refresh() {
+        Set<String> handles = new LinkedHashSet<>(driver.getWindowHandles());
+        windows.keySet().retainAll(handles);
+        for (String handle : handles) {
+            if (!windows.containsKey(handle)) {
+                windows.put(handle, new WindowInfo());
+            }
+        }
+        currentHandle = null;
+        return handles;
+    }
+
+    /**
+     * @return Handle of the window the driver is in, or null if that window was closed
+     */
+    public synchronized String getCurrentHandle() {
+        if (currentHandle == null) {
+            try {
+                currentHandle = driver.getWindowHandle();
+            } catch (NoSuchWindowException e) {
+                return null;
+            }
+        }
+        return currentHandle;
+    }
+
+    /**
+     * Switch to the window unless the driver is already in it
+     *
+     * @param handle handle of window
+     */
+    public synchronized void switchTo(String handle) {
+        if (handle.equals(currentHandle)) {
+            return;
+        }
+        driver.switchTo().window(handle);
+        switchCount++;
+        currentHandle = handle;
+        ElementHandleCache.getCache(driver).clear();
+        FrameContext.getFrameContext(driver).reset();
+        NetworkActivity.installInterceptor(driver);
+    }
+
+    /**
+     * Switch to the first open window other than @param handle
+     *
+     * @return Handle of the window switched to, or null if there is no other window
+     */
+    public synchronized String switchToOtherThan(String handle) {
+        refresh();
+        String current = getCurrentHandle();
+        if (current != null && !current.equals(handle)) {
+            return current;
+        }
+        for (String other : windows.keySet()) {
+            if (!other.equals(handle)) {
+                switchTo(other);
+                return other;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Switch to the window whose title equals @param title. When no window matches the driver goes back to the window it was in.
+     *
+     * @return True if a window matched
+     */
+    public synchronized boolean switchToTitle(String title) {
+        return switchToMatching(title, false);
+    }
+
+    /**
+     * Switch to the window whose URL contains @param urlPart. When no window matches the driver goes back to the window it was in.
+     *
+     * @return True if a window matched
+     */
+    public synchronized boolean switchToUrl(String urlPart) {
+        return switchToMatching(urlPart, true);
+    }
+
+    private boolean switchToMatching(String expected, boolean byUrl) {
+        refresh();
+        String original = getCurrentHandle();
+        if (original != null && matches(original, expected, byUrl)) {
+            return true;
+        }
+        // Windows cached as matching first, then never read, then the rest
+        List<String> candidates = new ArrayList<>();
+        List<String> unknown = new ArrayList<>();
+        List<String> others = new ArrayList<>();
+        for (Map.Entry<String, WindowInfo> window : windows.entrySet()) {
+            if (window.getKey().equals(original)) {
+                continue;
+            }
+            String cached = byUrl ? window.getValue().url : window.getValue().title;
+            if (cached == null) {
+                unknown.add(window.getKey());
+            } else if (byUrl ? cached.contains(expected) : cached.equals(expected)) {
+                candidates.add(window.getKey());
+            } else {
+                others.add(window.getKey());
+            }
+        }
+        candidates.addAll(unknown);
+        candidates.addAll(others);
+        for (String candidate : candidates) {
+            switchTo(candidate);
+            if (matches(candidate, expected, byUrl)) {
+                return true;
+            }
+        }
+        if (original != null) {
+            switchTo(original);
+        }
+        return false;
+    }
+
+    /**
+     * Read the title or URL of the current window, which is @param handle, and update its cache entry
+     */
+    private boolean matches(String handle, String expected, boolean byUrl) {
+        WindowInfo info = windows.get(handle);
+        if (info == null) {
+            info = new WindowInfo();
+            windows.put(handle, info);
+        }
+        if (byUrl) {
+            info.url = driver.getCurrentUrl();
+            return info.url.contains(expected);
+        }
+        info.title = driver.getTitle();
+        return info.title.equals(expected);
+    }
+
+    /**
+     * Close every window except @param keepHandle and switch to it. The current window is closed first without switching.
+     *
+     * @return Number of windows closed
+     */
+    public synchronized int closeAllExcept(String keepHandle) {
+        refresh();
+        int closed = 0;
+        String current = getCurrentHandle();
+        if (current != null && !current.equals(keepHandle)) {
+            closeCurrent();
+            closed++;
+        }
+        for (String handle : new ArrayList<>(windows.keySet())) {
+            if (!handle.equals(keepHandle)) {
+                switchTo(handle);
+                closeCurrent();
+                closed++;
+            }
+        }
+        switchTo(keepHandle);
+        return closed;
+    }
+
+    private void closeCurrent() {
+        driver.close();
+        FrameContext.getFrameContext(driver).reset();
+        windows.remove(currentHandle);
+        currentHandle = null;
+    }
+
+    /**
+     * Run @param action in window @param handle and go back to the current window afterwards, also when the action fails
+     *
+     * @return The value returned by @param action
+     */
+    public synchronized <T> T withWindow(String handle, Supplier<T> action) {
+        refresh();
+        String original = getCurrentHandle();
+        switchTo(handle);
+        try {
+            return action.get();
+        } finally {
+            if (original != null && windows.containsKey(original)) {
+                switchTo(original);
+            }
+        }
+    }
+
+    public synchronized long getSwitchCount() {
+        return switchCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("WindowRegistry[windows=%d current=%s switches=%d]", windows.size(), currentHandle, switchCount);
+    }
+
+    /**
+     * Title and URL last read from a window, null until read
+     */
+    private static final class WindowInfo {
+        private String title;
+        private String url;
+    }
+}
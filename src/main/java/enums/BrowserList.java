@@ -1,5 +1,5 @@
 package enums;
 
 public enum BrowserList {
-    CHROME, EDGE, FIREFOX;
+    CHROME, EDGE, FIREFOX, FAKE;
 }
@@ -0,0 +1,5 @@
+package enums;
+
+public enum LocatorType {
+    ID, CLASS, NAME, CSS, XPATH;
+}
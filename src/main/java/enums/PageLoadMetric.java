@@ -0,0 +1,5 @@
+package enums;
+
+public enum PageLoadMetric {
+    TTFB, DOM_CONTENT_LOADED, LOAD, FIRST_PAINT, FIRST_CONTENTFUL_PAINT, LARGEST_CONTENTFUL_PAINT, LONG_TASK_COUNT, TOTAL_BLOCKING_TIME;
+}
@@ -0,0 +1,5 @@
+package enums;
+
+public enum ResourceType {
+    IMAGE, BACKGROUND_IMAGE, SCRIPT, STYLESHEET;
+}
@@ -4,7 +4,8 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
+import enums.BrowserList;
+import utilities.BrowserLogCapture;
 
 public class ChromeDriverManager implements BrowserFactory{
 
@@ -12,7 +13,8 @@ public class ChromeDriverManager implements BrowserFactory{
     public WebDriver getBrowserDriver() {
         ChromeOptions options = new ChromeOptions();
         options.addArguments("--incognito");
-        return WebDriverManager.chromedriver().capabilities(options).create();
+        BrowserLogCapture.addLoggingPreferences(options);
+        return DriverBinaryResolver.create(BrowserList.CHROME, () -> new ChromeDriver(options));
     }
 
 
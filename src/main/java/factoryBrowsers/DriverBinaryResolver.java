@@ -0,0 +1,240 @@
+package factoryBrowsers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+
+import commons.GlobalConstants;
+import enums.BrowserList;
+import io.github.bonigarcia.wdm.WebDriverManager;
+
+/**
+ * Path of the driver binary of each browser, resolved once per JVM and shared by every thread, then set as the webdriver.*.driver system property the
+ * Selenium drivers read. Resolution order: a binary already set with the system property, the resolution cache file while it is fresh, then WebDriverManager,
+ * whose result is written to the cache for the next runs. In offline mode (-DdriverOffline=true) WebDriverManager is never called: the binary comes from the
+ * system property, the cache whatever its age, or the pre-provisioned driverBinaries folder.
+ * <p>
+ * A resolution runs under a lock of its browser, outside of the resolutions map: browsers resolve in parallel, and the slow WebDriverManager download never
+ * blocks the map or the cache file of the other browsers.
+ */
+public class DriverBinaryResolver {
+    private static final Map<BrowserList, Resolution> resolutions = new ConcurrentHashMap<>();
+    private static final Map<BrowserList, Object> locks = new ConcurrentHashMap<>();
+    private static final Object cacheFileLock = new Object();
+
+    private DriverBinaryResolver() {
+    }
+
+    /**
+     * @param browser browser to resolve the driver of
+     * @return Path of the driver binary, also set as its system property
+     */
+    public static String resolve(BrowserList browser) {
+        Resolution resolution = resolutions.get(browser);
+        if (resolution == null) {
+            synchronized (getLock(browser)) {
+                resolution = resolutions.get(browser);
+                if (resolution == null) {
+                    resolution = resolveOnce(browser);
+                    Resolution existing = resolutions.putIfAbsent(browser, resolution);
+                    if (existing != null) {
+                        resolution = existing;
+                    }
+                }
+            }
+        }
+        return resolution.path;
+    }
+
+    /**
+     * Create a session with the resolved driver. A session refused with a cached driver (the browser was updated since) resolves the driver again with
+     * WebDriverManager and retries once.
+     *
+     * @param browser browser of the session
+     * @param factory creates the session once the driver is resolved
+     * @return The new session
+     */
+    public static WebDriver create(BrowserList browser, Supplier<WebDriver> factory) {
+        resolve(browser);
+        try {
+            return factory.get();
+        } catch (SessionNotCreatedException e) {
+            Resolution failed = resolutions.get(browser);
+            if (failed == null || !"cache".equals(failed.source) || GlobalConstants.getGlobalConstants().isDriverOffline()) {
+                throw e;
+            }
+            synchronized (getLock(browser)) {
+                if (resolutions.get(browser) == failed) {
+                    System.clearProperty(getSystemProperty(browser));
+                    resolutions.replace(browser, failed, resolveOnline(browser, System.nanoTime()));
+                }
+            }
+            return factory.get();
+        }
+    }
+
+    /**
+     * @return Time each resolution took in milliseconds and where the binary came from, by browser
+     */
+    public static Map<BrowserList, String> getResolutionTimes() {
+        Map<BrowserList, String> times = new LinkedHashMap<>();
+        for (Map.Entry<BrowserList, Resolution> entry : resolutions.entrySet()) {
+            times.put(entry.getKey(), String.format("%.1f ms (%s)", entry.getValue().nanos / 1_000_000.0, entry.getValue().source));
+        }
+        return Collections.unmodifiableMap(times);
+    }
+
+    private static Object getLock(BrowserList browser) {
+        return locks.computeIfAbsent(browser, key -> new Object());
+    }
+
+    private static Resolution resolveOnce(BrowserList browser) {
+        long start = System.nanoTime();
+        GlobalConstants constants = GlobalConstants.getGlobalConstants();
+        String property = getSystemProperty(browser);
+        String provisioned = System.getProperty(property);
+        if (provisioned != null && new File(provisioned).isFile()) {
+            return report(browser, new Resolution(provisioned, "system property", System.nanoTime() - start));
+        }
+        Properties cache = loadCache();
+        String cachedPath = cache.getProperty(browser + ".path");
+        long resolvedAt = Long.parseLong(cache.getProperty(browser + ".resolvedAt", "0"));
+        boolean fresh = System.currentTimeMillis() - resolvedAt < TimeUnit.HOURS.toMillis(constants.getDriverBinaryCacheTtlInHours());
+        if (cachedPath != null && new File(cachedPath).isFile() && (fresh || constants.isDriverOffline())) {
+            System.setProperty(property, cachedPath);
+            return report(browser, new Resolution(cachedPath, "cache", System.nanoTime() - start));
+        }
+        if (constants.isDriverOffline()) {
+            File binary = new File(constants.getDriverBinaryFolder(), getBinaryName(browser));
+            if (!binary.isFile()) {
+                throw new RuntimeException("Offline mode: no " + getBinaryName(browser) + " in " + constants.getDriverBinaryFolder() + " and no -D" + property);
+            }
+            System.setProperty(property, binary.getAbsolutePath());
+            return report(browser, new Resolution(binary.getAbsolutePath(), "provisioned", System.nanoTime() - start));
+        }
+        return resolveOnline(browser, start);
+    }
+
+    private static Resolution resolveOnline(BrowserList browser, long start) {
+        WebDriverManager manager = getManager(browser);
+        manager.setup();
+        String path = manager.getDownloadedDriverPath();
+        saveToCache(browser, path, manager.getDownloadedDriverVersion());
+        return report(browser, new Resolution(path, "WebDriverManager", System.nanoTime() - start));
+    }
+
+    private static Resolution report(BrowserList browser, Resolution resolution) {
+        System.out.println(String.format("Driver of %s resolved in %.1f ms from %s: %s", browser, resolution.nanos / 1_000_000.0, resolution.source,
+                resolution.path));
+        return resolution;
+    }
+
+    private static WebDriverManager getManager(BrowserList browser) {
+        switch (browser) {
+            case CHROME:
+                return WebDriverManager.chromedriver();
+            case FIREFOX:
+                return WebDriverManager.firefoxdriver();
+            case EDGE:
+                return WebDriverManager.edgedriver();
+            default:
+                throw new BrowserNotSupportException(browser.name());
+        }
+    }
+
+    private static String getSystemProperty(BrowserList browser) {
+        switch (browser) {
+            case CHROME:
+                return "webdriver.chrome.driver";
+            case FIREFOX:
+                return "webdriver.gecko.driver";
+            case EDGE:
+                return "webdriver.edge.driver";
+            default:
+                throw new BrowserNotSupportException(browser.name());
+        }
+    }
+
+    private static String getBinaryName(BrowserList browser) {
+        String suffix = System.getProperty("os.name").toLowerCase().contains("window") ? ".exe" : "";
+        switch (browser) {
+            case CHROME:
+                return "chromedriver" + suffix;
+            case FIREFOX:
+                return "geckodriver" + suffix;
+            case EDGE:
+                return "msedgedriver" + suffix;
+            default:
+                throw new BrowserNotSupportException(browser.name());
+        }
+    }
+
+    private static File getCacheFile() {
+        return new File(GlobalConstants.getGlobalConstants().getDriverBinaryCache());
+    }
+
+    private static Properties loadCache() {
+        Properties cache = new Properties();
+        File cacheFile = getCacheFile();
+        if (cacheFile.isFile()) {
+            try (Reader reader = Files.newBufferedReader(cacheFile.toPath(), StandardCharsets.UTF_8)) {
+                cache.load(reader);
+            } catch (IOException | IllegalArgumentException e) {
+                e.printStackTrace();
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Add one resolution to the cache file. Other runs may write it at the same time: the file is replaced in one move and the last writer wins.
+     */
+    private static void saveToCache(BrowserList browser, String path, String version) {
+        if (path == null) {
+            return;
+        }
+        synchronized (cacheFileLock) {
+            Properties cache = loadCache();
+            cache.setProperty(browser + ".path", path);
+            cache.setProperty(browser + ".version", version == null ? "" : version);
+            cache.setProperty(browser + ".resolvedAt", String.valueOf(System.currentTimeMillis()));
+            File cacheFile = getCacheFile();
+            try {
+                Files.createDirectories(cacheFile.getAbsoluteFile().getParentFile().toPath());
+                File temporaryFile = new File(cacheFile.getAbsolutePath() + ".tmp");
+                try (Writer writer = Files.newBufferedWriter(temporaryFile.toPath(), StandardCharsets.UTF_8)) {
+                    cache.store(writer, "Driver binaries resolved by WebDriverManager");
+                }
+                Files.move(temporaryFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static final class Resolution {
+        private final String path;
+        private final String source;
+        private final long nanos;
+
+        private Resolution(String path, String source, long nanos) {
+            this.path = path;
+            this.source = source;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -4,15 +4,16 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
+import enums.BrowserList;
+import utilities.BrowserLogCapture;
 
 public class EdgeDriverManager implements BrowserFactory {
 
     @Override
     public WebDriver getBrowserDriver() {
-        WebDriverManager.edgedriver().setup();
         EdgeOptions options = new EdgeOptions();
-        return new EdgeDriver(options);
+        BrowserLogCapture.addLoggingPreferences(options);
+        return DriverBinaryResolver.create(BrowserList.EDGE, () -> new EdgeDriver(options));
     }
 
 }
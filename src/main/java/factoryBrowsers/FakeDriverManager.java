@@ -0,0 +1,18 @@
+package factoryBrowsers;
+
+import org.openqa.selenium.WebDriver;
+
+import commons.GlobalConstants;
+import fakeBrowser.FakeDriver;
+
+/**
+ * In-process browser without rendering, to run page logic and count remote calls without a real browser (-Dbrowser=fake, -DfakeBrowserLatency=ms)
+ */
+public class FakeDriverManager implements BrowserFactory {
+
+    @Override
+    public WebDriver getBrowserDriver() {
+        return new FakeDriver().setLatency(GlobalConstants.getGlobalConstants().getFakeBrowserLatencyInMillis());
+    }
+
+}
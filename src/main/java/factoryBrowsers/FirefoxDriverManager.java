@@ -4,7 +4,7 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
+import enums.BrowserList;
 
 public class FirefoxDriverManager implements BrowserFactory {
 
@@ -12,7 +12,7 @@ public class FirefoxDriverManager implements BrowserFactory {
     public WebDriver getBrowserDriver() {
 //        FirefoxOptions options = new FirefoxOptions();
 //        options.addArguments("-private");
-        return WebDriverManager.firefoxdriver().create();
+        return DriverBinaryResolver.create(BrowserList.FIREFOX, FirefoxDriver::new);
     }
 
 }
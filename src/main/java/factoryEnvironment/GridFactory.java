@@ -11,7 +11,7 @@ import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.remote.DesiredCapabilities;
 import org.openqa.selenium.remote.RemoteWebDriver;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
+import utilities.BrowserLogCapture;
 
 public class GridFactory {
     private WebDriver driver;
@@ -29,25 +29,24 @@ public class GridFactory {
         BrowserList browser = BrowserList.valueOf(browserName.toUpperCase());
         DesiredCapabilities capability = null;
         if (browser == BrowserList.FIREFOX) {
-            WebDriverManager.firefoxdriver().setup();
             capability = DesiredCapabilities.firefox();
             capability.setBrowserName("firefox");
             capability.setPlatform(Platform.ANY);
             FirefoxOptions options = new FirefoxOptions();
             options.merge(capability);
         } else if (browser == BrowserList.CHROME) {
-            WebDriverManager.chromedriver().setup();
             capability = DesiredCapabilities.chrome();
             capability.setBrowserName("chrome");
             capability.setPlatform(Platform.ANY);
             ChromeOptions options = new ChromeOptions();
             options.merge(capability);
+            BrowserLogCapture.addLoggingPreferences(capability);
         } else if (browser == BrowserList.EDGE) {
-            WebDriverManager.edgedriver().setup();
             capability = DesiredCapabilities.edge();
             capability.setBrowserName("edge");
             capability.setPlatform(Platform.ANY);
             capability.setJavascriptEnabled(true);
+            BrowserLogCapture.addLoggingPreferences(capability);
         } else {
             throw new RuntimeException("Please input correct the browser name");
         }
@@ -6,6 +6,7 @@ import org.openqa.selenium.WebDriver;
 import factoryBrowsers.BrowserNotSupportException;
 import factoryBrowsers.ChromeDriverManager;
 import factoryBrowsers.EdgeDriverManager;
+import factoryBrowsers.FakeDriverManager;
 import factoryBrowsers.FirefoxDriverManager;
 
 public class LocalFactory {
@@ -31,6 +32,9 @@ public class LocalFactory {
             case EDGE:
                 driver= new EdgeDriverManager().getBrowserDriver();
                 break;
+            case FAKE:
+                driver= new FakeDriverManager().getBrowserDriver();
+                break;
             default:
                 throw new BrowserNotSupportException(browserName);
         }
@@ -0,0 +1,330 @@
+package fakeBrowser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.openqa.selenium.InvalidSelectorException;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * CSS selector subset for the fake browser: selector lists, descendant/child/adjacent/sibling combinators, type, universal, #id, .class, attribute selectors
+ * (=, ~=, |=, ^=, $=, *=) and the :first-child, :last-child, :nth-child(n), :checked, :disabled and :enabled pseudo-classes.
+ */
+final class CssSelector {
+    private final List<List<Compound>> selectors;
+
+    private CssSelector(List<List<Compound>> selectors) {
+        this.selectors = selectors;
+    }
+
+    static CssSelector compile(String selector) {
+        List<List<Compound>> selectors = new ArrayList<>();
+        for (String part : splitList(selector)) {
+            selectors.add(new Parser(part.trim(), selector).parseComplex());
+        }
+        return new CssSelector(selectors);
+    }
+
+    boolean matches(Element element) {
+        for (List<Compound> complex : selectors) {
+            if (matches(element, complex, complex.size() - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(Element element, List<Compound> complex, int index) {
+        Compound compound = complex.get(index);
+        if (!compound.matches(element)) {
+            return false;
+        }
+        if (index == 0) {
+            return true;
+        }
+        switch (compound.combinator) {
+            case '>':
+                Element parent = getParent(element);
+                return parent != null && matches(parent, complex, index - 1);
+            case '+':
+                Element previous = getPreviousSibling(element);
+                return previous != null && matches(previous, complex, index - 1);
+            case '~':
+                for (Element sibling = getPreviousSibling(element); sibling != null; sibling = getPreviousSibling(sibling)) {
+                    if (matches(sibling, complex, index - 1)) {
+                        return true;
+                    }
+                }
+                return false;
+            default:
+                for (Element ancestor = getParent(element); ancestor != null; ancestor = getParent(ancestor)) {
+                    if (matches(ancestor, complex, index - 1)) {
+                        return true;
+                    }
+                }
+                return false;
+        }
+    }
+
+    private static List<String> splitList(String selector) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        char quote = 0;
+        int start = 0;
+        for (int i = 0; i < selector.length(); i++) {
+            char c = selector.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '(' || c == '[') {
+                depth++;
+            } else if (c == ')' || c == ']') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(selector.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(selector.substring(start));
+        return parts;
+    }
+
+    static Element getParent(Element element) {
+        Node parent = element.getParentNode();
+        return parent instanceof Element ? (Element) parent : null;
+    }
+
+    private static Element getPreviousSibling(Element element) {
+        for (Node node = element.getPreviousSibling(); node != null; node = node.getPreviousSibling()) {
+            if (node instanceof Element) {
+                return (Element) node;
+            }
+        }
+        return null;
+    }
+
+    private static Element getNextSibling(Element element) {
+        for (Node node = element.getNextSibling(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element) {
+                return (Element) node;
+            }
+        }
+        return null;
+    }
+
+    private static int getChildIndex(Element element) {
+        int index = 1;
+        for (Element sibling = getPreviousSibling(element); sibling != null; sibling = getPreviousSibling(sibling)) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Simple selectors that must all match one element, and the combinator linking it to the compound on its left
+     */
+    private static final class Compound {
+        private final List<SimpleSelector> simpleSelectors = new ArrayList<>();
+        private char combinator = ' ';
+
+        boolean matches(Element element) {
+            for (SimpleSelector simpleSelector : simpleSelectors) {
+                if (!simpleSelector.matches(element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private interface SimpleSelector {
+        boolean matches(Element element);
+    }
+
+    private static final class Parser {
+        private final String selector;
+        private final String fullSelector;
+        private int position;
+
+        private Parser(String selector, String fullSelector) {
+            this.selector = selector;
+            this.fullSelector = fullSelector;
+        }
+
+        List<Compound> parseComplex() {
+            List<Compound> complex = new ArrayList<>();
+            char combinator = ' ';
+            while (true) {
+                skipWhitespace();
+                if (position >= selector.length()) {
+                    break;
+                }
+                char c = selector.charAt(position);
+                if (c == '>' || c == '+' || c == '~') {
+                    if (complex.isEmpty()) {
+                        throw invalid();
+                    }
+                    combinator = c;
+                    position++;
+                    continue;
+                }
+                Compound compound = parseCompound();
+                compound.combinator = combinator;
+                complex.add(compound);
+                combinator = ' ';
+            }
+            if (complex.isEmpty() || combinator != ' ') {
+                throw invalid();
+            }
+            return complex;
+        }
+
+        private Compound parseCompound() {
+            Compound compound = new Compound();
+            boolean universal = selector.charAt(position) == '*';
+            if (universal) {
+                position++;
+            } else if (isNameCharacter(selector.charAt(position))) {
+                String tagName = readName().toLowerCase(Locale.ROOT);
+                compound.simpleSelectors.add(element -> element.getTagName().equals(tagName));
+            }
+            while (position < selector.length()) {
+                char c = selector.charAt(position);
+                if (c == '#') {
+                    position++;
+                    String id = readName();
+                    compound.simpleSelectors.add(element -> element.getAttribute("id").equals(id));
+                } else if (c == '.') {
+                    position++;
+                    String className = readName();
+                    compound.simpleSelectors.add(element -> hasClass(element, className));
+                } else if (c == '[') {
+                    compound.simpleSelectors.add(parseAttribute());
+                } else if (c == ':') {
+                    compound.simpleSelectors.add(parsePseudoClass());
+                } else {
+                    break;
+                }
+            }
+            if (compound.simpleSelectors.isEmpty() && !universal) {
+                throw invalid();
+            }
+            return compound;
+        }
+
+        private SimpleSelector parseAttribute() {
+            int end = selector.indexOf(']', position);
+            if (end < 0) {
+                throw invalid();
+            }
+            String content = selector.substring(position + 1, end).trim();
+            position = end + 1;
+            int equals = content.indexOf('=');
+            if (equals < 0) {
+                String name = content.toLowerCase(Locale.ROOT);
+                return element -> element.hasAttribute(name);
+            }
+            char operator = equals > 0 && "~|^$*".indexOf(content.charAt(equals - 1)) >= 0 ? content.charAt(equals - 1) : '=';
+            String name = content.substring(0, operator == '=' ? equals : equals - 1).trim().toLowerCase(Locale.ROOT);
+            String value = content.substring(equals + 1).trim();
+            if (value.length() >= 2 && (value.charAt(0) == '"' || value.charAt(0) == '\'') && value.charAt(value.length() - 1) == value.charAt(0)) {
+                value = value.substring(1, value.length() - 1);
+            }
+            String expected = value;
+            return element -> {
+                if (!element.hasAttribute(name)) {
+                    return false;
+                }
+                String actual = element.getAttribute(name);
+                switch (operator) {
+                    case '~':
+                        return (" " + actual.trim().replaceAll("\\s+", " ") + " ").contains(" " + expected + " ");
+                    case '|':
+                        return actual.equals(expected) || actual.startsWith(expected + "-");
+                    case '^':
+                        return !expected.isEmpty() && actual.startsWith(expected);
+                    case '$':
+                        return !expected.isEmpty() && actual.endsWith(expected);
+                    case '*':
+                        return !expected.isEmpty() && actual.contains(expected);
+                    default:
+                        return actual.equals(expected);
+                }
+            };
+        }
+
+        private SimpleSelector parsePseudoClass() {
+            position++;
+            String name = readName().toLowerCase(Locale.ROOT);
+            switch (name) {
+                case "first-child":
+                    return element -> getPreviousSibling(element) == null;
+                case "last-child":
+                    return element -> getNextSibling(element) == null;
+                case "checked":
+                    return element -> element.hasAttribute("checked") || element.hasAttribute("selected");
+                case "disabled":
+                    return element -> element.hasAttribute("disabled");
+                case "enabled":
+                    return element -> !element.hasAttribute("disabled");
+                case "nth-child":
+                    int end = selector.indexOf(')', position);
+                    if (position >= selector.length() || selector.charAt(position) != '(' || end < 0) {
+                        throw invalid();
+                    }
+                    int index;
+                    try {
+                        index = Integer.parseInt(selector.substring(position + 1, end).trim());
+                    } catch (NumberFormatException e) {
+                        throw invalid();
+                    }
+                    position = end + 1;
+                    return element -> getChildIndex(element) == index;
+                default:
+                    throw invalid();
+            }
+        }
+
+        private String readName() {
+            int start = position;
+            while (position < selector.length() && isNameCharacter(selector.charAt(position))) {
+                if (selector.charAt(position) == '\\') {
+                    position++;
+                }
+                position++;
+            }
+            if (start == position) {
+                throw invalid();
+            }
+            return selector.substring(start, Math.min(position, selector.length())).replace("\\", "");
+        }
+
+        private void skipWhitespace() {
+            while (position < selector.length() && Character.isWhitespace(selector.charAt(position))) {
+                position++;
+            }
+        }
+
+        private static boolean isNameCharacter(char c) {
+            return Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '\\' || c > 127;
+        }
+
+        private InvalidSelectorException invalid() {
+            return new InvalidSelectorException("Unsupported css selector: " + fullSelector);
+        }
+    }
+
+    static boolean hasClass(Element element, String className) {
+        for (String value : element.getAttribute("class").trim().split("\\s+")) {
+            if (value.equals(className)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,191 @@
+package fakeBrowser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.WebElement;
+import org.w3c.dom.Element;
+
+import commons.BrowserScripts;
+import commons.LocatorCache;
+
+/**
+ * Java implementations of the scripts BasePage, WaitEngine, HighlightDecorator and ScreenshotPipeline send to the browser, so page objects run unchanged on
+ * {@link FakeDriver}. Lookups done inside a script are not counted as commands, like in a real browser.
+ */
+final class DefaultScriptResponders {
+    private static final Pattern REMOVE_ATTRIBUTE = Pattern.compile("arguments\\[0\\]\\.removeAttribute\\('([^']*)'\\);");
+
+    private DefaultScriptResponders() {
+    }
+
+    static void register(FakeDriver driver) {
+        driver.addScriptResponder(script -> script.contains("originalStyle"), (fake, args) -> null);
+        driver.addScriptResponder("return document.readyState", (fake, args) -> "complete");
+        driver.addScriptResponder("return jQuery.active", (fake, args) -> 0L);
+        driver.addScriptResponder("window.scrollBy(0,document.body.scrollHeight)", (fake, args) -> null);
+        driver.addScriptResponder("arguments[0].scrollIntoView(true);", (fake, args) -> null);
+        driver.addScriptResponder("arguments[0].click();", (fake, args) -> {
+            fake.clickElement(getElement(args[0]));
+            return null;
+        });
+        driver.addScriptResponder(script -> REMOVE_ATTRIBUTE.matcher(script).matches(), (fake, args) -> {
+            Matcher matcher = REMOVE_ATTRIBUTE.matcher(fake.getCurrentScript());
+            if (matcher.matches()) {
+                getElement(args[0]).removeAttribute(matcher.group(1).toLowerCase());
+                fake.markDomChanged();
+            }
+            return null;
+        });
+        driver.addScriptResponder("return arguments[0].validationMessage;", (fake, args) -> {
+            Element element = getElement(args[0]);
+            boolean missing = element.hasAttribute("required") && new FakeElement(fake, element).getValue().isEmpty();
+            return missing ? "Please fill out this field." : "";
+        });
+        driver.addScriptResponder(script -> script.startsWith("return arguments[0].complete && typeof arguments[0].naturalWidth"),
+                (fake, args) -> !getElement(args[0]).getAttribute("src").trim().isEmpty());
+        driver.addScriptResponder(BrowserScripts.VIEWPORT_RECT, (fake, args) -> Arrays.<Object>asList(0L, 0L, (long) fake.getWindowSize().getWidth(),
+                (long) fake.getWindowSize().getHeight(), 1L));
+        driver.addScriptResponder(BrowserScripts.DOM_QUIET_TIME, (fake, args) -> {
+            if (!fake.observeDocument(fake.getDocument())) {
+                return 0L;
+            }
+            return Math.max(0L, System.currentTimeMillis() - fake.getLastDomChangeInMillis());
+        });
+        driver.addScriptResponder(BrowserScripts.NETWORK_INTERCEPTOR, (fake, args) -> null);
+        driver.addScriptResponder(BrowserScripts.NETWORK_STATE, (fake, args) -> {
+            Map<String, Object> state = new HashMap<>();
+            state.put("inFlight", 0L);
+            state.put("idleMillis", Math.max(0L, System.currentTimeMillis() - fake.getLastDomChangeInMillis()));
+            state.put("pending", new ArrayList<>());
+            return state;
+        });
+        driver.addScriptResponder(BrowserScripts.PAGE_LOAD_TIMING, (fake, args) -> {
+            // Pages load instantly and paint nothing: only the long task metrics are reported
+            Map<String, Object> metrics = new HashMap<>();
+            metrics.put("LONG_TASK_COUNT", 0L);
+            metrics.put("TOTAL_BLOCKING_TIME", 0L);
+            Map<String, Object> timing = new HashMap<>();
+            timing.put("url", fake.getUrl());
+            timing.put("navigationType", "navigate");
+            timing.put("metrics", metrics);
+            return timing;
+        });
+        driver.addScriptResponder(BrowserScripts.PAGE_RESOURCES, (fake, args) -> {
+            List<Map<String, Object>> resources = new ArrayList<>();
+            for (Element image : findElements(fake, "CSS", "img[src]")) {
+                boolean loaded = !image.getAttribute("src").trim().isEmpty();
+                resources.add(getResource("IMAGE", image.getAttribute("src"), image, loaded, loaded ? 1L : 0L));
+            }
+            for (Element script : findElements(fake, "CSS", "script[src]")) {
+                resources.add(getResource("SCRIPT", script.getAttribute("src"), script, null, 0L));
+            }
+            for (Element link : findElements(fake, "CSS", "link[rel~='stylesheet'][href]")) {
+                resources.add(getResource("STYLESHEET", link.getAttribute("href"), link, true, 0L));
+            }
+            Map<String, Object> page = new HashMap<>();
+            page.put("url", fake.getUrl());
+            page.put("resources", resources);
+            return page;
+        });
+        driver.addScriptResponder(BrowserScripts.FIND_DROPDOWN_ITEM, (fake, args) -> {
+            List<Element> items = findElements(fake, (String) args[0], (String) args[1]);
+            for (Element item : items) {
+                if (DomUtils.getVisibleText(item).trim().equals(args[2])) {
+                    return Arrays.<Object>asList((long) items.size(), item);
+                }
+            }
+            return Arrays.<Object>asList((long) items.size(), null);
+        });
+        driver.addScriptResponder(BrowserScripts.READ_ELEMENTS, (fake, args) -> {
+            String mode = (String) args[1];
+            String name = (String) args[2];
+            List<List<String>> values = new ArrayList<>();
+            for (Object locator : (List<?>) args[0]) {
+                List<?> typeAndValue = (List<?>) locator;
+                List<String> locatorValues = new ArrayList<>();
+                for (Element element : findElements(fake, (String) typeAndValue.get(0), (String) typeAndValue.get(1))) {
+                    FakeElement fakeElement = new FakeElement(fake, element);
+                    if ("text".equals(mode)) {
+                        locatorValues.add(DomUtils.getVisibleText(element).trim());
+                    } else if ("css".equals(mode)) {
+                        locatorValues.add(fakeElement.readCssValue(name));
+                    } else {
+                        locatorValues.add(fakeElement.readAttribute(name));
+                    }
+                }
+                values.add(locatorValues);
+            }
+            return values;
+        });
+        driver.addScriptResponder(BrowserScripts.FILL_FIELDS, (fake, args) -> {
+            List<Long> missing = new ArrayList<>();
+            List<?> fields = (List<?>) args[0];
+            for (int i = 0; i < fields.size(); i++) {
+                List<?> field = (List<?>) fields.get(i);
+                List<Element> elements = findElements(fake, (String) field.get(0), (String) field.get(1));
+                if (elements.isEmpty()) {
+                    missing.add((long) i);
+                    continue;
+                }
+                fake.setValue(elements.get(0), (String) field.get(2));
+                fake.setActiveElement(elements.get(0));
+                fake.markDomChanged();
+            }
+            return missing;
+        });
+    }
+
+    /**
+     * One entry of the BrowserScripts.PAGE_RESOURCES result. The fake browser downloads nothing, so there is no timing entry.
+     */
+    private static Map<String, Object> getResource(String type, String url, Element element, Boolean loaded, long naturalSize) {
+        StringBuilder description = new StringBuilder(element.getTagName().toLowerCase());
+        if (!element.getAttribute("id").isEmpty()) {
+            description.append('#').append(element.getAttribute("id"));
+        }
+        for (String className : element.getAttribute("class").trim().split("\\s+")) {
+            if (!className.isEmpty()) {
+                description.append('.').append(className);
+            }
+        }
+        Map<String, Object> resource = new HashMap<>();
+        resource.put("type", type);
+        resource.put("url", url);
+        resource.put("element", description.toString());
+        resource.put("loaded", loaded);
+        resource.put("naturalWidth", naturalSize);
+        resource.put("naturalHeight", naturalSize);
+        resource.put("durationMillis", -1L);
+        resource.put("transferSize", -1L);
+        resource.put("encodedBodySize", -1L);
+        resource.put("responseStatus", -1L);
+        return resource;
+    }
+
+    /**
+     * Resolve a locator the way BrowserScripts.FIND_ELEMENTS does, without counting a command
+     */
+    private static List<Element> findElements(FakeDriver driver, String type, String value) {
+        By by = LocatorCache.getLocatorCache().getBy(type + "=" + value);
+        List<Element> elements = new ArrayList<>();
+        for (WebElement element : by.findElements(driver)) {
+            elements.add(((FakeElement) element).getDomElement());
+        }
+        return elements;
+    }
+
+    private static Element getElement(Object argument) {
+        if (!(argument instanceof FakeElement)) {
+            throw new JavascriptException("arguments[0] is not an element: " + argument);
+        }
+        return ((FakeElement) argument).getDomElement();
+    }
+}
@@ -0,0 +1,140 @@
+package fakeBrowser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Rendering rules of the fake browser: what is displayed and which text a user would see. There is no layout, only the rules that decide visibility.
+ */
+final class DomUtils {
+    private static final Set<String> NEVER_DISPLAYED = new HashSet<>(Arrays.asList("head", "script", "style", "title", "meta", "link", "template", "noscript"));
+    private static final Set<String> BLOCK_ELEMENTS = new HashSet<>(Arrays.asList("address", "article", "aside", "blockquote", "dd", "div", "dl", "dt",
+            "fieldset", "figcaption", "figure", "footer", "form", "h1", "h2", "h3", "h4", "h5", "h6", "header", "hr", "li", "main", "nav", "ol", "option", "p",
+            "pre", "section", "table", "tr", "ul"));
+
+    private DomUtils() {
+    }
+
+    /**
+     * @return All elements below the node in document order
+     */
+    static List<Element> getDescendants(Node root) {
+        List<Element> elements = new ArrayList<>();
+        addDescendants(root, elements);
+        return elements;
+    }
+
+    private static void addDescendants(Node node, List<Element> elements) {
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                elements.add((Element) child);
+                addDescendants(child, elements);
+            }
+        }
+    }
+
+    static boolean isDisplayed(Element element) {
+        if ("input".equals(element.getTagName()) && "hidden".equalsIgnoreCase(element.getAttribute("type"))) {
+            return false;
+        }
+        for (Element current = element; current != null; current = CssSelector.getParent(current)) {
+            if (NEVER_DISPLAYED.contains(current.getTagName()) || current.hasAttribute("hidden")) {
+                return false;
+            }
+            String display = getStyle(current, "display");
+            String visibility = getStyle(current, "visibility");
+            if ("none".equals(display) || (current == element && ("hidden".equals(visibility) || "collapse".equals(visibility)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The value of a property of the inline style attribute in lower case, or null
+     */
+    static String getStyle(Element element, String property) {
+        String style = element.getAttribute("style");
+        if (style.isEmpty()) {
+            return null;
+        }
+        String value = null;
+        for (String declaration : style.split(";")) {
+            int colon = declaration.indexOf(':');
+            if (colon > 0 && declaration.substring(0, colon).trim().equalsIgnoreCase(property)) {
+                value = declaration.substring(colon + 1).replace("!important", "").trim().toLowerCase(Locale.ROOT);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return The rendered text of the element like innerText: hidden descendants skipped, white space collapsed, block elements on their own line
+     */
+    static String getVisibleText(Element element) {
+        if (!isDisplayed(element)) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        appendVisibleText(element, text);
+        StringBuilder result = new StringBuilder();
+        for (String line : text.toString().split("\n")) {
+            String trimmed = line.replaceAll("[ \\t\\r\\f]+", " ").trim();
+            if (!trimmed.isEmpty()) {
+                if (result.length() > 0) {
+                    result.append('\n');
+                }
+                result.append(trimmed);
+            }
+        }
+        return result.toString();
+    }
+
+    private static void appendVisibleText(Node node, StringBuilder text) {
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.TEXT_NODE) {
+                text.append(child.getNodeValue().replaceAll("\\s+", " "));
+            } else if (child instanceof Element) {
+                Element element = (Element) child;
+                String tagName = element.getTagName();
+                if (NEVER_DISPLAYED.contains(tagName) || element.hasAttribute("hidden") || "none".equals(getStyle(element, "display"))) {
+                    continue;
+                }
+                if ("br".equals(tagName)) {
+                    text.append('\n');
+                    continue;
+                }
+                boolean block = BLOCK_ELEMENTS.contains(tagName);
+                if (block) {
+                    text.append('\n');
+                }
+                if (!"hidden".equals(getStyle(element, "visibility"))) {
+                    appendVisibleText(element, text);
+                }
+                if (block) {
+                    text.append('\n');
+                } else if ("td".equals(tagName) || "th".equals(tagName)) {
+                    text.append(' ');
+                }
+            }
+        }
+    }
+
+    /**
+     * @return True if the node is still part of its document
+     */
+    static boolean isAttached(Node node) {
+        Node current = node;
+        while (current.getParentNode() != null) {
+            current = current.getParentNode();
+        }
+        return current.getNodeType() == Node.DOCUMENT_NODE;
+    }
+}
@@ -0,0 +1,1143 @@
+package fakeBrowser;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import javax.imageio.ImageIO;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.NoSuchFrameException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Interactive;
+import org.openqa.selenium.interactions.Sequence;
+import org.openqa.selenium.logging.LogEntries;
+import org.openqa.selenium.logging.Logs;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * In-process WebDriver on a lightweight HTML DOM, to run and measure BasePage logic without a browser. It supports id/class/name/css/xpath/tag/link text
+ * lookups, clicks (links, checkboxes, radios, options, submit buttons), typing, visibility from hidden/style attributes, frames, windows, alerts and the
+ * scripts BasePage sends (see {@link DefaultScriptResponders}).
+ * <p>
+ * Every command is counted and can be given an artificial latency, so the number of round trips of a page action can be measured deterministically. Pages
+ * are registered with {@link #addPage(String, String)}; {@link #schedule(long, Consumer)} changes the page after a delay to exercise waits.
+ */
+public class FakeDriver extends FakeSearchContext implements WebDriver, JavascriptExecutor, TakesScreenshot, Interactive {
+    private static final String VALUE_KEY = "fakeBrowser.value";
+    private static final String BLANK_PAGE = "about:blank";
+    private static final int MAX_UNHANDLED_SCRIPTS = 100;
+    private static byte[] blankPng;
+
+    private final Map<String, String> pages = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> commandCounts = new ConcurrentHashMap<>();
+    private final Map<String, Long> commandLatencies = new ConcurrentHashMap<>();
+    private final List<ScriptHandler> scriptHandlers = new CopyOnWriteArrayList<>();
+    private final List<ClickHandler> clickHandlers = new CopyOnWriteArrayList<>();
+    private final List<String> unhandledScripts = new CopyOnWriteArrayList<>();
+    private final PriorityQueue<ScheduledChange> scheduledChanges = new PriorityQueue<>();
+    private final Map<String, FakeWindow> windows = new LinkedHashMap<>();
+    private final Map<String, Cookie> cookies = new LinkedHashMap<>();
+    private final Map<String, XPathExpression> xpathExpressions = new HashMap<>();
+    private final Map<String, CssSelector> cssSelectors = new HashMap<>();
+    private final Set<Document> observedDocuments = Collections.newSetFromMap(new IdentityHashMap<Document, Boolean>());
+    private final Options options = new FakeOptions();
+    private volatile long defaultLatencyInMillis;
+    private volatile long lastDomChangeInMillis = System.currentTimeMillis();
+    private long implicitWaitInMillis;
+    private long scheduleSequence;
+    private int windowSequence;
+    private FakeWindow currentWindow;
+    private Element activeElement;
+    private String currentScript;
+    private String alertText;
+    private String promptText;
+    private Dimension windowSize = new Dimension(1280, 720);
+    private Point windowPosition = new Point(0, 0);
+    private boolean quit;
+
+    public FakeDriver() {
+        currentWindow = createWindow();
+        load(currentWindow, BLANK_PAGE);
+        DefaultScriptResponders.register(this);
+    }
+
+    /**
+     * @param html page shown at about:blank
+     */
+    public FakeDriver(String html) {
+        this();
+        loadHtml(html);
+    }
+
+    /**
+     * Serve @param html when the browser navigates to @param url
+     */
+    public FakeDriver addPage(String url, String html) {
+        pages.put(url, html);
+        return this;
+    }
+
+    /**
+     * Replace the page of the current window without navigating or counting a command
+     */
+    public void loadHtml(String html) {
+        FakeWindow window = getCurrentWindow();
+        window.load(window.url, html);
+        markDomChanged();
+    }
+
+    /**
+     * @return The document of the current frame, to read or change the page from a test. Call {@link #markDomChanged()} after changing it.
+     */
+    public Document getDocument() {
+        return getCurrentWindow().getDocument();
+    }
+
+    public void markDomChanged() {
+        lastDomChangeInMillis = System.currentTimeMillis();
+    }
+
+    public long getLastDomChangeInMillis() {
+        return lastDomChangeInMillis;
+    }
+
+    /**
+     * Sleep @param latencyInMillis in every command that has no latency of its own
+     */
+    public FakeDriver setLatency(long latencyInMillis) {
+        defaultLatencyInMillis = latencyInMillis;
+        return this;
+    }
+
+    /**
+     * Sleep @param latencyInMillis in every @param command, e.g. "findElement", "click" or "executeScript"
+     */
+    public FakeDriver setLatency(String command, long latencyInMillis) {
+        commandLatencies.put(command, latencyInMillis);
+        return this;
+    }
+
+    public long getCommandCount() {
+        long total = 0;
+        for (LongAdder count : commandCounts.values()) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    public long getCommandCount(String command) {
+        LongAdder count = commandCounts.get(command);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * @return Number of calls by command name, sorted by name
+     */
+    public Map<String, Long> getCommandCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> count : commandCounts.entrySet()) {
+            counts.put(count.getKey(), count.getValue().sum());
+        }
+        return counts;
+    }
+
+    public void resetCommandCounts() {
+        commandCounts.clear();
+    }
+
+    /**
+     * Answer scripts equal to @param script. Responders added later take precedence.
+     */
+    public FakeDriver addScriptResponder(String script, ScriptResponder responder) {
+        return addScriptResponder(script::equals, responder);
+    }
+
+    /**
+     * Answer scripts matching @param script. Responders added later take precedence.
+     */
+    public FakeDriver addScriptResponder(Predicate<String> script, ScriptResponder responder) {
+        scriptHandlers.add(0, new ScriptHandler(script, responder));
+        return this;
+    }
+
+    /**
+     * @return The last scripts no responder matched (they returned null)
+     */
+    public List<String> getUnhandledScripts() {
+        return new ArrayList<>(unhandledScripts);
+    }
+
+    /**
+     * Run @param handler after the default behaviour of a click on any element located by @param by
+     */
+    public FakeDriver onClick(By by, Consumer<WebElement> handler) {
+        clickHandlers.add(new ClickHandler(by, handler));
+        return this;
+    }
+
+    /**
+     * Apply @param change to the page once @param delayInMillis has passed. Changes are applied by the next command after that time, or while an implicit
+     * wait is polling.
+     */
+    public FakeDriver schedule(long delayInMillis, Consumer<FakeDriver> change) {
+        synchronized (scheduledChanges) {
+            scheduledChanges.add(new ScheduledChange(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayInMillis), scheduleSequence++, change));
+        }
+        return this;
+    }
+
+    /**
+     * Show an alert, confirm or prompt with @param text
+     */
+    public void openAlert(String text) {
+        alertText = text;
+        promptText = null;
+    }
+
+    /**
+     * @return The text typed into the last prompt, or null
+     */
+    public String getPromptText() {
+        return promptText;
+    }
+
+    /**
+     * Open a new window (like a link with target=_blank) without switching to it
+     *
+     * @return The handle of the new window
+     */
+    public String openWindow(String url) {
+        FakeWindow window = createWindow();
+        load(window, url);
+        return window.handle;
+    }
+
+    public long getImplicitWaitInMillis() {
+        return implicitWaitInMillis;
+    }
+
+    @Override
+    public void get(String url) {
+        command("get");
+        navigate(getCurrentWindow(), url);
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        command("getCurrentUrl");
+        return getCurrentWindow().url;
+    }
+
+    @Override
+    public String getTitle() {
+        command("getTitle");
+        for (Element element : DomUtils.getDescendants(getCurrentWindow().document)) {
+            if ("title".equals(element.getTagName())) {
+                return element.getTextContent().trim();
+            }
+        }
+        return "";
+    }
+
+    @Override
+    public String getPageSource() {
+        command("getPageSource");
+        try {
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.METHOD, "html");
+            StringWriter source = new StringWriter();
+            transformer.transform(new DOMSource(getDocument()), new StreamResult(source));
+            return source.toString();
+        } catch (TransformerException e) {
+            throw new WebDriverException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        command("close");
+        FakeWindow window = getCurrentWindow();
+        windows.remove(window.handle);
+        currentWindow = null;
+        if (windows.isEmpty()) {
+            quit = true;
+        }
+    }
+
+    @Override
+    public void quit() {
+        command("quit");
+        windows.clear();
+        currentWindow = null;
+        quit = true;
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        command("getWindowHandles");
+        return new LinkedHashSet<>(windows.keySet());
+    }
+
+    @Override
+    public String getWindowHandle() {
+        command("getWindowHandle");
+        return getCurrentWindow().handle;
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        return new FakeTargetLocator();
+    }
+
+    @Override
+    public Navigation navigate() {
+        return new FakeNavigation();
+    }
+
+    @Override
+    public Options manage() {
+        return options;
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        command("executeScript");
+        return runScript(script, args);
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        command("executeAsyncScript");
+        return runScript(script, args);
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        command("screenshot");
+        return target.convertFromPngBytes(getBlankPng());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void perform(Collection<Sequence> actions) {
+        command("actions");
+        for (Sequence sequence : actions) {
+            Map<String, Object> source = sequence.toJson();
+            Element pointerTarget = activeElement;
+            Element pressedOn = null;
+            for (Map<String, Object> action : (List<Map<String, Object>>) source.get("actions")) {
+                String type = String.valueOf(action.get("type"));
+                if ("pointerMove".equals(type) && action.get("origin") instanceof FakeElement) {
+                    pointerTarget = ((FakeElement) action.get("origin")).getDomElement();
+                } else if ("pointerDown".equals(type)) {
+                    pressedOn = ((Number) action.get("button")).intValue() == 0 ? pointerTarget : null;
+                } else if ("pointerUp".equals(type)) {
+                    if (pressedOn != null && pressedOn == pointerTarget && DomUtils.isDisplayed(pressedOn)) {
+                        clickElement(pressedOn);
+                    }
+                    pressedOn = null;
+                } else if ("keyDown".equals(type) && activeElement != null) {
+                    String key = String.valueOf(action.get("value"));
+                    if (!key.isEmpty() && (key.charAt(0) < Keys.NULL.charAt(0) || key.charAt(0) > 0xE05D)) {
+                        setValue(activeElement, new FakeElement(this, activeElement).getValue() + key);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void resetInputState() {
+        command("releaseActions");
+    }
+
+    @Override
+    FakeDriver getFakeDriver() {
+        return this;
+    }
+
+    @Override
+    Node getSearchRoot() {
+        return getDocument();
+    }
+
+    @Override
+    public String toString() {
+        return "FakeDriver[commands=" + getCommandCount() + "]";
+    }
+
+    /**
+     * Count a command, apply the scheduled changes that are due and sleep the configured latency
+     */
+    void command(String name) {
+        if (quit) {
+            throw new NoSuchSessionException("Session was closed by quit()");
+        }
+        commandCounts.computeIfAbsent(name, key -> new LongAdder()).increment();
+        applyDueChanges();
+        Long latency = commandLatencies.get(name);
+        long latencyInMillis = latency == null ? defaultLatencyInMillis : latency;
+        if (latencyInMillis > 0) {
+            sleep(latencyInMillis);
+        }
+    }
+
+    /**
+     * Repeat @param attempt until it returns non null or the implicit wait expires
+     */
+    <T> T withImplicitWait(Supplier<T> attempt, T fallback) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(implicitWaitInMillis);
+        while (true) {
+            applyDueChanges();
+            T result = attempt.get();
+            if (result != null) {
+                return result;
+            }
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return fallback;
+            }
+            long nextChangeNanos;
+            synchronized (scheduledChanges) {
+                nextChangeNanos = scheduledChanges.isEmpty() ? Long.MAX_VALUE : scheduledChanges.peek().dueNanos - System.nanoTime();
+            }
+            // The page only changes through scheduled changes, but tests may also change it from another thread
+            sleep(Math.max(1, TimeUnit.NANOSECONDS.toMillis(Math.min(Math.min(remainingNanos, nextChangeNanos), TimeUnit.MILLISECONDS.toNanos(50)))));
+        }
+    }
+
+    FakeElement wrap(Element element) {
+        return new FakeElement(this, element);
+    }
+
+    XPathExpression getXPathExpression(String xpath) throws XPathExpressionException {
+        synchronized (xpathExpressions) {
+            XPathExpression expression = xpathExpressions.get(xpath);
+            if (expression == null) {
+                expression = XPathFactory.newInstance().newXPath().compile(xpath);
+                xpathExpressions.put(xpath, expression);
+            }
+            return expression;
+        }
+    }
+
+    CssSelector getCssSelector(String selector) {
+        synchronized (cssSelectors) {
+            CssSelector compiled = cssSelectors.get(selector);
+            if (compiled == null) {
+                compiled = CssSelector.compile(selector);
+                cssSelectors.put(selector, compiled);
+            }
+            return compiled;
+        }
+    }
+
+    /**
+     * @return True if the document is shown in a window or one of its frames
+     */
+    boolean isLoaded(Document document) {
+        for (FakeWindow window : windows.values()) {
+            if (window.document == document || window.frameDocuments.containsValue(document)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * MutationObserver emulation: false the first time a document is observed
+     */
+    boolean observeDocument(Document document) {
+        return !observedDocuments.add(document);
+    }
+
+    /**
+     * @return The script being answered, for responders that read values from it
+     */
+    String getCurrentScript() {
+        return currentScript;
+    }
+
+    Dimension getWindowSize() {
+        return windowSize;
+    }
+
+    String getUrl() {
+        return getCurrentWindow().url;
+    }
+
+    String getValue(Element element, String defaultValue) {
+        Object value = element.getUserData(VALUE_KEY);
+        return value == null ? defaultValue : (String) value;
+    }
+
+    void setValue(Element element, String value) {
+        element.setUserData(VALUE_KEY, value, null);
+    }
+
+    void setActiveElement(Element element) {
+        activeElement = element;
+    }
+
+    /**
+     * Default action of a click, then the click handlers
+     */
+    void clickElement(Element element) {
+        activeElement = element;
+        if (!FakeElement.isDisabled(element)) {
+            String tagName = element.getTagName();
+            String type = element.getAttribute("type").toLowerCase();
+            if ("input".equals(tagName) && "checkbox".equals(type)) {
+                toggleAttribute(element, "checked", !element.hasAttribute("checked"));
+            } else if ("input".equals(tagName) && "radio".equals(type)) {
+                for (Element radio : DomUtils.getDescendants(element.getOwnerDocument())) {
+                    if ("radio".equalsIgnoreCase(radio.getAttribute("type")) && radio.getAttribute("name").equals(element.getAttribute("name"))) {
+                        radio.removeAttribute("checked");
+                    }
+                }
+                toggleAttribute(element, "checked", true);
+            } else if ("option".equals(tagName)) {
+                selectOption(element);
+            } else if (isSubmitButton(element)) {
+                for (Element current = element; current != null; current = CssSelector.getParent(current)) {
+                    if ("form".equals(current.getTagName())) {
+                        submitForm(current);
+                        break;
+                    }
+                }
+            } else {
+                followLink(element);
+            }
+        }
+        for (ClickHandler handler : clickHandlers) {
+            if (handler.by.findElements(this).contains(wrap(element))) {
+                handler.handler.accept(wrap(element));
+            }
+        }
+    }
+
+    void submitForm(Element form) {
+        markDomChanged();
+        String action = form.getAttribute("action").trim();
+        if (!action.isEmpty()) {
+            navigate(getCurrentWindow(), resolve(action));
+        }
+    }
+
+    static synchronized byte[] getBlankPng() {
+        if (blankPng == null) {
+            try {
+                BufferedImage image = new BufferedImage(64, 36, BufferedImage.TYPE_INT_RGB);
+                ByteArrayOutputStream png = new ByteArrayOutputStream();
+                ImageIO.write(image, "png", png);
+                blankPng = png.toByteArray();
+            } catch (IOException e) {
+                throw new WebDriverException(e);
+            }
+        }
+        return blankPng.clone();
+    }
+
+    private void selectOption(Element option) {
+        Element select = CssSelector.getParent(option);
+        while (select != null && !"select".equals(select.getTagName())) {
+            select = CssSelector.getParent(select);
+        }
+        if (select != null && select.hasAttribute("multiple")) {
+            toggleAttribute(option, "selected", !option.hasAttribute("selected"));
+            return;
+        }
+        if (select != null) {
+            for (Element other : DomUtils.getDescendants(select)) {
+                if ("option".equals(other.getTagName())) {
+                    other.removeAttribute("selected");
+                }
+            }
+        }
+        toggleAttribute(option, "selected", true);
+    }
+
+    private void followLink(Element element) {
+        for (Element current = element; current != null; current = CssSelector.getParent(current)) {
+            if ("a".equals(current.getTagName()) && current.hasAttribute("href")) {
+                String href = current.getAttribute("href").trim();
+                if (href.isEmpty() || href.startsWith("#") || href.startsWith("javascript:")) {
+                    return;
+                }
+                if ("_blank".equals(current.getAttribute("target"))) {
+                    openWindow(resolve(href));
+                } else {
+                    navigate(getCurrentWindow(), resolve(href));
+                }
+                return;
+            }
+        }
+    }
+
+    private static boolean isSubmitButton(Element element) {
+        String type = element.getAttribute("type").toLowerCase();
+        return ("button".equals(element.getTagName()) && (type.isEmpty() || "submit".equals(type)))
+                || ("input".equals(element.getTagName()) && ("submit".equals(type) || "image".equals(type)));
+    }
+
+    private void toggleAttribute(Element element, String name, boolean present) {
+        if (present) {
+            element.setAttribute(name, name);
+        } else {
+            element.removeAttribute(name);
+        }
+        markDomChanged();
+    }
+
+    private Object runScript(String script, Object... args) {
+        currentScript = script;
+        for (ScriptHandler handler : scriptHandlers) {
+            if (handler.script.test(script)) {
+                return toWebDriverValue(handler.responder.respond(this, args == null ? new Object[0] : args));
+            }
+        }
+        if (unhandledScripts.size() < MAX_UNHANDLED_SCRIPTS) {
+            unhandledScripts.add(script);
+        }
+        return null;
+    }
+
+    private Object toWebDriverValue(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Float) {
+            return ((Float) value).doubleValue();
+        }
+        if (value instanceof Element) {
+            return wrap((Element) value);
+        }
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                list.add(toWebDriverValue(item));
+            }
+            return list;
+        }
+        return value;
+    }
+
+    private void applyDueChanges() {
+        while (true) {
+            ScheduledChange change;
+            synchronized (scheduledChanges) {
+                change = scheduledChanges.peek();
+                if (change == null || change.dueNanos > System.nanoTime()) {
+                    return;
+                }
+                scheduledChanges.poll();
+            }
+            change.change.accept(this);
+            markDomChanged();
+        }
+    }
+
+    private FakeWindow createWindow() {
+        FakeWindow window = new FakeWindow("fake-window-" + ++windowSequence);
+        windows.put(window.handle, window);
+        return window;
+    }
+
+    private FakeWindow getCurrentWindow() {
+        if (currentWindow == null) {
+            throw new NoSuchWindowException("The current window was closed");
+        }
+        return currentWindow;
+    }
+
+    private void navigate(FakeWindow window, String url) {
+        while (window.history.size() > window.historyIndex + 1) {
+            window.history.remove(window.history.size() - 1);
+        }
+        window.history.add(url);
+        window.historyIndex = window.history.size() - 1;
+        load(window, url);
+    }
+
+    private void load(FakeWindow window, String url) {
+        if (window.history.isEmpty()) {
+            window.history.add(url);
+            window.historyIndex = 0;
+        }
+        window.load(url, getPageHtml(url));
+        activeElement = null;
+        markDomChanged();
+    }
+
+    private String getPageHtml(String url) {
+        String html = pages.get(url);
+        if (html != null) {
+            return html;
+        }
+        if (url.startsWith("data:text/html,")) {
+            try {
+                return URLDecoder.decode(url.substring("data:text/html,".length()), "UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw new WebDriverException(e);
+            }
+        }
+        return "<html><head><title></title></head><body></body></html>";
+    }
+
+    private String resolve(String url) {
+        String base = getCurrentWindow().url;
+        try {
+            return base.startsWith("about:") || base.startsWith("data:") ? url : URI.create(base).resolve(url).toString();
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    private Document getFrameDocument(FakeWindow window, Element frame) {
+        return window.frameDocuments.computeIfAbsent(frame, key -> {
+            if (key.hasAttribute("srcdoc")) {
+                return HtmlParser.parse(key.getAttribute("srcdoc"));
+            }
+            return HtmlParser.parse(getPageHtml(resolve(key.getAttribute("src"))));
+        });
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException(e);
+        }
+    }
+
+    /**
+     * One browser window: its history, its document and the documents of the frames opened in it
+     */
+    private static final class FakeWindow {
+        private final String handle;
+        private final List<String> history = new ArrayList<>();
+        private final Map<Element, Document> frameDocuments = new IdentityHashMap<>();
+        private final Deque<Document> frames = new ArrayDeque<>();
+        private int historyIndex;
+        private String url;
+        private Document document;
+
+        private FakeWindow(String handle) {
+            this.handle = handle;
+        }
+
+        private void load(String url, String html) {
+            this.url = url;
+            document = HtmlParser.parse(html);
+            frameDocuments.clear();
+            frames.clear();
+        }
+
+        private Document getDocument() {
+            return frames.isEmpty() ? document : frames.peek();
+        }
+    }
+
+    private static final class ScriptHandler {
+        private final Predicate<String> script;
+        private final ScriptResponder responder;
+
+        private ScriptHandler(Predicate<String> script, ScriptResponder responder) {
+            this.script = script;
+            this.responder = responder;
+        }
+    }
+
+    private static final class ClickHandler {
+        private final By by;
+        private final Consumer<WebElement> handler;
+
+        private ClickHandler(By by, Consumer<WebElement> handler) {
+            this.by = by;
+            this.handler = handler;
+        }
+    }
+
+    private static final class ScheduledChange implements Comparable<ScheduledChange> {
+        private final long dueNanos;
+        private final long sequence;
+        private final Consumer<FakeDriver> change;
+
+        private ScheduledChange(long dueNanos, long sequence, Consumer<FakeDriver> change) {
+            this.dueNanos = dueNanos;
+            this.sequence = sequence;
+            this.change = change;
+        }
+
+        @Override
+        public int compareTo(ScheduledChange other) {
+            int byTime = Long.compare(dueNanos, other.dueNanos);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final class FakeTargetLocator implements TargetLocator {
+
+        @Override
+        public WebDriver frame(int index) {
+            command("switchToFrame");
+            List<Element> frames = new ArrayList<>();
+            for (Element element : DomUtils.getDescendants(getDocument())) {
+                if ("iframe".equals(element.getTagName()) || "frame".equals(element.getTagName())) {
+                    frames.add(element);
+                }
+            }
+            if (index < 0 || index >= frames.size()) {
+                throw new NoSuchFrameException("No frame at index " + index);
+            }
+            return switchToFrame(frames.get(index));
+        }
+
+        @Override
+        public WebDriver frame(String nameOrId) {
+            command("switchToFrame");
+            for (Element element : DomUtils.getDescendants(getDocument())) {
+                if (("iframe".equals(element.getTagName()) || "frame".equals(element.getTagName()))
+                        && (nameOrId.equals(element.getAttribute("name")) || nameOrId.equals(element.getAttribute("id")))) {
+                    return switchToFrame(element);
+                }
+            }
+            throw new NoSuchFrameException("No frame with name or id " + nameOrId);
+        }
+
+        @Override
+        public WebDriver frame(WebElement frameElement) {
+            command("switchToFrame");
+            if (!(frameElement instanceof FakeElement)) {
+                throw new NoSuchFrameException("Not an element of this driver: " + frameElement);
+            }
+            Element element = ((FakeElement) frameElement).getDomElement();
+            if (!"iframe".equals(element.getTagName()) && !"frame".equals(element.getTagName())) {
+                throw new NoSuchFrameException("Element is not a frame: " + frameElement);
+            }
+            return switchToFrame(element);
+        }
+
+        private WebDriver switchToFrame(Element frame) {
+            FakeWindow window = getCurrentWindow();
+            window.frames.push(getFrameDocument(window, frame));
+            return FakeDriver.this;
+        }
+
+        @Override
+        public WebDriver parentFrame() {
+            command("switchToParentFrame");
+            FakeWindow window = getCurrentWindow();
+            if (!window.frames.isEmpty()) {
+                window.frames.pop();
+            }
+            return FakeDriver.this;
+        }
+
+        @Override
+        public WebDriver window(String nameOrHandle) {
+            command("switchToWindow");
+            FakeWindow window = windows.get(nameOrHandle);
+            if (window == null) {
+                throw new NoSuchWindowException("No window with handle " + nameOrHandle);
+            }
+            currentWindow = window;
+            return FakeDriver.this;
+        }
+
+        @Override
+        public WebDriver defaultContent() {
+            command("switchToFrame");
+            getCurrentWindow().frames.clear();
+            return FakeDriver.this;
+        }
+
+        @Override
+        public WebElement activeElement() {
+            command("getActiveElement");
+            if (activeElement != null && DomUtils.isAttached(activeElement) && isLoaded(activeElement.getOwnerDocument())) {
+                return wrap(activeElement);
+            }
+            for (Element element : DomUtils.getDescendants(getDocument())) {
+                if ("body".equals(element.getTagName())) {
+                    return wrap(element);
+                }
+            }
+            return wrap(getDocument().getDocumentElement());
+        }
+
+        @Override
+        public Alert alert() {
+            command("getAlertText");
+            if (alertText == null) {
+                throw new NoAlertPresentException();
+            }
+            return new FakeAlert();
+        }
+    }
+
+    private final class FakeAlert implements Alert {
+
+        @Override
+        public void dismiss() {
+            command("dismissAlert");
+            checkOpen();
+            alertText = null;
+            promptText = null;
+        }
+
+        @Override
+        public void accept() {
+            command("acceptAlert");
+            checkOpen();
+            alertText = null;
+        }
+
+        @Override
+        public String getText() {
+            command("getAlertText");
+            checkOpen();
+            return alertText;
+        }
+
+        @Override
+        public void sendKeys(String keysToSend) {
+            command("sendAlertText");
+            checkOpen();
+            promptText = keysToSend;
+        }
+
+        private void checkOpen() {
+            if (alertText == null) {
+                throw new NoAlertPresentException();
+            }
+        }
+    }
+
+    private final class FakeNavigation implements Navigation {
+
+        @Override
+        public void back() {
+            command("back");
+            FakeWindow window = getCurrentWindow();
+            if (window.historyIndex > 0) {
+                window.historyIndex--;
+                load(window, window.history.get(window.historyIndex));
+            }
+        }
+
+        @Override
+        public void forward() {
+            command("forward");
+            FakeWindow window = getCurrentWindow();
+            if (window.historyIndex < window.history.size() - 1) {
+                window.historyIndex++;
+                load(window, window.history.get(window.historyIndex));
+            }
+        }
+
+        @Override
+        public void to(String url) {
+            get(url);
+        }
+
+        @Override
+        public void to(URL url) {
+            get(url.toString());
+        }
+
+        @Override
+        public void refresh() {
+            command("refresh");
+            FakeWindow window = getCurrentWindow();
+            load(window, window.url);
+        }
+    }
+
+    private final class FakeOptions implements Options {
+
+        @Override
+        public void addCookie(Cookie cookie) {
+            command("addCookie");
+            cookies.put(cookie.getName(), cookie);
+        }
+
+        @Override
+        public void deleteCookieNamed(String name) {
+            command("deleteCookie");
+            cookies.remove(name);
+        }
+
+        @Override
+        public void deleteCookie(Cookie cookie) {
+            deleteCookieNamed(cookie.getName());
+        }
+
+        @Override
+        public void deleteAllCookies() {
+            command("deleteAllCookies");
+            cookies.clear();
+        }
+
+        @Override
+        public Set<Cookie> getCookies() {
+            command("getCookies");
+            return new LinkedHashSet<>(cookies.values());
+        }
+
+        @Override
+        public Cookie getCookieNamed(String name) {
+            command("getCookie");
+            return cookies.get(name);
+        }
+
+        @Override
+        public Timeouts timeouts() {
+            return new FakeTimeouts();
+        }
+
+        @Override
+        public ImeHandler ime() {
+            throw new UnsupportedCommandException("IME is not supported by the fake browser");
+        }
+
+        @Override
+        public Window window() {
+            return new FakeWindowOptions();
+        }
+
+        @Override
+        public Logs logs() {
+            return new Logs() {
+                @Override
+                public LogEntries get(String logType) {
+                    command("getLog");
+                    return new LogEntries(Collections.emptyList());
+                }
+
+                @Override
+                public Set<String> getAvailableLogTypes() {
+                    command("getAvailableLogTypes");
+                    return Collections.emptySet();
+                }
+            };
+        }
+    }
+
+    private final class FakeTimeouts implements Timeouts {
+
+        @Override
+        public Timeouts implicitlyWait(long time, TimeUnit unit) {
+            command("setTimeouts");
+            implicitWaitInMillis = unit.toMillis(time);
+            return this;
+        }
+
+        @Override
+        public Timeouts setScriptTimeout(long time, TimeUnit unit) {
+            command("setTimeouts");
+            return this;
+        }
+
+        @Override
+        public Timeouts pageLoadTimeout(long time, TimeUnit unit) {
+            command("setTimeouts");
+            return this;
+        }
+    }
+
+    private final class FakeWindowOptions implements Window {
+
+        @Override
+        public void setSize(Dimension targetSize) {
+            command("setWindowRect");
+            windowSize = targetSize;
+        }
+
+        @Override
+        public void setPosition(Point targetPosition) {
+            command("setWindowRect");
+            windowPosition = targetPosition;
+        }
+
+        @Override
+        public Dimension getSize() {
+            command("getWindowRect");
+            return windowSize;
+        }
+
+        @Override
+        public Point getPosition() {
+            command("getWindowRect");
+            return windowPosition;
+        }
+
+        @Override
+        public void maximize() {
+            command("maximizeWindow");
+            windowSize = new Dimension(1920, 1080);
+            windowPosition = new Point(0, 0);
+        }
+
+        @Override
+        public void fullscreen() {
+            command("fullscreenWindow");
+            windowSize = new Dimension(1920, 1080);
+            windowPosition = new Point(0, 0);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package fakeBrowser;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.InvalidElementStateException;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WrapsDriver;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * WebElement backed by an element of the fake browser's DOM. Every method is a counted command of the owning {@link FakeDriver}; the element becomes stale
+ * once it is removed from its document or the page is reloaded.
+ */
+public class FakeElement extends FakeSearchContext implements WebElement, WrapsDriver {
+    private static final Set<String> BOOLEAN_ATTRIBUTES = new HashSet<>(Arrays.asList("checked", "selected", "disabled", "readonly", "required", "multiple",
+            "hidden", "autofocus"));
+    private static final Set<String> EDITABLE_INPUT_TYPES = new HashSet<>(Arrays.asList("", "text", "password", "email", "number", "search", "tel", "url",
+            "date", "datetime-local", "month", "time", "week", "file"));
+
+    private final FakeDriver driver;
+    private final Element element;
+
+    FakeElement(FakeDriver driver, Element element) {
+        this.driver = driver;
+        this.element = element;
+    }
+
+    /**
+     * @return The DOM element, e.g. to change the page from a test or a script responder
+     */
+    public Element getDomElement() {
+        return element;
+    }
+
+    @Override
+    FakeDriver getFakeDriver() {
+        return driver;
+    }
+
+    @Override
+    Node getSearchRoot() {
+        checkAttached();
+        return element;
+    }
+
+    @Override
+    public WebDriver getWrappedDriver() {
+        return driver;
+    }
+
+    @Override
+    public void click() {
+        driver.command("click");
+        checkAttached();
+        if (!DomUtils.isDisplayed(element)) {
+            throw new ElementNotInteractableException("Element is not displayed: " + this);
+        }
+        driver.clickElement(element);
+    }
+
+    @Override
+    public void submit() {
+        driver.command("submit");
+        checkAttached();
+        for (Element current = element; current != null; current = CssSelector.getParent(current)) {
+            if ("form".equals(current.getTagName())) {
+                driver.submitForm(current);
+                return;
+            }
+        }
+        throw new WebDriverException("Element is not in a form: " + this);
+    }
+
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+        driver.command("sendKeys");
+        checkAttached();
+        if (!DomUtils.isDisplayed(element)) {
+            throw new ElementNotInteractableException("Element is not displayed: " + this);
+        }
+        checkEditable();
+        StringBuilder value = new StringBuilder(getValue());
+        for (CharSequence keys : keysToSend) {
+            for (int i = 0; i < keys.length(); i++) {
+                char key = keys.charAt(i);
+                if (key == Keys.BACK_SPACE.charAt(0)) {
+                    if (value.length() > 0) {
+                        value.setLength(value.length() - 1);
+                    }
+                } else if (key == Keys.ENTER.charAt(0) || key == Keys.RETURN.charAt(0)) {
+                    if ("textarea".equals(element.getTagName())) {
+                        value.append('\n');
+                    }
+                } else if (key < Keys.NULL.charAt(0) || key > 0xE05D) {
+                    value.append(key);
+                }
+            }
+        }
+        driver.setValue(element, value.toString());
+        driver.setActiveElement(element);
+    }
+
+    @Override
+    public void clear() {
+        driver.command("clear");
+        checkAttached();
+        checkEditable();
+        driver.setValue(element, "");
+    }
+
+    @Override
+    public String getTagName() {
+        driver.command("getTagName");
+        checkAttached();
+        return element.getTagName();
+    }
+
+    @Override
+    public String getAttribute(String name) {
+        driver.command("getAttribute");
+        checkAttached();
+        return readAttribute(name);
+    }
+
+    /**
+     * Attribute or property the way getAttribute reads it, without counting a command
+     */
+    String readAttribute(String name) {
+        String attribute = name.toLowerCase();
+        if ("value".equals(attribute) && isFormControl()) {
+            return getValue();
+        }
+        if ("selected".equals(attribute) || "checked".equals(attribute)) {
+            return isChecked() ? "true" : null;
+        }
+        if (BOOLEAN_ATTRIBUTES.contains(attribute)) {
+            return element.hasAttribute(attribute) ? "true" : null;
+        }
+        if ("innertext".equals(attribute)) {
+            return DomUtils.getVisibleText(element);
+        }
+        if ("textcontent".equals(attribute)) {
+            return element.getTextContent();
+        }
+        return element.hasAttribute(attribute) ? element.getAttribute(attribute) : null;
+    }
+
+    @Override
+    public boolean isSelected() {
+        driver.command("isSelected");
+        checkAttached();
+        return isChecked();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        driver.command("isEnabled");
+        checkAttached();
+        return !isDisabled(element);
+    }
+
+    @Override
+    public String getText() {
+        driver.command("getText");
+        checkAttached();
+        return DomUtils.getVisibleText(element);
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        driver.command("isDisplayed");
+        checkAttached();
+        return DomUtils.isDisplayed(element);
+    }
+
+    @Override
+    public Point getLocation() {
+        driver.command("getLocation");
+        return getRectangle().getPoint();
+    }
+
+    @Override
+    public Dimension getSize() {
+        driver.command("getSize");
+        return getRectangle().getDimension();
+    }
+
+    @Override
+    public Rectangle getRect() {
+        driver.command("getRect");
+        return getRectangle();
+    }
+
+    @Override
+    public String getCssValue(String propertyName) {
+        driver.command("getCssValue");
+        checkAttached();
+        return readCssValue(propertyName);
+    }
+
+    /**
+     * Css value the way getCssValue reads it, without counting a command
+     */
+    String readCssValue(String propertyName) {
+        String property = propertyName.toLowerCase();
+        String value = DomUtils.getStyle(element, property);
+        if (value != null) {
+            return value;
+        }
+        if ("display".equals(property)) {
+            return DomUtils.isDisplayed(element) ? "block" : "none";
+        }
+        if ("visibility".equals(property)) {
+            return DomUtils.isDisplayed(element) ? "visible" : "hidden";
+        }
+        return "";
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        driver.command("elementScreenshot");
+        checkAttached();
+        return target.convertFromPngBytes(FakeDriver.getBlankPng());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof FakeElement && ((FakeElement) other).element == element;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(element);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder("<").append(element.getTagName());
+        if (element.hasAttribute("id")) {
+            description.append(" id=\"").append(element.getAttribute("id")).append('"');
+        }
+        if (element.hasAttribute("name")) {
+            description.append(" name=\"").append(element.getAttribute("name")).append('"');
+        }
+        return description.append('>').toString();
+    }
+
+    private Rectangle getRectangle() {
+        checkAttached();
+        if (!DomUtils.isDisplayed(element)) {
+            return new Rectangle(0, 0, 0, 0);
+        }
+        // No layout: displayed elements are stacked in document order with a fixed size
+        int index = DomUtils.getDescendants(element.getOwnerDocument()).indexOf(element);
+        return new Rectangle(0, index * 20, 20, 100);
+    }
+
+    String getValue() {
+        if ("textarea".equals(element.getTagName())) {
+            return driver.getValue(element, element.getTextContent());
+        }
+        if ("select".equals(element.getTagName())) {
+            for (Element option : DomUtils.getDescendants(element)) {
+                if ("option".equals(option.getTagName()) && option.hasAttribute("selected")) {
+                    return getOptionValue(option);
+                }
+            }
+            return "";
+        }
+        if ("option".equals(element.getTagName())) {
+            return getOptionValue(element);
+        }
+        return driver.getValue(element, element.getAttribute("value"));
+    }
+
+    private static String getOptionValue(Element option) {
+        return option.hasAttribute("value") ? option.getAttribute("value") : option.getTextContent().trim();
+    }
+
+    private boolean isFormControl() {
+        String tagName = element.getTagName();
+        return "input".equals(tagName) || "textarea".equals(tagName) || "select".equals(tagName) || "option".equals(tagName) || "button".equals(tagName);
+    }
+
+    private boolean isChecked() {
+        return "option".equals(element.getTagName()) ? element.hasAttribute("selected") : element.hasAttribute("checked");
+    }
+
+    private void checkEditable() {
+        String tagName = element.getTagName();
+        boolean editable = "textarea".equals(tagName)
+                || ("input".equals(tagName) && EDITABLE_INPUT_TYPES.contains(element.getAttribute("type").toLowerCase()));
+        if (!editable || isDisabled(element) || element.hasAttribute("readonly")) {
+            throw new InvalidElementStateException("Element is not editable: " + this);
+        }
+    }
+
+    static boolean isDisabled(Element element) {
+        for (Element current = element; current != null; current = CssSelector.getParent(current)) {
+            if (current.hasAttribute("disabled")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkAttached() {
+        if (!DomUtils.isAttached(element) || !driver.isLoaded(element.getOwnerDocument())) {
+            throw new StaleElementReferenceException("Element is no longer attached to the DOM: " + this);
+        }
+    }
+}
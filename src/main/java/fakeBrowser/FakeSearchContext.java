@@ -0,0 +1,174 @@
+package fakeBrowser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Element lookup shared by {@link FakeDriver} (whole document of the current frame) and {@link FakeElement} (descendants of the element). By objects dispatch
+ * to the FindsBy* methods, the same way they do on RemoteWebDriver.
+ */
+@SuppressWarnings("deprecation") // FindsBy* are deprecated in Selenium 3.141 but By still dispatches to them; not imported, imports would still warn
+public abstract class FakeSearchContext implements SearchContext, org.openqa.selenium.internal.FindsById, org.openqa.selenium.internal.FindsByClassName,
+        org.openqa.selenium.internal.FindsByName, org.openqa.selenium.internal.FindsByCssSelector, org.openqa.selenium.internal.FindsByXPath,
+        org.openqa.selenium.internal.FindsByTagName, org.openqa.selenium.internal.FindsByLinkText {
+
+    abstract FakeDriver getFakeDriver();
+
+    /**
+     * @return The node lookups start from: the document of the current frame or the element
+     */
+    abstract Node getSearchRoot();
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        FakeDriver driver = getFakeDriver();
+        driver.command("findElements");
+        return driver.withImplicitWait(() -> {
+            List<WebElement> elements = by.findElements(this);
+            return elements.isEmpty() ? null : elements;
+        }, new ArrayList<>());
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        FakeDriver driver = getFakeDriver();
+        driver.command("findElement");
+        WebElement element = driver.withImplicitWait(() -> {
+            List<WebElement> elements = by.findElements(this);
+            return elements.isEmpty() ? null : elements.get(0);
+        }, null);
+        if (element == null) {
+            throw new NoSuchElementException("Unable to locate element: " + by);
+        }
+        return element;
+    }
+
+    @Override
+    public WebElement findElementById(String using) {
+        return first(findElementsById(using), "id", using);
+    }
+
+    @Override
+    public List<WebElement> findElementsById(String using) {
+        return collect(element -> element.getAttribute("id").equals(using));
+    }
+
+    @Override
+    public WebElement findElementByClassName(String using) {
+        return first(findElementsByClassName(using), "class name", using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByClassName(String using) {
+        if (using.trim().contains(" ")) {
+            throw new InvalidSelectorException("Compound class names not permitted: " + using);
+        }
+        return collect(element -> CssSelector.hasClass(element, using.trim()));
+    }
+
+    @Override
+    public WebElement findElementByName(String using) {
+        return first(findElementsByName(using), "name", using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByName(String using) {
+        return collect(element -> element.getAttribute("name").equals(using));
+    }
+
+    @Override
+    public WebElement findElementByCssSelector(String using) {
+        return first(findElementsByCssSelector(using), "css selector", using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByCssSelector(String using) {
+        CssSelector selector = getFakeDriver().getCssSelector(using);
+        return collect(selector::matches);
+    }
+
+    @Override
+    public WebElement findElementByTagName(String using) {
+        return first(findElementsByTagName(using), "tag name", using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByTagName(String using) {
+        String tagName = using.toLowerCase();
+        return collect(element -> element.getTagName().equals(tagName));
+    }
+
+    @Override
+    public WebElement findElementByLinkText(String using) {
+        return first(findElementsByLinkText(using), "link text", using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByLinkText(String using) {
+        return collect(element -> element.getTagName().equals("a") && DomUtils.getVisibleText(element).equals(using.trim()));
+    }
+
+    @Override
+    public WebElement findElementByPartialLinkText(String using) {
+        return first(findElementsByPartialLinkText(using), "partial link text", using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByPartialLinkText(String using) {
+        return collect(element -> element.getTagName().equals("a") && DomUtils.getVisibleText(element).contains(using));
+    }
+
+    @Override
+    public WebElement findElementByXPath(String using) {
+        return first(findElementsByXPath(using), "xpath", using);
+    }
+
+    @Override
+    public List<WebElement> findElementsByXPath(String using) {
+        FakeDriver driver = getFakeDriver();
+        NodeList nodes;
+        try {
+            nodes = (NodeList) driver.getXPathExpression(using).evaluate(getSearchRoot(), XPathConstants.NODESET);
+        } catch (XPathExpressionException e) {
+            throw new InvalidSelectorException("Invalid xpath: " + using, e);
+        }
+        List<WebElement> elements = new ArrayList<>();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            if (nodes.item(i) instanceof Element) {
+                elements.add(driver.wrap((Element) nodes.item(i)));
+            }
+        }
+        return elements;
+    }
+
+    private List<WebElement> collect(Predicate<Element> predicate) {
+        FakeDriver driver = getFakeDriver();
+        List<WebElement> elements = new ArrayList<>();
+        for (Element element : DomUtils.getDescendants(getSearchRoot())) {
+            if (predicate.test(element)) {
+                elements.add(driver.wrap(element));
+            }
+        }
+        return elements;
+    }
+
+    private static WebElement first(List<WebElement> elements, String strategy, String using) {
+        if (elements.isEmpty()) {
+            throw new NoSuchElementException("Unable to locate element by " + strategy + ": " + using);
+        }
+        return elements.get(0);
+    }
+}
@@ -0,0 +1,279 @@
+package fakeBrowser;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.DOMException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Lenient HTML to DOM parser: enough of HTML for test pages (void elements, unquoted and boolean attributes, raw text in script/style, implied end tags, common
+ * entities), producing an org.w3c.dom Document so that XPath can run on it with javax.xml.xpath.
+ */
+final class HtmlParser {
+    private static final Set<String> VOID_ELEMENTS = new HashSet<>(Arrays.asList("area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta",
+            "param", "source", "track", "wbr"));
+    private static final Set<String> RAW_TEXT_ELEMENTS = new HashSet<>(Arrays.asList("script", "style", "textarea", "title"));
+    private static final Set<String> SELF_CLOSING_PARENTS = new HashSet<>(Arrays.asList("p", "li", "option", "tr", "td", "th"));
+
+    private final String html;
+    private final Document document;
+    private final Deque<Element> openElements = new ArrayDeque<>();
+    private int position;
+
+    private HtmlParser(String html) {
+        this.html = html;
+        try {
+            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static Document parse(String html) {
+        HtmlParser parser = new HtmlParser(html == null ? "" : html);
+        parser.parse();
+        return parser.document;
+    }
+
+    private void parse() {
+        Element root = document.createElement("html");
+        document.appendChild(root);
+        openElements.push(root);
+        boolean explicitRoot = false;
+        while (position < html.length()) {
+            int tagStart = html.indexOf('<', position);
+            if (tagStart < 0) {
+                appendText(html.substring(position));
+                break;
+            }
+            if (tagStart > position) {
+                appendText(html.substring(position, tagStart));
+            }
+            position = tagStart;
+            if (html.startsWith("<!--", position)) {
+                int end = html.indexOf("-->", position + 4);
+                position = end < 0 ? html.length() : end + 3;
+            } else if (html.startsWith("<!", position) || html.startsWith("<?", position)) {
+                int end = html.indexOf('>', position);
+                position = end < 0 ? html.length() : end + 1;
+            } else if (html.startsWith("</", position)) {
+                int end = html.indexOf('>', position);
+                String name = html.substring(position + 2, end < 0 ? html.length() : end).trim().toLowerCase(Locale.ROOT);
+                position = end < 0 ? html.length() : end + 1;
+                closeElement(name);
+            } else if (position + 1 < html.length() && Character.isLetter(html.charAt(position + 1))) {
+                String name = readStartTag(explicitRoot);
+                if ("html".equals(name)) {
+                    explicitRoot = true;
+                }
+            } else {
+                appendText("<");
+                position++;
+            }
+        }
+    }
+
+    /**
+     * @return The lower case name of the tag
+     */
+    private String readStartTag(boolean explicitRoot) {
+        position++;
+        int nameStart = position;
+        while (position < html.length() && !Character.isWhitespace(html.charAt(position)) && html.charAt(position) != '>' && html.charAt(position) != '/') {
+            position++;
+        }
+        String name = html.substring(nameStart, position).toLowerCase(Locale.ROOT);
+        Element element = "html".equals(name) && !explicitRoot ? document.getDocumentElement() : createElement(name);
+        boolean selfClosing = false;
+        while (position < html.length()) {
+            char c = html.charAt(position);
+            if (c == '>') {
+                position++;
+                break;
+            }
+            if (c == '/') {
+                selfClosing = true;
+                position++;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                position++;
+                continue;
+            }
+            readAttribute(element);
+        }
+        if (element == document.getDocumentElement()) {
+            return name;
+        }
+        if (SELF_CLOSING_PARENTS.contains(name) && openElements.peek() != null && openElements.peek().getTagName().equals(name)) {
+            // <li>a<li>b: the new item implicitly closes the previous one
+            openElements.pop();
+        }
+        openElements.peek().appendChild(element);
+        if (VOID_ELEMENTS.contains(name) || selfClosing) {
+            return name;
+        }
+        if (RAW_TEXT_ELEMENTS.contains(name)) {
+            int end = indexOfIgnoreCase("</" + name, position);
+            String text = html.substring(position, end < 0 ? html.length() : end);
+            element.appendChild(document.createTextNode("script".equals(name) || "style".equals(name) ? text : decodeEntities(text)));
+            int close = end < 0 ? -1 : html.indexOf('>', end);
+            position = close < 0 ? html.length() : close + 1;
+            return name;
+        }
+        openElements.push(element);
+        return name;
+    }
+
+    private void readAttribute(Element element) {
+        int nameStart = position;
+        while (position < html.length() && "=>/".indexOf(html.charAt(position)) < 0 && !Character.isWhitespace(html.charAt(position))) {
+            position++;
+        }
+        String name = html.substring(nameStart, position).toLowerCase(Locale.ROOT);
+        while (position < html.length() && Character.isWhitespace(html.charAt(position))) {
+            position++;
+        }
+        String value = "";
+        if (position < html.length() && html.charAt(position) == '=') {
+            position++;
+            while (position < html.length() && Character.isWhitespace(html.charAt(position))) {
+                position++;
+            }
+            if (position < html.length() && (html.charAt(position) == '"' || html.charAt(position) == '\'')) {
+                char quote = html.charAt(position);
+                int end = html.indexOf(quote, position + 1);
+                value = html.substring(position + 1, end < 0 ? html.length() : end);
+                position = end < 0 ? html.length() : end + 1;
+            } else {
+                int valueStart = position;
+                while (position < html.length() && html.charAt(position) != '>' && !Character.isWhitespace(html.charAt(position))) {
+                    position++;
+                }
+                value = html.substring(valueStart, position);
+            }
+        }
+        if (name.isEmpty()) {
+            position++;
+            return;
+        }
+        try {
+            if (!element.hasAttribute(name)) {
+                element.setAttribute(name, decodeEntities(value));
+            }
+        } catch (DOMException e) {
+            // Framework specific attribute names such as @click or :class are not valid XML names
+        }
+    }
+
+    private Element createElement(String name) {
+        try {
+            return document.createElement(name);
+        } catch (DOMException e) {
+            return document.createElement("unknown");
+        }
+    }
+
+    private void closeElement(String name) {
+        for (Element element : openElements) {
+            if (element.getTagName().equals(name)) {
+                while (openElements.size() > 1) {
+                    if (openElements.pop() == element) {
+                        return;
+                    }
+                }
+                return;
+            }
+        }
+        // End tag without start tag: ignored like browsers do
+    }
+
+    private void appendText(String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        Node parent = openElements.peek();
+        Node last = parent.getLastChild();
+        String decoded = decodeEntities(text);
+        if (last != null && last.getNodeType() == Node.TEXT_NODE) {
+            last.setNodeValue(last.getNodeValue() + decoded);
+        } else {
+            parent.appendChild(document.createTextNode(decoded));
+        }
+    }
+
+    private int indexOfIgnoreCase(String value, int from) {
+        for (int i = from; i <= html.length() - value.length(); i++) {
+            if (html.regionMatches(true, i, value, 0, value.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static String decodeEntities(String text) {
+        if (text.indexOf('&') < 0) {
+            return text;
+        }
+        StringBuilder decoded = new StringBuilder(text.length());
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int end = c == '&' ? text.indexOf(';', i) : -1;
+            if (end < 0 || end - i > 10) {
+                decoded.append(c);
+                i++;
+                continue;
+            }
+            String entity = text.substring(i + 1, end);
+            String value = decodeEntity(entity);
+            if (value == null) {
+                decoded.append(c);
+                i++;
+            } else {
+                decoded.append(value);
+                i = end + 1;
+            }
+        }
+        return decoded.toString();
+    }
+
+    private static String decodeEntity(String entity) {
+        switch (entity) {
+            case "amp":
+                return "&";
+            case "lt":
+                return "<";
+            case "gt":
+                return ">";
+            case "quot":
+                return "\"";
+            case "apos":
+                return "'";
+            case "nbsp":
+                return "\u00A0";
+            default:
+                try {
+                    if (entity.startsWith("#x") || entity.startsWith("#X")) {
+                        return new String(Character.toChars(Integer.parseInt(entity.substring(2), 16)));
+                    }
+                    if (entity.startsWith("#")) {
+                        return new String(Character.toChars(Integer.parseInt(entity.substring(1))));
+                    }
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+                return null;
+        }
+    }
+}
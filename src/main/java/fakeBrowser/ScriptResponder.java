@@ -0,0 +1,9 @@
+package fakeBrowser;
+
+/**
+ * Stands in for a script the fake browser cannot run. Return values follow the WebDriver conventions: Long for integers, WebElement, List, Map, String,
+ * Boolean, Double or null.
+ */
+public interface ScriptResponder {
+    Object respond(FakeDriver driver, Object... args);
+}
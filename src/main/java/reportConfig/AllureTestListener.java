@@ -3,14 +3,21 @@ package reportConfig;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 
+import commons.ActionMetrics;
+import commons.AdaptiveTimeouts;
 import commons.BaseTest;
+import commons.GlobalConstants;
+import commons.PageLoadTiming;
 import io.qameta.allure.Attachment;
+import utilities.BrowserLogCapture;
 
-public class AllureTestListener implements ITestListener {
+public class AllureTestListener implements ITestListener, ISuiteListener {
 
     private static String getTestMethodName(ITestResult iTestResult) {
         return iTestResult.getMethod().getConstructorOrMethod().getName();
@@ -37,9 +44,27 @@ public class AllureTestListener implements ITestListener {
     @Override
     public void onTestFailure(ITestResult iTestResult) {
         Object testClass = iTestResult.getInstance();
-        WebDriver driver = ((BaseTest) testClass).getDriverInstance();
-        saveScreenshotPNG(iTestResult.getName(), driver);
-        saveTextLog(getTestMethodName(iTestResult) + " failed and screenshot taken!");
+        WebDriver driver = testClass instanceof BaseTest ? ((BaseTest) testClass).getDriverInstance() : null;
+        if (driver != null) {
+            ScreenshotPipeline.getScreenshotPipeline().attach(driver, "Screenshot of " + iTestResult.getName());
+            saveTextLog(getTestMethodName(iTestResult) + " failed and screenshot taken!");
+        }
+        attachPageLoadTimings(iTestResult);
+        finishBrowserLogs(iTestResult);
+    }
+
+    private static void finishBrowserLogs(ITestResult iTestResult) {
+        Object testClass = iTestResult.getInstance();
+        if (testClass instanceof BaseTest) {
+            BrowserLogCapture.finishTest(((BaseTest) testClass).getDriverInstance(), iTestResult);
+        }
+    }
+
+    private static void attachPageLoadTimings(ITestResult iTestResult) {
+        String timings = PageLoadTiming.describeTimings(iTestResult);
+        if (!timings.isEmpty()) {
+            saveTextLog(timings);
+        }
     }
 
     @Override
@@ -48,6 +73,7 @@ public class AllureTestListener implements ITestListener {
 
     @Override
     public void onTestSkipped(ITestResult iTestResult) {
+        finishBrowserLogs(iTestResult);
     }
 
     @Override
@@ -56,7 +82,18 @@ public class AllureTestListener implements ITestListener {
 
     @Override
     public void onFinish(ITestContext arg0) {
+        ScreenshotPipeline.getScreenshotPipeline().flush(GlobalConstants.getGlobalConstants().getLongTimeout());
+    }
 
+    @Override
+    public void onStart(ISuite suite) {
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        ActionMetrics.writeReport(suite.getName());
+        PageLoadTiming.writeReport(suite.getName());
+        AdaptiveTimeouts.getAdaptiveTimeouts().save();
     }
 
     @Override
@@ -65,6 +102,8 @@ public class AllureTestListener implements ITestListener {
 
     @Override
     public void onTestSuccess(ITestResult arg0) {
+        attachPageLoadTimings(arg0);
+        finishBrowserLogs(arg0);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,308 @@
+package reportConfig;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import commons.BrowserScripts;
+import commons.GlobalConstants;
+import enums.ScreenshotMode;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Attachment;
+
+/**
+ * Attach screenshots to the Allure report without blocking the test thread on image processing or report I/O. The test thread only captures the PNG, hashes it
+ * and registers the attachment on the running test/step; cropping, downscaling, re-encoding and writing the attachment file run on a bounded background
+ * executor. When the queue is full the test thread does the work itself, so memory stays bounded. A screenshot identical to one already attached reuses the
+ * written file instead of producing a new one.
+ */
+public class ScreenshotPipeline {
+    private static final int MAX_KNOWN_SCREENSHOTS = 512;
+    private static final ScreenshotPipeline screenshotPipeline = new ScreenshotPipeline();
+
+    private final GlobalConstants constants = GlobalConstants.getGlobalConstants();
+    private final ThreadPoolExecutor executor;
+    private final Map<String, String> sourcesByHash = Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_KNOWN_SCREENSHOTS;
+        }
+    });
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Object idle = new Object();
+    private final LongAdder capturedCount = new LongAdder();
+    private final LongAdder deduplicatedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    private ScreenshotPipeline() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(constants.getScreenshotThreads(), constants.getScreenshotThreads(), 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(constants.getScreenshotQueueSize()), runnable -> {
+                    Thread thread = new Thread(runnable, "screenshot-pipeline-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(30), "screenshot-pipeline-flush"));
+    }
+
+    public static ScreenshotPipeline getScreenshotPipeline() {
+        return screenshotPipeline;
+    }
+
+    /**
+     * Attach a screenshot of the browser with GlobalConstants screenshotMode
+     *
+     * @param driver driver of browser
+     * @param name   name of the attachment
+     */
+    public void attach(WebDriver driver, String name) {
+        attach(driver, name, constants.getScreenshotMode());
+    }
+
+    /**
+     * Attach a screenshot of the browser
+     *
+     * @param driver driver of browser
+     * @param name   name of the attachment
+     * @param mode   PAGE keeps what the driver returns, VIEWPORT crops it to the visible part of the window
+     */
+    public void attach(WebDriver driver, String name, ScreenshotMode mode) {
+        byte[] png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        Rectangle viewport = null;
+        if (mode == ScreenshotMode.VIEWPORT) {
+            viewport = getViewport(driver);
+        }
+        submit(name, png, viewport);
+    }
+
+    /**
+     * Attach a screenshot of a single element
+     *
+     * @param element element to capture
+     * @param name    name of the attachment
+     */
+    public void attachElement(WebElement element, String name) {
+        submit(name, element.getScreenshotAs(OutputType.BYTES), null);
+    }
+
+    /**
+     * Wait until every queued screenshot has been written to the report
+     *
+     * @param timeoutInSeconds maximum time to wait
+     * @return True if nothing is pending anymore, false otherwise.
+     */
+    public boolean flush(long timeoutInSeconds) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutInSeconds);
+        synchronized (idle) {
+            while (pending.get() > 0) {
+                long remainingInMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingInMillis <= 0) {
+                    return false;
+                }
+                try {
+                    idle.wait(remainingInMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public long getCapturedCount() {
+        return capturedCount.sum();
+    }
+
+    public long getDeduplicatedCount() {
+        return deduplicatedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ScreenshotPipeline[captured=%d deduplicated=%d failed=%d pending=%d]", getCapturedCount(), getDeduplicatedCount(), getFailedCount(),
+                getPendingCount());
+    }
+
+    private void submit(String name, byte[] png, Rectangle viewport) {
+        capturedCount.increment();
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        Optional<String> owner = lifecycle.getCurrentTestCaseOrStep();
+        if (!owner.isPresent()) {
+            // No test or step is running, the attachment would not be shown anywhere
+            return;
+        }
+        boolean jpeg = isJpeg();
+        String type = jpeg ? "image/jpeg" : "image/png";
+        String hash = getHash(png, viewport);
+        String source = sourcesByHash.get(hash);
+        if (source != null) {
+            deduplicatedCount.increment();
+            addExistingAttachment(lifecycle, owner.get(), new Attachment().setName(name).setType(type).setSource(source));
+            return;
+        }
+        String target = lifecycle.prepareAttachment(name, type, jpeg ? ".jpg" : ".png");
+        sourcesByHash.put(hash, target);
+        pending.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                lifecycle.writeAttachment(target, new ByteArrayInputStream(process(png, viewport, jpeg)));
+            } catch (IOException | RuntimeException e) {
+                failedCount.increment();
+                e.printStackTrace();
+                lifecycle.writeAttachment(target, new ByteArrayInputStream(png));
+            } finally {
+                if (pending.decrementAndGet() == 0) {
+                    synchronized (idle) {
+                        idle.notifyAll();
+                    }
+                }
+            }
+        });
+    }
+
+    private boolean isJpeg() {
+        String format = constants.getScreenshotFormat();
+        return format.equals("jpg") || format.equals("jpeg");
+    }
+
+    private static void addExistingAttachment(AllureLifecycle lifecycle, String owner, Attachment attachment) {
+        if (owner.equals(lifecycle.getCurrentTestCase().orElse(null))) {
+            lifecycle.updateTestCase(owner, testResult -> testResult.getAttachments().add(attachment));
+        } else {
+            lifecycle.updateStep(owner, stepResult -> stepResult.getAttachments().add(attachment));
+        }
+    }
+
+    /**
+     * @return Scroll offsets and size of the viewport in image pixels, i.e. CSS pixels multiplied by the devicePixelRatio
+     */
+    private static Rectangle getViewport(WebDriver driver) {
+        @SuppressWarnings("unchecked")
+        List<Number> rect = (List<Number>) ((JavascriptExecutor) driver).executeScript(BrowserScripts.VIEWPORT_RECT);
+        double ratio = rect.get(4).doubleValue();
+        return new Rectangle((int) Math.round(rect.get(0).doubleValue() * ratio), (int) Math.round(rect.get(1).doubleValue() * ratio),
+                (int) Math.round(rect.get(2).doubleValue() * ratio), (int) Math.round(rect.get(3).doubleValue() * ratio));
+    }
+
+    private static String getHash(byte[] png, Rectangle viewport) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(png);
+            if (viewport != null) {
+                digest.update(viewport.toString().getBytes());
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Crop to the viewport, downscale to GlobalConstants screenshotMaxWidth and re-encode
+     */
+    private byte[] process(byte[] png, Rectangle viewport, boolean jpeg) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null) {
+            return png;
+        }
+        boolean changed = false;
+        if (viewport != null) {
+            // Only an image larger than the viewport holds the whole page and is cropped at the scroll offsets. Drivers already returning the viewport give an
+            // image of its size (or less, without the scrollbars) whatever the scroll position, it is left as is.
+            boolean wholePage = image.getWidth() > viewport.width || image.getHeight() > viewport.height;
+            Rectangle visible = viewport.intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+            if (wholePage && !visible.isEmpty() && (visible.width < image.getWidth() || visible.height < image.getHeight())) {
+                image = image.getSubimage(visible.x, visible.y, visible.width, visible.height);
+                changed = true;
+            }
+        }
+        int maxWidth = constants.getScreenshotMaxWidth();
+        if (image.getWidth() > maxWidth) {
+            int height = Math.max(1, (int) Math.round(image.getHeight() * (double) maxWidth / image.getWidth()));
+            image = draw(image, maxWidth, height, jpeg ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+            changed = true;
+        }
+        if (!jpeg) {
+            if (!changed) {
+                return png;
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", output);
+            return output.toByteArray();
+        }
+        if (image.getType() != BufferedImage.TYPE_INT_RGB) {
+            // The JPEG encoder does not handle the alpha channel of PNG screenshots
+            image = draw(image, image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(constants.getScreenshotJpegQuality());
+            writer.setOutput(imageOutput);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, int imageType) {
+        BufferedImage target = new BufferedImage(width, height, imageType);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,290 @@
+package utilities;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.zip.GZIPOutputStream;
+
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.logging.LoggingPreferences;
+import org.openqa.selenium.remote.CapabilityType;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import commons.GlobalConstants;
+import io.qameta.allure.Allure;
+
+/**
+ * Opt-in (-DbrowserLogCapture=true) capture of the performance and browser logs of Chrome and Edge sessions into GlobalConstants browserLog folder. The logs
+ * are drained from the driver on every page opened or navigated to, after every test, and after clicks at most every browserLogDrainIntervalInMillis, so the
+ * driver buffers little more than one page of events. Entries of a pooled session reset belong to no test and are discarded. Entries are streamed to
+ * one gzipped JSON-lines file per test and folded into a {@link NetworkLogSummary} written next to it; past the per-test entry limit entries are only counted.
+ */
+public class BrowserLogCapture {
+    private static final Map<WebDriver, BrowserLogCapture> captures = Collections.synchronizedMap(new WeakHashMap<WebDriver, BrowserLogCapture>());
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final String[] LOG_TYPES = {LogType.PERFORMANCE, LogType.BROWSER};
+
+    private final WebDriver driver;
+    private final List<String> logTypes = new ArrayList<>();
+    private ITestResult currentTest;
+    private File currentFile;
+    private Writer writer;
+    private NetworkLogSummary summary;
+    private long writtenEntries;
+    private long droppedEntries;
+    private long lastDrainNanos = System.nanoTime();
+
+    private BrowserLogCapture(WebDriver driver) {
+        this.driver = driver;
+        Collections.addAll(logTypes, LOG_TYPES);
+    }
+
+    public static boolean isEnabled() {
+        return GlobalConstants.getGlobalConstants().isBrowserLogCaptureEnabled();
+    }
+
+    /**
+     * Ask a Chrome or Edge session for performance (network events only) and browser logs when capture is enabled
+     *
+     * @param capabilities options or capabilities of the session to create
+     */
+    public static void addLoggingPreferences(MutableCapabilities capabilities) {
+        if (!isEnabled()) {
+            return;
+        }
+        LoggingPreferences preferences = new LoggingPreferences();
+        preferences.enable(LogType.PERFORMANCE, Level.ALL);
+        preferences.enable(LogType.BROWSER, Level.ALL);
+        capabilities.setCapability(CapabilityType.LOGGING_PREFS, preferences);
+        capabilities.setCapability("goog:loggingPrefs", preferences);
+        capabilities.setCapability("ms:loggingPrefs", preferences);
+        Map<String, Object> performancePreferences = new LinkedHashMap<>();
+        performancePreferences.put("enableNetwork", true);
+        performancePreferences.put("enablePage", false);
+        if (capabilities instanceof ChromeOptions) {
+            ((ChromeOptions) capabilities).setExperimentalOption("perfLoggingPrefs", performancePreferences);
+        } else {
+            addVendorOption(capabilities, "goog:chromeOptions", "perfLoggingPrefs", performancePreferences);
+            addVendorOption(capabilities, "ms:edgeOptions", "perfLoggingPrefs", performancePreferences);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addVendorOption(MutableCapabilities capabilities, String vendorCapability, String name, Object value) {
+        Map<String, Object> options = new LinkedHashMap<>();
+        Object existing = capabilities.getCapability(vendorCapability);
+        if (existing instanceof Map) {
+            options.putAll((Map<String, Object>) existing);
+        }
+        options.put(name, value);
+        capabilities.setCapability(vendorCapability, options);
+    }
+
+    private static BrowserLogCapture getCapture(WebDriver driver) {
+        synchronized (captures) {
+            BrowserLogCapture capture = captures.get(driver);
+            if (capture == null) {
+                capture = new BrowserLogCapture(driver);
+                captures.put(driver, capture);
+            }
+            return capture;
+        }
+    }
+
+    /**
+     * Move the entries buffered by the driver to the file of the current test
+     *
+     * @param driver driver of browser
+     */
+    public static void drain(WebDriver driver) {
+        if (isEnabled() && driver != null) {
+            getCapture(driver).drain(Reporter.getCurrentTestResult());
+        }
+    }
+
+    /**
+     * Drain like {@link #drain(WebDriver)} when the last drain is older than GlobalConstants browserLogDrainIntervalInMillis. Called after actions that may
+     * load a page, where draining every time would add a log request to each of them.
+     *
+     * @param driver driver of browser
+     */
+    public static void drainIfDue(WebDriver driver) {
+        if (isEnabled() && driver != null) {
+            BrowserLogCapture capture = getCapture(driver);
+            long intervalNanos = TimeUnit.MILLISECONDS.toNanos(GlobalConstants.getGlobalConstants().getBrowserLogDrainIntervalInMillis());
+            synchronized (capture) {
+                if (System.nanoTime() - capture.lastDrainNanos >= intervalNanos) {
+                    capture.drain(Reporter.getCurrentTestResult());
+                }
+            }
+        }
+    }
+
+    /**
+     * Drain the entries of a finished test, close its file and write and attach its network summary
+     *
+     * @param driver driver of browser
+     * @param result TestNG result of the finished test
+     */
+    public static void finishTest(WebDriver driver, ITestResult result) {
+        if (isEnabled() && driver != null) {
+            BrowserLogCapture capture = getCapture(driver);
+            synchronized (capture) {
+                capture.drain(result);
+                capture.close();
+            }
+        }
+    }
+
+    /**
+     * Drain and close before the driver quits
+     *
+     * @param driver driver of browser
+     */
+    public static void endSession(WebDriver driver) {
+        if (isEnabled() && driver != null) {
+            BrowserLogCapture capture = captures.remove(driver);
+            if (capture != null) {
+                synchronized (capture) {
+                    capture.drain(Reporter.getCurrentTestResult());
+                    capture.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Close the capture of the session if still open and throw away the entries the driver buffered since, e.g. those of a pooled session reset, so they are
+     * not written to the first test of the next lease
+     *
+     * @param driver driver of browser
+     */
+    public static void discard(WebDriver driver) {
+        if (isEnabled() && driver != null) {
+            BrowserLogCapture capture = captures.remove(driver);
+            if (capture != null) {
+                synchronized (capture) {
+                    capture.close();
+                }
+            }
+            for (String logType : LOG_TYPES) {
+                try {
+                    driver.manage().logs().get(logType);
+                } catch (WebDriverException e) {
+                    // The browser does not provide this log
+                }
+            }
+        }
+    }
+
+    private synchronized void drain(ITestResult result) {
+        lastDrainNanos = System.nanoTime();
+        for (String logType : new ArrayList<>(logTypes)) {
+            List<LogEntry> entries;
+            try {
+                entries = driver.manage().logs().get(logType).getAll();
+            } catch (WebDriverException e) {
+                // The browser does not provide this log, do not ask again
+                logTypes.remove(logType);
+                continue;
+            }
+            if (entries.isEmpty()) {
+                continue;
+            }
+            if (writer == null || result != currentTest) {
+                close();
+                open(result);
+            }
+            for (LogEntry entry : entries) {
+                write(logType, entry);
+            }
+        }
+    }
+
+    private void open(ITestResult result) {
+        currentTest = result;
+        String testName = result == null ? "session" : result.getTestClass().getRealClass().getSimpleName() + "." + result.getName();
+        File folder = new File(GlobalConstants.getGlobalConstants().getBrowserLog());
+        folder.mkdirs();
+        currentFile = new File(folder, testName.replaceAll("[^A-Za-z0-9._-]", "_") + "_" + System.currentTimeMillis() + ".log.gz");
+        try {
+            writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(currentFile)), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException("Fail to create browser log " + currentFile, e);
+        }
+        summary = new NetworkLogSummary();
+        writtenEntries = 0;
+        droppedEntries = 0;
+    }
+
+    private void write(String logType, LogEntry entry) {
+        if (LogType.PERFORMANCE.equals(logType)) {
+            summary.addPerformanceEntry(entry.getMessage());
+        } else {
+            summary.addBrowserEntry(entry.getLevel().getName());
+        }
+        if (writtenEntries >= GlobalConstants.getGlobalConstants().getBrowserLogMaxEntriesPerTest()) {
+            droppedEntries++;
+            return;
+        }
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("type", logType);
+        line.put("timestamp", entry.getTimestamp());
+        line.put("level", entry.getLevel().getName());
+        line.put("message", entry.getMessage());
+        try {
+            writer.write(mapper.writeValueAsString(line));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new RuntimeException("Fail to write browser log " + currentFile, e);
+        }
+        writtenEntries++;
+    }
+
+    private void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("log", currentFile.getName());
+            report.put("writtenEntries", writtenEntries);
+            report.put("droppedEntries", droppedEntries);
+            report.putAll(summary.toMap());
+            String json = mapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValueAsString(report);
+            File summaryFile = new File(currentFile.getPath().replaceFirst("\\.log\\.gz$", ".network.json"));
+            Files.write(summaryFile.toPath(), json.getBytes(StandardCharsets.UTF_8));
+            if (summary.getRequests() > 0) {
+                Allure.addAttachment("Network summary", "application/json", json, ".json");
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            writer = null;
+            currentTest = null;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package utilities;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import commons.GlobalConstants;
+
+/**
+ * Verify large downloaded exports without loading them on-heap: checksums and golden-file comparison read the file sequentially into one reused direct buffer,
+ * CSV and XLSX content is streamed row by row. Files are not memory-mapped: a mapping keeps the file locked on Windows until it is garbage collected, and the
+ * download could not be deleted after the check.
+ */
+public class DownloadVerifier {
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+
+    public static DownloadVerifier getVerifier() {
+        return new DownloadVerifier();
+    }
+
+    /**
+     * @param file file to hash
+     * @return The SHA-256 checksum of the file as lower case hex
+     */
+    public String getChecksum(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Fail to compute checksum of " + file, e);
+        }
+    }
+
+    /**
+     * @param file             file to hash
+     * @param expectedChecksum expected SHA-256 checksum as hex
+     * @return True if the checksum of the file is the expected one, false otherwise.
+     */
+    public boolean isChecksumEqual(File file, String expectedChecksum) {
+        return getChecksum(file).equalsIgnoreCase(expectedChecksum);
+    }
+
+    /**
+     * Compare a file with a golden file byte by byte, one buffer at a time. Files of different sizes are never read.
+     *
+     * @param file       downloaded file
+     * @param goldenFile expected file
+     * @return True if both files have the same content, false otherwise.
+     */
+    public boolean isSameAsGoldenFile(File file, File goldenFile) {
+        try (FileChannel actual = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             FileChannel expected = FileChannel.open(goldenFile.toPath(), StandardOpenOption.READ)) {
+            long size = actual.size();
+            if (size != expected.size()) {
+                return false;
+            }
+            ByteBuffer actualBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+            ByteBuffer expectedBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+            for (long position = 0; position < size; position += READ_BUFFER_SIZE) {
+                fill(actual, actualBuffer);
+                fill(expected, expectedBuffer);
+                if (!actualBuffer.equals(expectedBuffer)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException("Fail to compare " + file + " with " + goldenFile, e);
+        }
+    }
+
+    /**
+     * Compare a file of GlobalConstants downloadFile folder with a file of GlobalConstants goldenFile folder
+     *
+     * @param downloadedFileName name of the downloaded file
+     * @param goldenFileName     name of the golden file
+     * @return True if both files have the same content, false otherwise.
+     */
+    public boolean isSameAsGoldenFile(String downloadedFileName, String goldenFileName) {
+        GlobalConstants constants = GlobalConstants.getGlobalConstants();
+        return isSameAsGoldenFile(new File(constants.getDownloadFile(), downloadedFileName), new File(constants.getGoldenFile(), goldenFileName));
+    }
+
+    /**
+     * Stream a UTF-8 CSV file row by row (header included as row 1). Quoted cells may contain separators, doubled quotes and line breaks.
+     *
+     * @param file      CSV file
+     * @param validator check applied to every row
+     * @return Row count and invalid rows
+     */
+    public RowValidationResult validateCsvRows(File file, RowValidator validator) {
+        RowValidationResult result = new RowValidationResult();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            reader.mark(1);
+            if (reader.read() != '\uFEFF') {
+                reader.reset();
+            }
+            List<String> cells = new ArrayList<>();
+            long rowNumber = 0;
+            while (readCsvRow(reader, cells)) {
+                rowNumber++;
+                result.addRow(rowNumber, validator.isValidRow(rowNumber, cells));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Fail to read CSV file " + file, e);
+        }
+        return result;
+    }
+
+    /**
+     * Stream a sheet of an XLSX file row by row with the POI event API, so only one row is held in memory. Cells are formatted as displayed in Excel (a number
+     * cell without a style comes as written in the file, e.g. "1000.0"), and missing cells are returned as empty strings.
+     *
+     * @param file       XLSX file
+     * @param sheetIndex 0-based index of the sheet
+     * @param validator  check applied to every row
+     * @return Row count and invalid rows
+     */
+    public RowValidationResult validateXlsxRows(File file, int sheetIndex, RowValidator validator) {
+        RowValidationResult result = new RowValidationResult();
+        OPCPackage xlsxPackage = null;
+        try {
+            xlsxPackage = OPCPackage.open(file.getPath(), PackageAccess.READ);
+            XSSFReader xssfReader = new XSSFReader(xlsxPackage);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(xlsxPackage);
+            StylesTable styles = xssfReader.getStylesTable();
+            Iterator<InputStream> sheets = xssfReader.getSheetsData();
+            for (int i = 0; sheets.hasNext(); i++) {
+                try (InputStream sheet = sheets.next()) {
+                    if (i != sheetIndex) {
+                        continue;
+                    }
+                    SAXParserFactory parserFactory = SAXParserFactory.newInstance();
+                    parserFactory.setNamespaceAware(true);
+                    XMLReader xmlReader = parserFactory.newSAXParser().getXMLReader();
+                    xmlReader.setContentHandler(new XSSFSheetXMLHandler(styles, sharedStrings, new StreamingRowHandler(validator, result), false));
+                    xmlReader.parse(new InputSource(sheet));
+                    return result;
+                }
+            }
+            throw new RuntimeException("Sheet " + sheetIndex + " not found in " + file);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Fail to read XLSX file " + file, e);
+        } finally {
+            if (xlsxPackage != null) {
+                xlsxPackage.revert();
+            }
+        }
+    }
+
+    /**
+     * Read the next bytes of the channel until the buffer is full or the channel ends, and flip the buffer for reading
+     */
+    private static void fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+            // Keep reading, a read may return fewer bytes than asked
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Read one CSV record into cells
+     *
+     * @return False at end of file
+     */
+    private static boolean readCsvRow(Reader reader, List<String> cells) throws IOException {
+        cells.clear();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        boolean anyCharacter = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            anyCharacter = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        cell.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    cell.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                cell.append((char) c);
+            }
+        }
+        if (!anyCharacter) {
+            return false;
+        }
+        cells.add(cell.toString());
+        return true;
+    }
+
+    /**
+     * Collect the cells of the current row and hand the row to the validator when it ends
+     */
+    private static final class StreamingRowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final RowValidator validator;
+        private final RowValidationResult result;
+        private final List<String> cells = new ArrayList<>();
+        private int rowNumber;
+
+        private StreamingRowHandler(RowValidator validator, RowValidationResult result) {
+            this.validator = validator;
+            this.result = result;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            rowNumber = rowNum + 1;
+            cells.clear();
+        }
+
+        @Override
+        public void endRow() {
+            result.addRow(rowNumber, validator.isValidRow(rowNumber, cells));
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue) {
+            int column = new CellReference(cellReference).getCol();
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            cells.add(formattedValue == null ? "" : formattedValue);
+        }
+
+        @Override
+        public void headerFooter(String text, boolean isHeader, String tagName) {
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package utilities;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.WebDriver;
+
+import commons.GlobalConstants;
+
+/**
+ * Keep an in-memory index of a download directory up to date with a WatchService, so checking for a download never lists or stats the whole directory again.
+ * The directory is scanned once when the watcher starts; after that only the files reported by the file system are looked at.
+ * <p>
+ * Sessions running in parallel share the folder. A session only sees files written after it started, and a file returned to one session is claimed by it
+ * until the file changes or is deleted, so one download never satisfies the waits of two sessions.
+ */
+public class DownloadWatcher implements Closeable {
+    private static final String[] PARTIAL_SUFFIXES = {".crdownload", ".part", ".partial", ".download", ".tmp"};
+    private static final long STABLE_SIZE_IN_MILLIS = 500;
+    private static final Map<String, DownloadWatcher> watchers = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final WatchService watchService;
+    private final Map<String, FileEntry> files = new ConcurrentHashMap<>();
+    private final Object changed = new Object();
+    private final AtomicLong changeSequence = new AtomicLong();
+    private final Map<WebDriver, Session> sessions = Collections.synchronizedMap(new WeakHashMap<WebDriver, Session>());
+    private final Map<String, Claim> claims = new ConcurrentHashMap<>();
+
+    private DownloadWatcher(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        rescan();
+        Thread thread = new Thread(this::processEvents, "download-watcher-" + directory.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @param downloadPath directory to watch
+     * @return The watcher of the directory, started on first use and shared by every session downloading there
+     */
+    public static DownloadWatcher getWatcher(String downloadPath) {
+        Path directory = Paths.get(downloadPath).toAbsolutePath().normalize();
+        return watchers.computeIfAbsent(directory.toString(), key -> {
+            try {
+                return new DownloadWatcher(directory);
+            } catch (IOException e) {
+                throw new RuntimeException("Fail to watch download folder " + directory, e);
+            }
+        });
+    }
+
+    /**
+     * @return The watcher of GlobalConstants downloadFile folder
+     */
+    public static DownloadWatcher getWatcher() {
+        return getWatcher(GlobalConstants.getGlobalConstants().getDownloadFile());
+    }
+
+    /**
+     * Start watching GlobalConstants downloadFile folder for a driver session
+     *
+     * @param driver driver of browser
+     */
+    public static void startSession(WebDriver driver) {
+        getWatcher().startSessionOf(driver);
+    }
+
+    public static void endSession(WebDriver driver) {
+        for (DownloadWatcher watcher : watchers.values()) {
+            watcher.sessions.remove(driver);
+        }
+    }
+
+    /**
+     * @param driver driver of browser
+     * @return The change sequence of the default watcher when the session of the driver started, -1 if it was never started
+     */
+    public static long getSessionStart(WebDriver driver) {
+        Session session = getWatcher().sessions.get(driver);
+        return session == null ? -1 : session.startSequence;
+    }
+
+    /**
+     * Start a driver session on this folder. Downloads awaited for this driver only match files written after this call.
+     *
+     * @param driver driver of browser
+     */
+    public void startSessionOf(WebDriver driver) {
+        sessions.put(driver, new Session(getChangeSequence()));
+    }
+
+    public static void closeAll() {
+        for (DownloadWatcher watcher : watchers.values()) {
+            watcher.close();
+        }
+        watchers.clear();
+    }
+
+    /**
+     * @return Sequence number of the last change seen in the folder, the initial scan included
+     */
+    public long getChangeSequence() {
+        return changeSequence.get();
+    }
+
+    /**
+     * Block until a completed file (no partial suffix, size stable) whose name matches the pattern has been written during the session of the driver, and
+     * claim it for the session. Files claimed by other sessions are skipped.
+     *
+     * @param driver          driver of browser
+     * @param fileNamePattern pattern the whole file name must match
+     * @param timeoutInMillis maximum time to wait
+     * @return The downloaded file, or null if none completed in time
+     */
+    public File awaitDownload(WebDriver driver, Pattern fileNamePattern, long timeoutInMillis) {
+        // A session never started on this folder sees every file, as before sessions existed
+        Session session = sessions.computeIfAbsent(driver, d -> new Session(-1));
+        return awaitDownload(fileNamePattern, session.startSequence, timeoutInMillis, session);
+    }
+
+    /**
+     * Block until a completed file (no partial suffix, size stable) whose name matches the pattern has been written after @param sinceSequence. Files claimed by
+     * a session are skipped, the file returned is not claimed.
+     *
+     * @param fileNamePattern pattern the whole file name must match
+     * @param sinceSequence   only files changed after this change sequence are considered, -1 for any file
+     * @param timeoutInMillis maximum time to wait
+     * @return The downloaded file, or null if none completed in time
+     */
+    public File awaitDownload(Pattern fileNamePattern, long sinceSequence, long timeoutInMillis) {
+        return awaitDownload(fileNamePattern, sinceSequence, timeoutInMillis, null);
+    }
+
+    private File awaitDownload(Pattern fileNamePattern, long sinceSequence, long timeoutInMillis, Session owner) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutInMillis);
+        while (true) {
+            long waitInMillis = STABLE_SIZE_IN_MILLIS;
+            for (Map.Entry<String, FileEntry> file : files.entrySet()) {
+                FileEntry entry = file.getValue();
+                if (entry.sequence <= sinceSequence || isPartial(file.getKey()) || !fileNamePattern.matcher(file.getKey()).matches()) {
+                    continue;
+                }
+                // Re-stat only the candidate: a write may not have been reported yet
+                FileEntry current = update(file.getKey());
+                if (current == null) {
+                    continue;
+                }
+                if (isClaimedByOther(file.getKey(), current, owner)) {
+                    continue;
+                }
+                long stableForMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - current.changedAtNanos);
+                if (stableForMillis >= STABLE_SIZE_IN_MILLIS && (owner == null || claim(file.getKey(), current, owner))) {
+                    return directory.resolve(file.getKey()).toFile();
+                }
+                waitInMillis = Math.min(waitInMillis, STABLE_SIZE_IN_MILLIS - stableForMillis);
+            }
+            long remainingInMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingInMillis <= 0) {
+                return null;
+            }
+            synchronized (changed) {
+                try {
+                    changed.wait(Math.max(1, Math.min(waitInMillis, remainingInMillis)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param fileName part of the file name
+     * @return A completed file whose name contains @param fileName, or null
+     */
+    public File findDownloadedFile(String fileName) {
+        for (String name : files.keySet()) {
+            if (name.contains(fileName) && !isPartial(name)) {
+                return directory.resolve(name).toFile();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The completed file modified last, or null if the folder is empty
+     */
+    public File getLatestFile() {
+        String latest = null;
+        long latestModified = Long.MIN_VALUE;
+        for (Map.Entry<String, FileEntry> file : files.entrySet()) {
+            if (!isPartial(file.getKey()) && file.getValue().lastModified > latestModified) {
+                latest = file.getKey();
+                latestModified = file.getValue().lastModified;
+            }
+        }
+        return latest == null ? null : directory.resolve(latest).toFile();
+    }
+
+    /**
+     * Delete a file of the watched folder and drop it from the index
+     *
+     * @param file file to delete
+     * @return True if the file was deleted, false otherwise.
+     */
+    public boolean delete(File file) {
+        files.remove(file.getName());
+        claims.remove(file.getName());
+        return file.delete();
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void processEvents() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        rescan();
+                    } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                        files.remove(event.context().toString());
+                        claims.remove(event.context().toString());
+                    } else {
+                        update(event.context().toString());
+                    }
+                }
+                key.reset();
+                synchronized (changed) {
+                    changed.notifyAll();
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Watcher closed
+        }
+    }
+
+    private void rescan() {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    String name = path.getFileName().toString();
+                    FileEntry previous = files.get(name);
+                    if (previous == null || previous.size != attributes.size() || previous.lastModified != attributes.lastModifiedTime().toMillis()) {
+                        files.put(name, new FileEntry(attributes.size(), attributes.lastModifiedTime().toMillis(), System.nanoTime(), changeSequence.incrementAndGet()));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private FileEntry update(String name) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(directory.resolve(name), BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+            FileEntry previous = files.get(name);
+            if (previous != null && previous.size == attributes.size() && previous.lastModified == attributes.lastModifiedTime().toMillis()) {
+                return previous;
+            }
+            FileEntry entry = new FileEntry(attributes.size(), attributes.lastModifiedTime().toMillis(), System.nanoTime(), changeSequence.incrementAndGet());
+            files.put(name, entry);
+            return entry;
+        } catch (IOException e) {
+            // Renamed or deleted in the meantime (e.g. .crdownload renamed to the final name)
+            files.remove(name);
+            return null;
+        }
+    }
+
+    /**
+     * A claim only holds for the content it was made on: a file written again under the same name can be claimed anew
+     */
+    private boolean isClaimedByOther(String name, FileEntry entry, Session owner) {
+        Claim claim = claims.get(name);
+        return claim != null && claim.sequence == entry.sequence && claim.owner != owner;
+    }
+
+    private boolean claim(String name, FileEntry entry, Session owner) {
+        Claim claim = new Claim(owner, entry.sequence);
+        Claim previous = claims.putIfAbsent(name, claim);
+        if (previous == null || previous.owner == owner) {
+            return true;
+        }
+        return previous.sequence != entry.sequence && claims.replace(name, previous, claim);
+    }
+
+    private static boolean isPartial(String fileName) {
+        String name = fileName.toLowerCase();
+        for (String suffix : PARTIAL_SUFFIXES) {
+            if (name.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Download session of one driver, kept by identity so a claim does not hold the driver
+     */
+    private static final class Session {
+        private final long startSequence;
+
+        private Session(long startSequence) {
+            this.startSequence = startSequence;
+        }
+    }
+
+    private static final class Claim {
+        private final Session owner;
+        private final long sequence;
+
+        private Claim(Session owner, long sequence) {
+            this.owner = owner;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class FileEntry {
+        private final long size;
+        private final long lastModified;
+        private final long changedAtNanos;
+        private final long sequence;
+
+        private FileEntry(long size, long lastModified, long changedAtNanos, long sequence) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.changedAtNanos = changedAtNanos;
+            this.sequence = sequence;
+        }
+    }
+}
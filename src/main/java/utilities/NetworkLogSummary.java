@@ -0,0 +1,226 @@
+package utilities;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * HAR-like summary of the network events of a Chrome performance log: request count, bytes and durations, the slowest requests and the endpoints that took
+ * the most time. Memory stays bounded however long the log is: requests still in flight, endpoints and slowest requests are capped, and a finished request
+ * only lives on in the aggregates.
+ */
+public class NetworkLogSummary {
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final int MAX_PENDING_REQUESTS = 5000;
+    private static final int MAX_ENDPOINTS = 2000;
+    private static final int SLOWEST_REQUESTS = 20;
+    private static final int REPORTED_ENDPOINTS = 50;
+    private static final String OTHER_ENDPOINTS = "*";
+
+    private final Map<String, Request> pending = new LinkedHashMap<String, Request>(16, 0.75f, false) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Request> eldest) {
+            return size() > MAX_PENDING_REQUESTS;
+        }
+    };
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final PriorityQueue<Request> slowest = new PriorityQueue<>(Comparator.comparingDouble((Request request) -> request.durationMillis));
+    private final Map<String, Long> requestsByType = new TreeMap<>();
+    private long requests;
+    private long failedRequests;
+    private long encodedBytes;
+    private long consoleErrors;
+
+    /**
+     * @param message message of one performance log entry, a DevTools event as JSON
+     */
+    public void addPerformanceEntry(String message) {
+        JsonNode event;
+        try {
+            event = mapper.readTree(message).path("message");
+        } catch (IOException e) {
+            return;
+        }
+        String method = event.path("method").asText();
+        JsonNode params = event.path("params");
+        String requestId = params.path("requestId").asText();
+        switch (method) {
+            case "Network.requestWillBeSent":
+                String url = params.path("request").path("url").asText();
+                if (!url.startsWith("data:")) {
+                    Request request = new Request(params.path("request").path("method").asText("GET"), url, params.path("type").asText("Other"),
+                            params.path("timestamp").asDouble());
+                    pending.put(requestId, request);
+                }
+                break;
+            case "Network.responseReceived":
+                Request received = pending.get(requestId);
+                if (received != null) {
+                    received.status = params.path("response").path("status").asInt();
+                    received.type = params.path("type").asText(received.type);
+                }
+                break;
+            case "Network.loadingFinished":
+                complete(pending.remove(requestId), params.path("timestamp").asDouble(), params.path("encodedDataLength").asLong(), false);
+                break;
+            case "Network.loadingFailed":
+                complete(pending.remove(requestId), params.path("timestamp").asDouble(), 0, !params.path("canceled").asBoolean());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * @param level level of one browser (console) log entry
+     */
+    public void addBrowserEntry(String level) {
+        if ("SEVERE".equals(level)) {
+            consoleErrors++;
+        }
+    }
+
+    private void complete(Request request, double timestamp, long bytes, boolean failed) {
+        if (request == null) {
+            return;
+        }
+        request.durationMillis = Math.max(0, (timestamp - request.startTimestamp) * 1000);
+        request.bytes = bytes;
+        request.failed = failed || request.status >= 400;
+        requests++;
+        encodedBytes += bytes;
+        if (request.failed) {
+            failedRequests++;
+        }
+        requestsByType.merge(request.type, 1L, Long::sum);
+        String key = request.getEndpoint();
+        Endpoint endpoint = endpoints.get(key);
+        if (endpoint == null) {
+            key = endpoints.size() < MAX_ENDPOINTS ? key : OTHER_ENDPOINTS;
+            endpoint = endpoints.computeIfAbsent(key, k -> new Endpoint());
+        }
+        endpoint.add(request);
+        slowest.add(request);
+        if (slowest.size() > SLOWEST_REQUESTS) {
+            slowest.poll();
+        }
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getFailedRequests() {
+        return failedRequests;
+    }
+
+    /**
+     * @return The summary as maps and lists, ready to be written as JSON
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", requests);
+        summary.put("failedRequests", failedRequests);
+        summary.put("unfinishedRequests", pending.size());
+        summary.put("encodedBytes", encodedBytes);
+        summary.put("consoleErrors", consoleErrors);
+        summary.put("requestsByType", requestsByType);
+        List<Request> slowestRequests = new ArrayList<>(slowest);
+        slowestRequests.sort(Comparator.comparingDouble((Request request) -> request.durationMillis).reversed());
+        List<Map<String, Object>> slowestRows = new ArrayList<>();
+        for (Request request : slowestRequests) {
+            slowestRows.add(request.toMap());
+        }
+        summary.put("slowestRequests", slowestRows);
+        List<Map.Entry<String, Endpoint>> endpointEntries = new ArrayList<>(endpoints.entrySet());
+        endpointEntries.sort(Comparator.comparingDouble((Map.Entry<String, Endpoint> entry) -> entry.getValue().totalMillis).reversed());
+        List<Map<String, Object>> endpointRows = new ArrayList<>();
+        for (Map.Entry<String, Endpoint> entry : endpointEntries.subList(0, Math.min(REPORTED_ENDPOINTS, endpointEntries.size()))) {
+            endpointRows.add(entry.getValue().toMap(entry.getKey()));
+        }
+        summary.put("slowestEndpoints", endpointRows);
+        return summary;
+    }
+
+    private static final class Request {
+        private final String method;
+        private final String url;
+        private final double startTimestamp;
+        private String type;
+        private int status;
+        private long bytes;
+        private double durationMillis;
+        private boolean failed;
+
+        private Request(String method, String url, String type, double startTimestamp) {
+            this.method = method;
+            this.url = url;
+            this.type = type;
+            this.startTimestamp = startTimestamp;
+        }
+
+        /**
+         * @return Method and URL without query string or fragment
+         */
+        private String getEndpoint() {
+            int end = url.length();
+            for (char separator : new char[] {'?', '#'}) {
+                int index = url.indexOf(separator);
+                if (index >= 0 && index < end) {
+                    end = index;
+                }
+            }
+            return method + " " + url.substring(0, end);
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("method", method);
+            row.put("url", url);
+            row.put("type", type);
+            row.put("status", status);
+            row.put("encodedBytes", bytes);
+            row.put("durationMillis", Math.round(durationMillis * 10) / 10.0);
+            row.put("failed", failed);
+            return row;
+        }
+    }
+
+    private static final class Endpoint {
+        private long count;
+        private long failures;
+        private long bytes;
+        private double totalMillis;
+        private double maxMillis;
+
+        private void add(Request request) {
+            count++;
+            failures += request.failed ? 1 : 0;
+            bytes += request.bytes;
+            totalMillis += request.durationMillis;
+            maxMillis = Math.max(maxMillis, request.durationMillis);
+        }
+
+        private Map<String, Object> toMap(String endpoint) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", endpoint);
+            row.put("count", count);
+            row.put("failures", failures);
+            row.put("encodedBytes", bytes);
+            row.put("totalMillis", Math.round(totalMillis * 10) / 10.0);
+            row.put("meanMillis", Math.round(totalMillis / count * 10) / 10.0);
+            row.put("maxMillis", Math.round(maxMillis * 10) / 10.0);
+            return row;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package utilities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Outcome of streaming the rows of an exported file through a {@link RowValidator}. Only the first invalid row numbers are kept, so memory stays bounded.
+ */
+@Getter
+public class RowValidationResult {
+    private static final int MAX_INVALID_ROWS_KEPT = 20;
+
+    private long rowCount;
+    private long invalidRowCount;
+    private final List<Long> firstInvalidRows = new ArrayList<>();
+
+    void addRow(long rowNumber, boolean valid) {
+        rowCount++;
+        if (!valid) {
+            invalidRowCount++;
+            if (firstInvalidRows.size() < MAX_INVALID_ROWS_KEPT) {
+                firstInvalidRows.add(rowNumber);
+            }
+        }
+    }
+
+    public List<Long> getFirstInvalidRows() {
+        return Collections.unmodifiableList(firstInvalidRows);
+    }
+
+    public boolean isValid() {
+        return invalidRowCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "RowValidationResult[rows=" + rowCount + ", invalid=" + invalidRowCount + ", first invalid rows=" + firstInvalidRows + "]";
+    }
+}
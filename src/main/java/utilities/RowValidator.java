@@ -0,0 +1,11 @@
+package utilities;
+
+import java.util.List;
+
+/**
+ * Check one row of an exported file. Rows are streamed, so the cells list must not be kept after the call.
+ */
+public interface RowValidator {
+    public abstract boolean isValidRow(long rowNumber, List<String> cells);
+
+}
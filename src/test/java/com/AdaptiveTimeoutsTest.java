@@ -0,0 +1,122 @@
+package com;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import commons.AdaptiveTimeouts;
+
+/**
+ * Timeouts learned by AdaptiveTimeouts from recorded waits, on a temporary history file: 5 samples, 99th percentile, multiplier 3, floor 3 s, ceiling 90 s.
+ */
+public class AdaptiveTimeoutsTest {
+    private static final String KEY = "LoginPage|visible|ID=username";
+    private static final long DEFAULT_TIMEOUT = 30000;
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private File historyFile;
+
+    @BeforeMethod
+    public void beforeMethod() throws IOException {
+        historyFile = File.createTempFile("waitHistory", ".tsv");
+        historyFile.delete();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod() {
+        historyFile.delete();
+    }
+
+    @Test
+    public void TC_01_LearnsFromSatisfiedWaits() {
+        AdaptiveTimeouts timeouts = newAdaptiveTimeouts(DAY);
+        for (int i = 0; i < 4; i++) {
+            timeouts.record(KEY, 100, false);
+        }
+        Assert.assertEquals(timeouts.getTimeoutInMillis(KEY, DEFAULT_TIMEOUT), DEFAULT_TIMEOUT, "Learned before the minimum samples");
+
+        timeouts.record(KEY, 100, false);
+        Assert.assertEquals(timeouts.getTimeoutInMillis(KEY, DEFAULT_TIMEOUT), 3000, "Clamped to the floor");
+
+        for (int i = 0; i < 5; i++) {
+            timeouts.record(KEY, 40000, false);
+        }
+        Assert.assertEquals(timeouts.getTimeoutInMillis(KEY, DEFAULT_TIMEOUT), 90000, "Clamped to the ceiling");
+    }
+
+    @Test
+    public void TC_02_SlowerWaitWidensTheLearnedTimeout() {
+        AdaptiveTimeouts timeouts = newAdaptiveTimeouts(DAY);
+        for (int i = 0; i < 5; i++) {
+            timeouts.record(KEY, 100, false);
+        }
+        // The learned 3 s expired and the second attempt was satisfied after 8 s
+        timeouts.record(KEY, 8000, false);
+
+        Assert.assertTrue(timeouts.getTimeoutInMillis(KEY, DEFAULT_TIMEOUT) > 8000);
+        Assert.assertFalse(timeouts.hasRecentTimeout(KEY));
+    }
+
+    @Test
+    public void TC_03_TimeoutFailsFastUntilSuccessOrExpiry() {
+        AdaptiveTimeouts timeouts = newAdaptiveTimeouts(DAY);
+        for (int i = 0; i < 5; i++) {
+            timeouts.record(KEY, 100, false);
+        }
+        timeouts.record(KEY, DEFAULT_TIMEOUT, true);
+        Assert.assertTrue(timeouts.hasRecentTimeout(KEY));
+        Assert.assertEquals(timeouts.getTimeoutInMillis(KEY, DEFAULT_TIMEOUT), 3000);
+
+        timeouts.record(KEY, 100, false);
+        Assert.assertFalse(timeouts.hasRecentTimeout(KEY), "Success clears the timeouts");
+
+        AdaptiveTimeouts expiring = newAdaptiveTimeouts(0);
+        expiring.record(KEY, DEFAULT_TIMEOUT, true);
+        Assert.assertFalse(expiring.hasRecentTimeout(KEY), "Timeout older than the expiry");
+    }
+
+    @Test
+    public void TC_04_HistorySurvivesSaveAndLoad() throws IOException {
+        AdaptiveTimeouts timeouts = newAdaptiveTimeouts(DAY);
+        for (long elapsed : new long[] { 1000, 1200, 1100, 1300, 1500 }) {
+            timeouts.record(KEY, elapsed, false);
+        }
+        timeouts.record("LoginPage|clickable|ID=login", DEFAULT_TIMEOUT, true);
+        timeouts.save();
+
+        AdaptiveTimeouts loaded = newAdaptiveTimeouts(DAY);
+        Assert.assertEquals(loaded.getLearnedTimeouts(), timeouts.getLearnedTimeouts());
+        Assert.assertEquals(loaded.getTimeoutInMillis(KEY, DEFAULT_TIMEOUT), timeouts.getTimeoutInMillis(KEY, DEFAULT_TIMEOUT));
+        Assert.assertTrue(loaded.hasRecentTimeout("LoginPage|clickable|ID=login"));
+
+        // History written before the last timeout was saved
+        Files.write(historyFile.toPath(), Arrays.asList("LoginPage|clickable|ID=login\t2\t100,100,100,100,100"), StandardCharsets.UTF_8);
+        AdaptiveTimeouts legacy = newAdaptiveTimeouts(DAY);
+        Assert.assertEquals(legacy.getTimeoutInMillis("LoginPage|clickable|ID=login", DEFAULT_TIMEOUT), 3000);
+        Assert.assertFalse(legacy.hasRecentTimeout("LoginPage|clickable|ID=login"));
+    }
+
+    @Test
+    public void TC_05_SaveToUnwritableFileDoesNotThrow() throws IOException {
+        File folder = Files.createTempDirectory("waitHistory").toFile();
+        try {
+            AdaptiveTimeouts timeouts = new AdaptiveTimeouts(folder, true, 5, 99, 3, 3000, 90000, DAY);
+            timeouts.record(KEY, 100, false);
+            timeouts.save();
+        } finally {
+            new File(folder.getPath() + ".tmp").delete();
+            folder.delete();
+        }
+    }
+
+    private AdaptiveTimeouts newAdaptiveTimeouts(long timeoutExpiryInMillis) {
+        return new AdaptiveTimeouts(historyFile, true, 5, 99, 3, 3000, 90000, timeoutExpiryInMillis);
+    }
+}
@@ -0,0 +1,68 @@
+package com;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import utilities.DownloadVerifier;
+import utilities.RowValidationResult;
+
+/**
+ * Rows parsed by the streaming CSV and XLSX readers of the download verifier, on the fixtures of src/test/resources/downloadVerifier
+ */
+public class DownloadVerifierTest {
+    private final DownloadVerifier verifier = DownloadVerifier.getVerifier();
+
+    @Test
+    public void TC_01_CsvQuotedFieldsEscapedQuotesAndLineBreaks() throws URISyntaxException {
+        List<List<String>> rows = new ArrayList<>();
+        RowValidationResult result = verifier.validateCsvRows(getFixture("employees.csv"), (rowNumber, cells) -> rows.add(new ArrayList<>(cells)));
+
+        Assert.assertTrue(result.isValid());
+        Assert.assertEquals(rows, Arrays.asList(
+                Arrays.asList("Employee", "Note", "Salary"),
+                Arrays.asList("E001", "Smith, John", "1000"),
+                Arrays.asList("E002", "Said \"hi\"", "2000"),
+                Arrays.asList("E003", "Line one\nLine two", "3000"),
+                Arrays.asList("E004", "", "")));
+    }
+
+    @Test
+    public void TC_02_CsvInvalidRowsAreReported() throws URISyntaxException {
+        RowValidationResult result = verifier.validateCsvRows(getFixture("employees.csv"), (rowNumber, cells) -> rowNumber == 1 || !cells.get(2).isEmpty());
+
+        Assert.assertFalse(result.isValid());
+        Assert.assertEquals(result.getFirstInvalidRows(), Arrays.asList(5L));
+    }
+
+    @Test
+    public void TC_03_XlsxSharedStringsNumbersAndMissingCells() throws URISyntaxException {
+        List<List<String>> rows = new ArrayList<>();
+        RowValidationResult result = verifier.validateXlsxRows(getFixture("employees.xlsx"), 0, (rowNumber, cells) -> rows.add(new ArrayList<>(cells)));
+
+        Assert.assertTrue(result.isValid());
+        Assert.assertEquals(rows, Arrays.asList(
+                Arrays.asList("Employee", "Department", "Salary"),
+                Arrays.asList("E001", "Sales", "1000"),
+                Arrays.asList("E002", "Sales", "2500.5"),
+                Arrays.asList("E003", "", "3000")));
+    }
+
+    @Test
+    public void TC_04_GoldenFileAndChecksum() throws URISyntaxException {
+        File csv = getFixture("employees.csv");
+
+        Assert.assertTrue(verifier.isSameAsGoldenFile(csv, csv));
+        Assert.assertFalse(verifier.isSameAsGoldenFile(csv, getFixture("employees.xlsx")));
+        Assert.assertTrue(verifier.isChecksumEqual(csv, verifier.getChecksum(csv).toUpperCase()));
+    }
+
+    private static File getFixture(String name) throws URISyntaxException {
+        return new File(DownloadVerifierTest.class.getClassLoader().getResource("downloadVerifier/" + name).toURI());
+    }
+}
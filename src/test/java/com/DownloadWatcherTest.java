@@ -0,0 +1,95 @@
+package com;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import fakeBrowser.FakeDriver;
+import utilities.DownloadWatcher;
+
+/**
+ * Completion and session rules of the download watcher on a temporary folder: partial files are never returned, a file is returned once its size is stable,
+ * and parallel sessions sharing the folder never get the same download.
+ */
+public class DownloadWatcherTest {
+    private static final Pattern REPORT = Pattern.compile("report.*");
+
+    private Path folder;
+    private DownloadWatcher watcher;
+
+    @BeforeMethod
+    public void beforeMethod() throws IOException {
+        folder = Files.createTempDirectory("downloads");
+        watcher = DownloadWatcher.getWatcher(folder.toString());
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod() throws IOException {
+        watcher.close();
+        for (File file : folder.toFile().listFiles()) {
+            file.delete();
+        }
+        Files.deleteIfExists(folder);
+    }
+
+    @Test
+    public void TC_01_PartialFileIsNotADownload() throws IOException {
+        FakeDriver driver = new FakeDriver();
+        watcher.startSessionOf(driver);
+        Path partial = write("report.csv.crdownload", "a,b");
+        Assert.assertNull(watcher.awaitDownload(driver, REPORT, 1000));
+
+        Files.move(partial, folder.resolve("report.csv"));
+        File download = watcher.awaitDownload(driver, REPORT, 5000);
+        Assert.assertNotNull(download);
+        Assert.assertEquals(download.getName(), "report.csv");
+    }
+
+    @Test
+    public void TC_02_FileIsReturnedOnceItsSizeIsStable() throws IOException {
+        FakeDriver driver = new FakeDriver();
+        watcher.startSessionOf(driver);
+        write("report.csv", "a,b");
+        long start = System.nanoTime();
+        Assert.assertNotNull(watcher.awaitDownload(driver, REPORT, 5000));
+        Assert.assertTrue(System.nanoTime() - start >= 400_000_000L, "Returned before the size was stable");
+    }
+
+    @Test
+    public void TC_03_FilesOfEarlierSessionsAreIgnored() throws IOException {
+        write("report-old.csv", "a,b");
+        FakeDriver driver = new FakeDriver();
+        Assert.assertNotNull(watcher.awaitDownload(Pattern.compile("report-old.csv"), -1, 5000));
+
+        watcher.startSessionOf(driver);
+        Assert.assertNull(watcher.awaitDownload(driver, REPORT, 1000));
+    }
+
+    @Test
+    public void TC_04_ParallelSessionsNeverClaimTheSameFile() throws IOException {
+        FakeDriver first = new FakeDriver();
+        FakeDriver second = new FakeDriver();
+        watcher.startSessionOf(first);
+        watcher.startSessionOf(second);
+        write("report.csv", "first");
+
+        Assert.assertEquals(watcher.awaitDownload(first, REPORT, 5000).getName(), "report.csv");
+        Assert.assertNull(watcher.awaitDownload(second, REPORT, 1000));
+
+        write("report (1).csv", "second");
+        Assert.assertEquals(watcher.awaitDownload(second, REPORT, 5000).getName(), "report (1).csv");
+        Assert.assertEquals(watcher.awaitDownload(first, REPORT, 5000).getName(), "report.csv");
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(folder.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,102 @@
+package com;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.w3c.dom.Element;
+
+import commons.BasePage;
+import commons.BrowserScripts;
+import fakeBrowser.FakeDriver;
+
+/**
+ * Browserless regression checks of BasePage: the round trips of each page action are counted by the fake driver, so a change that adds commands fails here
+ * instead of slowing down the real suites.
+ */
+public class FakeBrowserTest {
+    private static final String LOGIN_URL = "https://fake.test/login";
+    private static final String LOGIN_PAGE = "<html><head><title>Login</title></head><body>"
+            + "<form><input id='user' name='user' type='text'/><button id='login' type='button'>Login</button></form>"
+            + "<p id='message'></p><ul id='rows'><li>First</li></ul>"
+            + "</body></html>";
+
+    private FakeDriver driver;
+    private BasePage basePage;
+    private AtomicInteger interceptorInstalls;
+
+    @BeforeMethod
+    public void beforeMethod() {
+        interceptorInstalls = new AtomicInteger();
+        driver = new FakeDriver().addPage(LOGIN_URL, LOGIN_PAGE);
+        driver.addScriptResponder(BrowserScripts.NETWORK_INTERCEPTOR, (fake, args) -> {
+            interceptorInstalls.incrementAndGet();
+            return null;
+        });
+        driver.onClick(By.id("login"), button -> {
+            Element message = (Element) driver.getDocument().getElementsByTagName("p").item(0);
+            message.setTextContent("Welcome");
+            driver.markDomChanged();
+        });
+        basePage = new BasePage();
+        basePage.openPageUrl(driver, LOGIN_URL);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod() {
+        driver.quit();
+    }
+
+    @Test
+    public void TC_01_OpenPageInstallsNetworkInterceptor() {
+        Assert.assertEquals(driver.getCommandCount("get"), 1);
+        Assert.assertEquals(interceptorInstalls.get(), 1);
+        Assert.assertEquals(basePage.getPageTitle(driver), "Login");
+        Assert.assertTrue(driver.getUnhandledScripts().isEmpty(), "Scripts without responder: " + driver.getUnhandledScripts());
+    }
+
+    @Test
+    public void TC_02_ActionsFindEachElementOnce() {
+        driver.resetCommandCounts();
+        basePage.sendkeyToElement(driver, "id=user", "admin");
+        Assert.assertEquals(driver.getCommandCount("findElement"), 1);
+        Assert.assertEquals(driver.getCommandCount("clear"), 1);
+        Assert.assertEquals(driver.getCommandCount("sendKeys"), 1);
+
+        driver.resetCommandCounts();
+        basePage.clickToElement(driver, "id=login");
+        Assert.assertEquals(driver.getCommandCount("findElement"), 1);
+        Assert.assertEquals(driver.getCommandCount("click"), 1);
+        Assert.assertTrue(driver.getUnhandledScripts().isEmpty(), "Scripts without responder: " + driver.getUnhandledScripts());
+    }
+
+    @Test
+    public void TC_03_RepeatedReadsReuseTheElementHandle() {
+        basePage.sendkeyToElement(driver, "id=user", "admin");
+        basePage.clickToElement(driver, "id=login");
+
+        driver.resetCommandCounts();
+        Assert.assertEquals(basePage.getElementText(driver, "id=message"), "Welcome");
+        Assert.assertEquals(basePage.getElementText(driver, "id=message"), "Welcome");
+        Assert.assertEquals(driver.getCommandCount("findElement"), 1);
+        Assert.assertEquals(driver.getCommandCount("getText"), 2);
+        Assert.assertEquals(driver.getCommandCount(), 3);
+    }
+
+    @Test
+    public void TC_04_ActionsForgetPositionalHandles() {
+        Assert.assertEquals(basePage.getElementText(driver, "xpath=(//li)[1]"), "First");
+
+        basePage.sendkeyToElement(driver, "id=user", "admin");
+        Element rows = (Element) driver.getDocument().getElementsByTagName("ul").item(0);
+        Element inserted = driver.getDocument().createElement("li");
+        inserted.setTextContent("Inserted");
+        rows.insertBefore(inserted, rows.getFirstChild());
+        driver.markDomChanged();
+
+        Assert.assertEquals(basePage.getElementText(driver, "xpath=(//li)[1]"), "Inserted");
+    }
+}
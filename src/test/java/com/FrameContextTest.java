@@ -0,0 +1,94 @@
+package com;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import commons.BasePage;
+import commons.FrameContext;
+import fakeBrowser.FakeDriver;
+
+/**
+ * Frame switches of BasePage counted by the fake driver: framed locators switch only when their path changes, explicit switches are always sent, and a click
+ * inside a frame does not leave a stale path behind.
+ */
+public class FrameContextTest {
+    private static final String HOME_URL = "https://fake.test/home";
+    private static final String HOME_PAGE = "<html><head><title>Home</title></head><body>"
+            + "<iframe id='widget' src='https://fake.test/widget'></iframe>"
+            + "</body></html>";
+    private static final String WIDGET_PAGE = "<html><body><p id='status'>Ready</p><a id='next' href='https://fake.test/next'>Next</a>"
+            + "<iframe id='inner' src='https://fake.test/inner'></iframe></body></html>";
+    private static final String INNER_PAGE = "<html><body><p id='deep'>Deep</p></body></html>";
+    private static final String NEXT_PAGE = "<html><head><title>Next</title></head><body>"
+            + "<iframe id='widget' src='https://fake.test/widget'></iframe>"
+            + "</body></html>";
+    private static final String STATUS = "id=widget >>> id=status";
+    private static final String DEEP = "id=widget >>> id=inner >>> id=deep";
+
+    private FakeDriver driver;
+    private BasePage basePage;
+
+    @BeforeMethod
+    public void beforeMethod() {
+        driver = new FakeDriver().addPage(HOME_URL, HOME_PAGE).addPage("https://fake.test/widget", WIDGET_PAGE)
+                .addPage("https://fake.test/inner", INNER_PAGE).addPage("https://fake.test/next", NEXT_PAGE);
+        basePage = new BasePage();
+        basePage.openPageUrl(driver, HOME_URL);
+        driver.resetCommandCounts();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod() {
+        FrameContext.removeFrameContext(driver);
+        driver.quit();
+    }
+
+    @Test
+    public void TC_01_FramedLocatorsSwitchOnlyWhenThePathChanges() {
+        Assert.assertEquals(basePage.getElementText(driver, STATUS), "Ready");
+        Assert.assertEquals(basePage.getElementText(driver, STATUS), "Ready");
+        Assert.assertEquals(driver.getCommandCount("switchToFrame"), 1);
+
+        driver.resetCommandCounts();
+        Assert.assertEquals(basePage.getElementText(driver, DEEP), "Deep");
+        Assert.assertEquals(driver.getCommandCount("switchToFrame"), 1, "Down from the current frame");
+
+        driver.resetCommandCounts();
+        Assert.assertEquals(basePage.getElementText(driver, STATUS), "Ready");
+        Assert.assertEquals(driver.getCommandCount("switchToParentFrame"), 1, "Up with one parentFrame");
+        Assert.assertEquals(driver.getCommandCount("switchToFrame"), 0);
+
+        basePage.getElementText(driver, DEEP);
+        driver.resetCommandCounts();
+        basePage.switchToDefaultContent(driver);
+        Assert.assertEquals(driver.getCommandCount("switchToFrame"), 1, "Up from the top document");
+        Assert.assertEquals(driver.getCommandCount("switchToParentFrame"), 0);
+        Assert.assertTrue(FrameContext.getFrameContext(driver).getCurrentPath().isEmpty());
+    }
+
+    @Test
+    public void TC_02_ExplicitSwitchesAreAlwaysSent() {
+        basePage.switchToDefaultContent(driver);
+        basePage.switchToDefaultContent(driver);
+        Assert.assertEquals(driver.getCommandCount("switchToFrame"), 2);
+
+        basePage.switchToFrameIframe(driver, "id=widget");
+        Assert.assertEquals(basePage.getElementText(driver, "id=status"), "Ready");
+        driver.resetCommandCounts();
+        basePage.switchToFrameIframe(driver, "id=widget >>> id=inner");
+        Assert.assertEquals(driver.getCommandCount("switchToFrame"), 1);
+        Assert.assertEquals(basePage.getElementText(driver, "id=deep"), "Deep");
+    }
+
+    @Test
+    public void TC_03_ClickInsideFrameDoesNotTrustThePath() {
+        Assert.assertEquals(basePage.getElementText(driver, STATUS), "Ready");
+
+        basePage.clickToElement(driver, "id=widget >>> id=next");
+        Assert.assertEquals(driver.getTitle(), "Next");
+        Assert.assertEquals(basePage.getElementText(driver, DEEP), "Deep");
+        Assert.assertEquals(FrameContext.getFrameContext(driver).getCurrentPath().size(), 2);
+    }
+}
@@ -0,0 +1,46 @@
+package com;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import commons.LocatorCache;
+
+/**
+ * Dynamic xpath templates of LocatorCache, which must fill placeholders exactly like String.format does
+ */
+public class LocatorCacheTest {
+    private final LocatorCache locatorCache = LocatorCache.getLocatorCache();
+
+    @Test
+    public void TC_01_OrdinaryAndIndexedPlaceholders() {
+        Assert.assertEquals(locatorCache.getDynamicXpath("xpath=//td[text()='%s']/following-sibling::td[text()='%s']", "Admin", "Enabled"),
+                "xpath=//td[text()='Admin']/following-sibling::td[text()='Enabled']");
+        Assert.assertEquals(locatorCache.getDynamicXpath("xpath=//div[@id='%2$s']//span[text()='%1$s' or text()='%1$s ']", "Save", "dialog"),
+                "xpath=//div[@id='dialog']//span[text()='Save' or text()='Save ']");
+    }
+
+    @Test
+    public void TC_02_SameResultAsStringFormat() {
+        String[] formats = { "xpath=//a[contains(@href,'%s%%')]", "xpath=//tr[%2$s]/td[%s]", "xpath=//input[@value='100%%']", "xpath=//li[%s]%%" };
+        for (String format : formats) {
+            Assert.assertEquals(locatorCache.getDynamicXpath(format, "3", "7"), String.format(format, "3", "7"), format);
+        }
+    }
+
+    @Test
+    public void TC_03_UnsupportedConversionsFallBackToStringFormat() {
+        Assert.assertEquals(locatorCache.getDynamicXpath("xpath=//td[text()='%S']", "admin"), "xpath=//td[text()='ADMIN']");
+        Assert.assertEquals(locatorCache.getDynamicXpath("css=td[title='%s']", "admin"), "css=td[title='%s']");
+    }
+
+    @Test
+    public void TC_04_TemplateIsCompiledOnce() {
+        String format = "xpath=//label[text()='%s']/parent::div//input[@name='%s']";
+        long misses = locatorCache.getTemplateMisses();
+        long hits = locatorCache.getTemplateHits();
+        locatorCache.getDynamicXpath(format, "First Name", "firstName");
+        locatorCache.getDynamicXpath(format, "Last Name", "lastName");
+        Assert.assertEquals(locatorCache.getTemplateMisses() - misses, 1);
+        Assert.assertEquals(locatorCache.getTemplateHits() - hits, 1);
+    }
+}
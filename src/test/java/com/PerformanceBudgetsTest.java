@@ -0,0 +1,110 @@
+package com;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.testng.internal.TestResult;
+
+import commons.BasePage;
+import commons.BrowserScripts;
+import commons.PageLoadTiming;
+import commons.PerformanceBudgets;
+import commons.VerificationFailures;
+import enums.PageLoadMetric;
+import fakeBrowser.FakeDriver;
+
+/**
+ * Budgets checked against the page load timing the fake driver reports for the login page: 1800 ms largest contentful paint, 450 ms time to first byte
+ */
+public class PerformanceBudgetsTest {
+    private static final String LOGIN_URL = "https://fake.test/auth/login";
+
+    private FakeDriver driver;
+    private PageLoadTiming timing;
+    private PerformanceBudgets budgets;
+
+    @BeforeMethod
+    public void beforeMethod() {
+        driver = new FakeDriver().addPage(LOGIN_URL, "<html><head><title>Login</title></head><body></body></html>");
+        driver.addScriptResponder(BrowserScripts.PAGE_LOAD_TIMING, (fake, args) -> {
+            Map<String, Object> metrics = new HashMap<>();
+            metrics.put("LARGEST_CONTENTFUL_PAINT", 1800L);
+            metrics.put("TTFB", 450L);
+            Map<String, Object> pageTiming = new HashMap<>();
+            pageTiming.put("url", fake.getCurrentUrl());
+            pageTiming.put("navigationType", "navigate");
+            pageTiming.put("metrics", metrics);
+            return pageTiming;
+        });
+        driver.get(LOGIN_URL);
+        timing = new BasePage().getPageLoadTiming(driver, "open");
+        budgets = new PerformanceBudgets();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod() {
+        driver.quit();
+    }
+
+    @Test
+    public void TC_01_PageBudgetReplacesTheDefaultAndStrictestWins() {
+        budgets.addBudget(PageLoadMetric.LARGEST_CONTENTFUL_PAINT, null, 1500);
+        Assert.assertEquals(budgets.getBreaches(timing), Arrays.asList("LARGEST_CONTENTFUL_PAINT 1800 > budget 1500"));
+
+        budgets.addBudget(PageLoadMetric.LARGEST_CONTENTFUL_PAINT, "/auth/", 3000);
+        budgets.addBudget(PageLoadMetric.LARGEST_CONTENTFUL_PAINT, "/login$", 2000);
+        Assert.assertEquals(budgets.getBudget(PageLoadMetric.LARGEST_CONTENTFUL_PAINT, LOGIN_URL), 2000.0);
+        Assert.assertEquals(budgets.getBudget(PageLoadMetric.LARGEST_CONTENTFUL_PAINT, "https://fake.test/dashboard"), 1500.0);
+        Assert.assertTrue(budgets.getBreaches(timing).isEmpty());
+    }
+
+    @Test
+    public void TC_02_UnreportedMetricsAndMissingBudgetsNeverBreach() {
+        budgets.addBudget(PageLoadMetric.FIRST_PAINT, null, 1);
+        Assert.assertEquals(budgets.getBudget(PageLoadMetric.TTFB, LOGIN_URL), -1.0);
+        Assert.assertTrue(budgets.verify(timing));
+    }
+
+    @Test
+    public void TC_03_BudgetFileFormat() throws IOException {
+        File budgetFile = File.createTempFile("budgets", ".properties");
+        try {
+            Files.write(budgetFile.toPath(), Arrays.asList("TTFB=400", "TTFB@/auth/login=500"), StandardCharsets.UTF_8);
+            budgets.load(budgetFile);
+            Assert.assertEquals(budgets.getBudget(PageLoadMetric.TTFB, LOGIN_URL), 500.0);
+            Assert.assertEquals(budgets.getBudget(PageLoadMetric.TTFB, "https://fake.test/home"), 400.0);
+        } finally {
+            budgetFile.delete();
+        }
+    }
+
+    @Test
+    public void TC_04_BreachIsASoftFailureOfTheCurrentTest() {
+        budgets.addBudget(PageLoadMetric.TTFB, null, 300);
+        ITestResult runningTest = Reporter.getCurrentTestResult();
+        ITestResult navigatingTest = new TestResult();
+        Reporter.setCurrentTestResult(navigatingTest);
+        try {
+            Assert.assertFalse(budgets.verify(timing));
+        } finally {
+            Reporter.setCurrentTestResult(runningTest);
+        }
+
+        List<Throwable> failures = VerificationFailures.getFailures().remove(navigatingTest);
+        Assert.assertEquals(failures.size(), 1);
+        Assert.assertEquals(failures.get(0).getMessage(), "Performance budget exceeded on " + LOGIN_URL + " after open: TTFB 450 > budget 300");
+        Assert.assertSame(navigatingTest.getThrowable(), failures.get(0));
+    }
+}
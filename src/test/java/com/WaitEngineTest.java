@@ -0,0 +1,98 @@
+package com;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.w3c.dom.Element;
+
+import commons.WaitEngine;
+import fakeBrowser.FakeDriver;
+
+/**
+ * Polling of WaitEngine against changes the fake driver applies after a delay: 10 ms first polling doubled up to 80 ms, NotFoundException ignored.
+ */
+public class WaitEngineTest {
+    private static final String PAGE_URL = "https://fake.test/wait";
+    private static final String PAGE = "<html><body><div id='content'></div></body></html>";
+
+    private FakeDriver driver;
+    private WaitEngine waitEngine;
+
+    @BeforeMethod
+    public void beforeMethod() {
+        driver = new FakeDriver().addPage(PAGE_URL, PAGE);
+        driver.get(PAGE_URL);
+        waitEngine = new WaitEngine(driver, 10, 80, 2, NotFoundException.class);
+        driver.resetCommandCounts();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod() {
+        driver.quit();
+    }
+
+    @Test
+    public void TC_01_PollingBacksOff() {
+        driver.schedule(400, fake -> addElement(fake, "late"));
+
+        WebElement element = waitEngine.until(d -> d.findElements(By.id("late")).isEmpty() ? null : d.findElement(By.id("late")), 5000, 10);
+
+        Assert.assertEquals(element.getTagName(), "p");
+        // 10, 20, 40 then 80 ms between looks: a fixed 10 ms polling would have looked about 40 times
+        Assert.assertTrue(driver.getCommandCount("findElements") <= 10, "Polled " + driver.getCommandCount("findElements") + " times");
+        Assert.assertEquals(waitEngine.getTimeoutCount(), 0);
+    }
+
+    @Test
+    public void TC_02_IgnoredExceptionsKeepPolling() {
+        driver.schedule(200, fake -> addElement(fake, "late"));
+
+        WebElement element = waitEngine.until(d -> d.findElement(By.id("late")), 5000, 10);
+
+        Assert.assertEquals(element.getTagName(), "p");
+        Assert.assertTrue(driver.getCommandCount("findElement") > 1);
+    }
+
+    @Test
+    public void TC_03_OtherExceptionsStopTheWait() {
+        AtomicInteger evaluations = new AtomicInteger();
+        try {
+            waitEngine.until(d -> {
+                evaluations.incrementAndGet();
+                throw new IllegalStateException("Broken condition");
+            }, 5000, 10);
+            Assert.fail("The exception was ignored");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals(evaluations.get(), 1);
+        }
+    }
+
+    @Test
+    public void TC_04_TimeoutKeepsTheLastIgnoredException() {
+        long start = System.nanoTime();
+        try {
+            waitEngine.until(d -> d.findElement(By.id("never")), 300, 10);
+            Assert.fail("The wait did not time out");
+        } catch (TimeoutException e) {
+            Assert.assertTrue(e.getCause() instanceof NoSuchElementException, "Cause: " + e.getCause());
+            Assert.assertTrue(System.nanoTime() - start >= 300_000_000L, "Timed out early");
+            Assert.assertEquals(waitEngine.getTimeoutCount(), 1);
+        }
+    }
+
+    private static void addElement(FakeDriver fake, String id) {
+        Element paragraph = fake.getDocument().createElement("p");
+        paragraph.setAttribute("id", id);
+        paragraph.setTextContent(id);
+        fake.getDocument().getElementsByTagName("div").item(0).appendChild(paragraph);
+        fake.markDomChanged();
+    }
+}
@@ -0,0 +1,84 @@
+package com;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import commons.WindowRegistry;
+import fakeBrowser.FakeDriver;
+
+/**
+ * Window switches of WindowRegistry counted by the fake driver, with a home window and two windows opened from it
+ */
+public class WindowRegistryTest {
+    private FakeDriver driver;
+    private WindowRegistry registry;
+    private String home;
+    private String report;
+    private String help;
+
+    @BeforeMethod
+    public void beforeMethod() {
+        driver = new FakeDriver().addPage("https://fake.test/home", "<html><head><title>Home</title></head><body></body></html>")
+                .addPage("https://fake.test/report", "<html><head><title>Report</title></head><body></body></html>")
+                .addPage("https://fake.test/help", "<html><head><title>Help</title></head><body></body></html>");
+        driver.get("https://fake.test/home");
+        home = driver.getWindowHandle();
+        report = driver.openWindow("https://fake.test/report");
+        help = driver.openWindow("https://fake.test/help");
+        registry = WindowRegistry.getRegistry(driver);
+        driver.resetCommandCounts();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod() {
+        WindowRegistry.removeRegistry(driver);
+        driver.quit();
+    }
+
+    @Test
+    public void TC_01_SwitchToTitleSkipsTheCurrentWindow() {
+        Assert.assertTrue(registry.switchToTitle("Report"));
+        Assert.assertEquals(driver.getWindowHandle(), report);
+
+        driver.resetCommandCounts();
+        Assert.assertTrue(registry.switchToTitle("Report"));
+        Assert.assertEquals(driver.getCommandCount("switchToWindow"), 0);
+    }
+
+    @Test
+    public void TC_02_NoMatchGoesBackAndCachedTitlesAreTriedFirst() {
+        Assert.assertFalse(registry.switchToTitle("Missing"));
+        Assert.assertEquals(driver.getWindowHandle(), home);
+
+        driver.resetCommandCounts();
+        Assert.assertTrue(registry.switchToTitle("Help"));
+        Assert.assertEquals(driver.getCommandCount("switchToWindow"), 1);
+        Assert.assertEquals(driver.getWindowHandle(), help);
+    }
+
+    @Test
+    public void TC_03_CloseAllExceptKeepsOneWindow() {
+        registry.switchTo(report);
+
+        Assert.assertEquals(registry.closeAllExcept(home), 2);
+        Assert.assertEquals(driver.getWindowHandles().size(), 1);
+        Assert.assertEquals(driver.getWindowHandle(), home);
+        Assert.assertEquals(driver.getCommandCount("close"), 2);
+        Assert.assertEquals(driver.getTitle(), "Home");
+    }
+
+    @Test
+    public void TC_04_WithWindowComesBackAfterFailure() {
+        try {
+            registry.withWindow(help, () -> {
+                throw new IllegalStateException("Failed in " + driver.getTitle());
+            });
+            Assert.fail("The action did not fail");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals(e.getMessage(), "Failed in Help");
+        }
+        Assert.assertEquals(driver.getWindowHandle(), home);
+    }
+}